@@ -0,0 +1,69 @@
+package pl.wsb.fitnesstracker.cache.internal;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache of the read-mostly {@code User} and {@code Statistics} entities and query cache
+ * of the common training and statistics lookups, kept in local Caffeine caches behind the JCache API.
+ * <p>
+ * Every region is created upfront with its size and time to live from {@link SecondLevelCacheProperties},
+ * Hibernate fails to start on a cached entity without a configured region. The update timestamps region, which tells
+ * whether a cached query result is stale, is neither bounded nor expired, evicting a timestamp would serve stale results.
+ * Hit, miss and put counts are exported with the other {@code hibernate.*} metrics, per region as
+ * {@code hibernate.second.level.cache.requests} and for the query cache as {@code hibernate.cache.query.requests}.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+class SecondLevelCacheConfig {
+
+    static final String USERS_REGION = "users";
+
+    static final String STATISTICS_REGION = "statistics";
+
+    /**
+     * Each application context gets its own cache manager, so contexts sharing the JVM (tests) do not share cached entities.
+     */
+    @Bean(destroyMethod = "close")
+    CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("fitness-tracker:second-level-cache:" + UUID.randomUUID()), getClass().getClassLoader(), new Properties());
+        cacheManager.createCache(USERS_REGION, region(properties.getUsers()));
+        cacheManager.createCache(STATISTICS_REGION, region(properties.getStatistics()));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(properties.getQueryResults()));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(SecondLevelCacheProperties.Region region) {
+        return new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(region.getMaximumSize()))
+                .setExpireAfterWrite(OptionalLong.of(region.getTimeToLive().toNanos()));
+    }
+
+}
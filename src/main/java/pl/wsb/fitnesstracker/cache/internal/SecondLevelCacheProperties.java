@@ -0,0 +1,60 @@
+package pl.wsb.fitnesstracker.cache.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the regions of the Hibernate second-level cache, see {@link SecondLevelCacheConfig}.
+ */
+@ConfigurationProperties(prefix = "cache.second-level")
+@Getter
+class SecondLevelCacheProperties {
+
+    /**
+     * Region of the {@code User} entities.
+     */
+    private final Region users;
+
+    /**
+     * Region of the {@code Statistics} entities.
+     */
+    private final Region statistics;
+
+    /**
+     * Region of the cached query results.
+     */
+    private final Region queryResults;
+
+    SecondLevelCacheProperties(@DefaultValue Region users,
+                               @DefaultValue Region statistics,
+                               @DefaultValue Region queryResults) {
+        this.users = users;
+        this.statistics = statistics;
+        this.queryResults = queryResults;
+    }
+
+    @Getter
+    static class Region {
+
+        /**
+         * Maximum number of cached entries, least recently used are evicted above it.
+         */
+        private final long maximumSize;
+
+        /**
+         * Time after which a cached entry expires, bounds staleness of writes bypassing Hibernate.
+         */
+        private final Duration timeToLive;
+
+        Region(@DefaultValue("10000") long maximumSize,
+               @DefaultValue("10m") Duration timeToLive) {
+            this.maximumSize = maximumSize;
+            this.timeToLive = timeToLive;
+        }
+
+    }
+
+}
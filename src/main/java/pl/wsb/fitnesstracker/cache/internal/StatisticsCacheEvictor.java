@@ -0,0 +1,57 @@
+package pl.wsb.fitnesstracker.cache.internal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.user.api.User;
+
+/**
+ * Evicts the cached {@link Statistics} once a deleted {@link User} is committed. The statistics of the user are deleted
+ * by the {@code ON DELETE CASCADE} of the database, which Hibernate does not see: it neither evicts the entity
+ * nor invalidates the cached queries reading the {@code statistics} table. User deletions are rare,
+ * so the whole region is evicted instead of looking up the statistics of the user.
+ */
+@Component
+@RequiredArgsConstructor
+class StatisticsCacheEvictor implements PostCommitDeleteEventListener {
+
+    private static final String[] STATISTICS_TABLE = {"statistics"};
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void register() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof User) {
+            CacheImplementor cache = event.getSession().getFactory().getCache();
+            cache.evictEntityData(Statistics.class);
+            cache.getTimestampsCache().invalidate(STATISTICS_TABLE, event.getSession());
+        }
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.getMappedClass() == User.class;
+    }
+
+}
@@ -0,0 +1,343 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Nullable;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.importer.internal.ImportTarget.ChunkResult;
+import pl.wsb.fitnesstracker.training.api.TrainingService;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of users and trainings from large line based files (see {@link ImportFormat}).
+ * <p>
+ * The file is cut into splits of about {@link ImportProperties#getSplitSize()} ending at a line break (a smaller file is
+ * spread over all the workers, in splits of at least {@link ImportProperties#getMinSplitSize()}), which are parsed in
+ * parallel by {@link ImportProperties#getParallelism()} workers. Each worker memory-maps its split and copies one line
+ * at a time into a reusable buffer, so the file is never read onto the heap as a whole and only the rows of the current
+ * chunk are held. Valid rows are written in chunks of {@link ImportProperties#getChunkSize()}, each in its own
+ * transaction inserted in JDBC batches, concurrently unless the target serializes its writes
+ * (see {@link ImportTarget#parallelWrites()}). A chunk failing on a conflict with a concurrent chunk (a lock timeout, or
+ * two chunks inserting the same email or the first statistics of the same user) is retried, after which the state
+ * written by the other chunk is visible. Any other failure fails the rows of the chunk, the import goes on.
+ * <p>
+ * Only counters and the first {@link ImportProperties#getMaxErrors()} errors are kept, whatever the size of the file.
+ */
+@Service
+@Slf4j
+class BulkImporter {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Maximum length of a split, mapped as a single buffer. The nominal split size is capped at half of it, leaving
+     * room for the line crossing the end of the split.
+     */
+    private static final long MAX_SPLIT_SIZE = 1024 * 1024 * 1024;
+
+    private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+    private static final int LINE_BUFFER_SIZE = 1024;
+
+    private final UserService userService;
+
+    private final UserProvider userProvider;
+
+    private final TrainingService trainingService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ImportProperties properties;
+
+    BulkImporter(UserService userService,
+                 UserProvider userProvider,
+                 TrainingService trainingService,
+                 ObjectMapper objectMapper,
+                 Validator validator,
+                 PlatformTransactionManager transactionManager,
+                 ImportProperties properties) {
+        this.userService = userService;
+        this.userProvider = userProvider;
+        this.trainingService = trainingService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    ImportJob<UserImportRow> prepareUsers(Path file, ImportFormat format) throws IOException {
+        return prepare(file, format, new UserImportTarget(userService, userProvider));
+    }
+
+    ImportJob<TrainingImportRow> prepareTrainings(Path file, ImportFormat format) throws IOException {
+        return prepare(file, format, new TrainingImportTarget(trainingService, userProvider));
+    }
+
+    /**
+     * Opens the file, reads the CSV header and splits the file for the parallel workers.
+     *
+     * @param file   imported file
+     * @param format format of the file
+     * @param target imported entity
+     * @return job to be {@link #run} and closed by the caller
+     * @throws BusinessException if the CSV header lacks a column of the target
+     */
+    <T> ImportJob<T> prepare(Path file, ImportFormat format, ImportTarget<T> target) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long start = ImportFile.contentStart(channel);
+            ImportJob.RowParser<T> parser;
+            if (format == ImportFormat.CSV) {
+                long dataStart = ImportFile.nextLine(channel, start);
+                parser = csvParser(target, readHeader(channel, start, dataStart));
+                start = dataStart;
+            } else {
+                parser = (line, length) -> objectMapper.readValue(line, 0, length, target.rowType());
+            }
+            long size = channel.size() - start;
+            long splitSize = Math.max(1, Math.min(properties.getSplitSize().toBytes(), MAX_SPLIT_SIZE / 2));
+            long minSplitSize = Math.max(1, properties.getMinSplitSize().toBytes());
+            int count = (int) Math.max(1, Math.max(Math.min(properties.getParallelism(), size / minSplitSize), (size + splitSize - 1) / splitSize));
+            List<ImportFile.Split> splits = ImportFile.split(channel, start, count);
+            if (splits.stream().anyMatch(split -> split.length() > MAX_SPLIT_SIZE)) {
+                throw new BusinessException("File contains a line too long to split the file into parts of at most 1GB");
+            }
+            ImportProgress progress = new ImportProgress(channel.size(), properties.getMaxErrors());
+            progress.processed(start);
+            return new ImportJob<>(channel, target, parser, splits, progress, new ReentrantLock());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Imports the file, blocking until all its splits are processed.
+     *
+     * @param job      prepared import
+     * @param listener receiver of the {@link ImportStatus#RUNNING} progress events, called every
+     *                 {@link ImportProperties#getProgressInterval()}; throwing from it cancels the import
+     * @return final progress of the import
+     */
+    ImportProgressDto run(ImportJob<?> job, Consumer<ImportProgressDto> listener) {
+        ImportStatus status = ImportStatus.FAILED;
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism());
+        try {
+            CompletableFuture<?>[] tasks = job.splits().stream()
+                    .map(split -> CompletableFuture.runAsync(() -> importSplit(job, split), executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture<Void> all = CompletableFuture.allOf(tasks);
+            while (true) {
+                try {
+                    all.get(properties.getProgressInterval().toMillis(), TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    listener.accept(job.progress().snapshot(ImportStatus.RUNNING));
+                }
+            }
+            status = ImportStatus.COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Import was interrupted");
+        } catch (ExecutionException e) {
+            log.error("Import failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        ImportProgressDto result = job.progress().snapshot(status);
+        log.info("Import {} in {} ms: {} imported, {} skipped, {} rejected, {} failed", status, result.elapsedMillis(),
+                result.imported(), result.skipped(), result.rejected(), result.failed());
+        return result;
+    }
+
+    private <T> void importSplit(ImportJob<T> job, ImportFile.Split split) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = job.channel().map(FileChannel.MapMode.READ_ONLY, split.start(), split.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int chunkSize = properties.getChunkSize();
+        List<T> rows = new ArrayList<>(chunkSize);
+        long[] offsets = new long[chunkSize];
+        byte[] line = new byte[LINE_BUFFER_SIZE];
+        int limit = buffer.limit();
+        int position = 0;
+        int reported = 0;
+        while (position < limit) {
+            int end = position;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            int length = end > position && buffer.get(end - 1) == '\r' ? end - position - 1 : end - position;
+            if (length > line.length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            buffer.get(position, line, 0, length);
+            long offset = split.start() + position;
+            position = Math.min(end + 1, limit);
+
+            T row = isBlank(line, length) ? null : parse(job, line, length, offset);
+            if (row != null) {
+                offsets[rows.size()] = offset;
+                rows.add(row);
+            }
+            if (rows.size() == chunkSize) {
+                writeChunk(job, rows, offsets);
+                rows.clear();
+                job.progress().processed(position - reported);
+                reported = position;
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            writeChunk(job, rows, offsets);
+        }
+        job.progress().processed(limit - reported);
+    }
+
+    @Nullable
+    private <T> T parse(ImportJob<T> job, byte[] line, int length, long offset) {
+        T row;
+        try {
+            row = job.parser().parse(line, length);
+        } catch (JsonProcessingException e) {
+            job.progress().rejected(offset, "Malformed row: " + e.getOriginalMessage());
+            return null;
+        } catch (IOException | RuntimeException e) {
+            job.progress().rejected(offset, "Malformed row: " + e.getMessage());
+            return null;
+        }
+        if (row == null) {
+            job.progress().rejected(offset, "Malformed row: not an object");
+            return null;
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            job.progress().rejected(offset, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return row;
+    }
+
+    private <T> void writeChunk(ImportJob<T> job, List<T> rows, long[] offsets) {
+        if (job.target().parallelWrites()) {
+            writeChunkWithRetries(job, rows, offsets);
+            return;
+        }
+        job.writeLock().lock();
+        try {
+            writeChunkWithRetries(job, rows, offsets);
+        } finally {
+            job.writeLock().unlock();
+        }
+    }
+
+    private <T> void writeChunkWithRetries(ImportJob<T> job, List<T> rows, long[] offsets) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ChunkResult result = Objects.requireNonNull(transactionTemplate.execute(status -> job.target().write(rows)));
+                job.progress().written(result.imported(), result.skipped());
+                result.rejections().forEach(rejection -> job.progress().rejected(offsets[rejection.index()], rejection.message()));
+                return;
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    failChunk(job, rows, offsets, e);
+                    return;
+                }
+                log.debug("Writing {} rows from offset {} conflicted, retrying", rows.size(), offsets[0], e);
+            } catch (RuntimeException e) {
+                failChunk(job, rows, offsets, e);
+                return;
+            }
+        }
+    }
+
+    private static <T> void failChunk(ImportJob<T> job, List<T> rows, long[] offsets, RuntimeException e) {
+        log.warn("Writing {} rows from offset {} failed", rows.size(), offsets[0], e);
+        job.progress().failed(offsets[0], rows.size(), "Writing %d rows failed: %s"
+                .formatted(rows.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+    }
+
+    private static <T> ImportJob.RowParser<T> csvParser(ImportTarget<T> target, String header) {
+        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        List<String> headerColumns = Arrays.stream(CsvLine.split(headerBytes, headerBytes.length))
+                .map(String::trim)
+                .toList();
+        List<String> columns = target.csvColumns();
+        int[] indexes = new int[columns.size()];
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            indexes[i] = headerColumns.indexOf(columns.get(i));
+            if (indexes[i] < 0) {
+                missing.add(columns.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new BusinessException("CSV header lacks the columns %s, expected %s".formatted(missing, columns));
+        }
+        return (line, length) -> {
+            String[] values = CsvLine.split(line, length);
+            if (values.length != headerColumns.size()) {
+                throw new IllegalArgumentException("expected %d values, found %d".formatted(headerColumns.size(), values.length));
+            }
+            String[] targetValues = new String[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                targetValues[i] = values[indexes[i]];
+            }
+            return target.fromCsv(targetValues);
+        };
+    }
+
+    private static String readHeader(FileChannel channel, long start, long end) throws IOException {
+        if (end - start > MAX_HEADER_LENGTH) {
+            throw new BusinessException("CSV header is longer than %d bytes".formatted(MAX_HEADER_LENGTH));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        channel.read(buffer, start);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).stripTrailing();
+    }
+
+    private static boolean isBlank(byte[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            if (line[i] != ' ' && line[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
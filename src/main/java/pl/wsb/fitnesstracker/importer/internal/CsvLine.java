@@ -0,0 +1,66 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splitting of a UTF-8 encoded CSV line into its values. The line is scanned byte by byte: the bytes of the comma and
+ * the quote never occur within a multibyte UTF-8 sequence, so only the values themselves are decoded.
+ * <p>
+ * Files are split at every line break, so a quoted value can not span several lines: such a row is rejected as its
+ * quoted value is not terminated on the line.
+ */
+final class CsvLine {
+
+    private CsvLine() {
+    }
+
+    /**
+     * @param line   buffer holding the line, without the line break
+     * @param length length of the line in the buffer
+     * @return values of the line, unquoted
+     * @throws IllegalArgumentException if a quoted value is not terminated
+     */
+    static String[] split(byte[] line, int length) {
+        List<String> values = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            if (position < length && line[position] == '"') {
+                position = readQuoted(line, length, position + 1, values);
+            } else {
+                int end = position;
+                while (end < length && line[end] != ',') {
+                    end++;
+                }
+                values.add(new String(line, position, end - position, StandardCharsets.UTF_8));
+                position = end;
+            }
+            if (position >= length) {
+                return values.toArray(String[]::new);
+            }
+            if (line[position] != ',') {
+                throw new IllegalArgumentException("Unexpected character after quoted value at position " + position);
+            }
+            position++;
+        }
+    }
+
+    private static int readQuoted(byte[] line, int length, int start, List<String> values) {
+        byte[] value = new byte[length - start];
+        int valueLength = 0;
+        for (int position = start; position < length; position++) {
+            if (line[position] != '"') {
+                value[valueLength++] = line[position];
+            } else if (position + 1 < length && line[position + 1] == '"') {
+                value[valueLength++] = '"';
+                position++;
+            } else {
+                values.add(new String(value, 0, valueLength, StandardCharsets.UTF_8));
+                return position + 1;
+            }
+        }
+        throw new IllegalArgumentException("Quoted value is not terminated on the line, line breaks within values are not supported");
+    }
+
+}
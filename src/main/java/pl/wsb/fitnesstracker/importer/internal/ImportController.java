@@ -0,0 +1,109 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Bulk import of files sent as the raw request body, with a non-form content type (e.g. {@code text/csv}). The body is spooled to a temporary file, which is then
+ * memory-mapped by the {@link BulkImporter}. The response streams {@link ImportProgressDto} events as newline
+ * delimited JSON while the import runs, the last one carrying the final counts and errors.
+ */
+@RestController
+@RequestMapping("/v1/imports")
+@RequiredArgsConstructor
+class ImportController {
+
+    private final BulkImporter bulkImporter;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Import of users with the columns {@code firstName, lastName, birthdate, email}.
+     */
+    @PostMapping("/users")
+    public ResponseEntity<StreamingResponseBody> importUsers(@RequestParam(defaultValue = "CSV") ImportFormat format,
+                                                             HttpServletRequest request) throws IOException {
+        Path file = spool(request);
+        return stream(file, prepare(file, () -> bulkImporter.prepareUsers(file, format)));
+    }
+
+    /**
+     * Import of trainings with the columns {@code userEmail, startTime, endTime, activityType, distance, averageSpeed}.
+     */
+    @PostMapping("/trainings")
+    public ResponseEntity<StreamingResponseBody> importTrainings(@RequestParam(defaultValue = "CSV") ImportFormat format,
+                                                                 HttpServletRequest request) throws IOException {
+        Path file = spool(request);
+        return stream(file, prepare(file, () -> bulkImporter.prepareTrainings(file, format)));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(Path file, ImportJob<?> job) {
+        StreamingResponseBody body = outputStream -> {
+            try (job) {
+                ImportProgressDto result = bulkImporter.run(job, progress -> {
+                    try {
+                        writeEvent(outputStream, progress);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writeEvent(outputStream, result);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeEvent(OutputStream outputStream, ImportProgressDto progress) throws IOException {
+        outputStream.write(objectMapper.writeValueAsBytes(progress));
+        outputStream.write('\n');
+        outputStream.flush();
+    }
+
+    private static Path spool(HttpServletRequest request) throws IOException {
+        Path file = Files.createTempFile("fitness-tracker-import-", ".tmp");
+        try (InputStream body = request.getInputStream()) {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private static ImportJob<?> prepare(Path file, JobPreparation preparation) throws IOException {
+        try {
+            return preparation.prepare();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface JobPreparation {
+
+        ImportJob<?> prepare() throws IOException;
+
+    }
+
+}
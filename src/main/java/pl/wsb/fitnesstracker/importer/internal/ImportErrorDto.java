@@ -0,0 +1,11 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+/**
+ * Row of the imported file that was rejected or failed to be written.
+ *
+ * @param offset  byte offset of the row in the file
+ * @param message description of the error
+ */
+record ImportErrorDto(long offset, String message) {
+
+}
@@ -0,0 +1,96 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splitting of an imported file into regions of whole lines, parsed in parallel. The nominal split boundaries are
+ * moved past the next line break with a few small positional reads, without reading the rest of the file.
+ */
+final class ImportFile {
+
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private ImportFile() {
+    }
+
+    /**
+     * @param channel channel of the file
+     * @return position of the first line, past the UTF-8 byte order mark if there is one
+     */
+    static long contentStart(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(UTF8_BOM.length);
+        channel.read(buffer, 0);
+        return buffer.flip().equals(ByteBuffer.wrap(UTF8_BOM)) ? UTF8_BOM.length : 0;
+    }
+
+    /**
+     * Returns the start of the line following the given position.
+     *
+     * @param channel  channel of the file
+     * @param position position within a line
+     * @return position following the first line break at or after the position, or the size of the file if there is none
+     */
+    static long nextLine(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Splits the region of the file into consecutive splits ending with a line break (or the end of the file).
+     *
+     * @param channel channel of the file
+     * @param start   start of the region, at the beginning of a line
+     * @param count   nominal number of splits, fewer are returned when lines span several nominal splits
+     * @return non-empty splits covering the region up to the end of the file
+     */
+    static List<Split> split(FileChannel channel, long start, int count) throws IOException {
+        long size = channel.size();
+        List<Split> splits = new ArrayList<>(count);
+        long splitStart = start;
+        for (int i = 1; i <= count && splitStart < size; i++) {
+            long nominalEnd = start + (size - start) * i / count;
+            if (i < count && nominalEnd <= splitStart) {
+                // the previous split ended with a line reaching past this nominal split
+                continue;
+            }
+            long splitEnd = i == count ? size : nextLine(channel, nominalEnd - 1);
+            splits.add(new Split(splitStart, splitEnd));
+            splitStart = splitEnd;
+        }
+        return splits;
+    }
+
+    /**
+     * Region of the file made of whole lines.
+     *
+     * @param start position of the first byte
+     * @param end   position following the last byte
+     */
+    record Split(long start, long end) {
+
+        long length() {
+            return end - start;
+        }
+
+    }
+
+}
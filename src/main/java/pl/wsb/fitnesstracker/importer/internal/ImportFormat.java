@@ -0,0 +1,20 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+/**
+ * Formats of the imported files. Both are line based and UTF-8 encoded.
+ */
+enum ImportFormat {
+
+    /**
+     * Comma separated values with a header line naming the columns, in any order.
+     * Values containing a comma or a quote are enclosed in double quotes, quotes are escaped by doubling them.
+     * Unlike RFC 4180, a quoted value can not contain a line break: every line is a row.
+     */
+    CSV,
+
+    /**
+     * Newline delimited JSON, one object per line.
+     */
+    NDJSON
+
+}
@@ -0,0 +1,50 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Import of a single file, prepared by {@link BulkImporter#prepare} and executed by {@link BulkImporter#run}.
+ * Closing the job closes the file.
+ *
+ * @param channel  channel of the imported file
+ * @param target   imported entity
+ * @param parser   parser of the rows in the format of the file
+ * @param splits   regions of the file parsed in parallel
+ * @param progress counters of the import
+ * @param writeLock lock serializing the writes of the target not supporting {@link ImportTarget#parallelWrites()}
+ * @param <T>      type of the parsed row
+ */
+record ImportJob<T>(FileChannel channel,
+                    ImportTarget<T> target,
+                    RowParser<T> parser,
+                    List<ImportFile.Split> splits,
+                    ImportProgress progress,
+                    Lock writeLock) implements AutoCloseable {
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Parser of a single line of the file.
+     *
+     * @param <T> type of the parsed row
+     */
+    @FunctionalInterface
+    interface RowParser<T> {
+
+        /**
+         * @param line   buffer holding the line, without the line break
+         * @param length length of the line in the buffer
+         * @return parsed row, not validated yet
+         * @throws IOException or {@link RuntimeException} if the line is malformed
+         */
+        T parse(byte[] line, int length) throws IOException;
+
+    }
+
+}
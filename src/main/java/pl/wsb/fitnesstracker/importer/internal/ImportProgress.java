@@ -0,0 +1,76 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a running import, updated by the parallel workers once per chunk and read by the progress events.
+ */
+final class ImportProgress {
+
+    private final long bytesTotal;
+
+    private final int maxErrors;
+
+    private final long start = System.nanoTime();
+
+    private final AtomicLong bytesProcessed = new AtomicLong();
+
+    private final AtomicLong imported = new AtomicLong();
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final List<ImportErrorDto> errors = new ArrayList<>();
+
+    ImportProgress(long bytesTotal, int maxErrors) {
+        this.bytesTotal = bytesTotal;
+        this.maxErrors = maxErrors;
+    }
+
+    void processed(long bytes) {
+        bytesProcessed.addAndGet(bytes);
+    }
+
+    void written(int imported, int skipped) {
+        this.imported.addAndGet(imported);
+        this.skipped.addAndGet(skipped);
+    }
+
+    void rejected(long offset, String message) {
+        rejected.incrementAndGet();
+        addError(offset, message);
+    }
+
+    void failed(long offset, int rows, String message) {
+        failed.addAndGet(rows);
+        addError(offset, message);
+    }
+
+    ImportProgressDto snapshot(ImportStatus status) {
+        List<ImportErrorDto> reportedErrors = List.of();
+        if (status != ImportStatus.RUNNING) {
+            synchronized (errors) {
+                reportedErrors = errors.stream()
+                        .sorted(Comparator.comparingLong(ImportErrorDto::offset))
+                        .toList();
+            }
+        }
+        return new ImportProgressDto(status, bytesProcessed.get(), bytesTotal, imported.get(), skipped.get(), rejected.get(), failed.get(),
+                (System.nanoTime() - start) / 1_000_000, reportedErrors);
+    }
+
+    private void addError(long offset, String message) {
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportErrorDto(offset, message));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Progress event of a bulk import, streamed periodically while it runs and once more when it ends.
+ *
+ * @param status         state of the import
+ * @param bytesProcessed number of bytes of the file parsed and written (or rejected) so far
+ * @param bytesTotal     size of the file
+ * @param imported       number of rows stored
+ * @param skipped        number of rows left out as already present (users with an existing email)
+ * @param rejected       number of invalid rows, or rows referencing a missing user
+ * @param failed         number of rows whose chunk could not be written
+ * @param elapsedMillis  time since the start of the import
+ * @param errors         first rejected or failed rows, reported by the final event only
+ */
+record ImportProgressDto(ImportStatus status,
+                         long bytesProcessed,
+                         long bytesTotal,
+                         long imported,
+                         long skipped,
+                         long rejected,
+                         long failed,
+                         long elapsedMillis,
+                         @JsonInclude(JsonInclude.Include.NON_EMPTY) List<ImportErrorDto> errors) {
+
+}
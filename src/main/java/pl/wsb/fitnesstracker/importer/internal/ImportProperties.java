@@ -0,0 +1,62 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link BulkImporter}.
+ */
+@ConfigurationProperties(prefix = "importer")
+@Getter
+class ImportProperties {
+
+    /**
+     * Number of file splits parsed and written in parallel.
+     */
+    private final int parallelism;
+
+    /**
+     * Number of rows written per transaction. Should be a multiple of {@code hibernate.jdbc.batch_size}.
+     */
+    private final int chunkSize;
+
+    /**
+     * Target size of a file split (a memory-mapped region parsed by a single task), at most 512MB.
+     */
+    private final DataSize splitSize;
+
+    /**
+     * Minimum size of a split when a file of less than {@code parallelism} splits is spread over all the workers,
+     * below which a smaller file is parsed by fewer workers.
+     */
+    private final DataSize minSplitSize;
+
+    /**
+     * Interval of the progress events streamed to the client.
+     */
+    private final Duration progressInterval;
+
+    /**
+     * Maximum number of rejected or failed rows reported with their error, the others are only counted.
+     */
+    private final int maxErrors;
+
+    ImportProperties(@DefaultValue("4") int parallelism,
+                     @DefaultValue("5000") int chunkSize,
+                     @DefaultValue("64MB") DataSize splitSize,
+                     @DefaultValue("1MB") DataSize minSplitSize,
+                     @DefaultValue("1s") Duration progressInterval,
+                     @DefaultValue("100") int maxErrors) {
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.splitSize = splitSize;
+        this.minSplitSize = minSplitSize;
+        this.progressInterval = progressInterval;
+        this.maxErrors = maxErrors;
+    }
+
+}
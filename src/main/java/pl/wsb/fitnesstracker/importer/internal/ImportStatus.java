@@ -0,0 +1,20 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+enum ImportStatus {
+
+    /**
+     * The file is being imported, counts are a snapshot.
+     */
+    RUNNING,
+
+    /**
+     * All rows of the file were processed, counts are final.
+     */
+    COMPLETED,
+
+    /**
+     * The import was aborted, e.g. the file could not be read. Rows counted as imported stay imported.
+     */
+    FAILED
+
+}
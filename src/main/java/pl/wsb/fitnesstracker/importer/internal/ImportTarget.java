@@ -0,0 +1,95 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entity imported by the {@link BulkImporter}: how its rows are parsed and how a chunk of them is written.
+ * An instance serves a single import and is called from several workers concurrently.
+ *
+ * @param <T> type of the parsed row
+ */
+interface ImportTarget<T> {
+
+    /**
+     * @return type the NDJSON rows are deserialized to, validated with its bean validation constraints
+     */
+    Class<T> rowType();
+
+    /**
+     * @return names of the CSV columns, in the order they are passed to {@link #fromCsv(String[])}
+     */
+    List<String> csvColumns();
+
+    /**
+     * Converts the values of a CSV row.
+     *
+     * @param values values of the {@link #csvColumns()}, in their order
+     * @return parsed row
+     * @throws RuntimeException if a value cannot be converted, rejecting the row
+     */
+    T fromCsv(String[] values);
+
+    /**
+     * @return whether chunks may be written by several workers at once, otherwise the writes are serialized
+     * and only the parsing runs in parallel
+     */
+    default boolean parallelWrites() {
+        return true;
+    }
+
+    /**
+     * Writes the chunk of valid rows. Called within a transaction, which is retried as a whole when it fails
+     * on a conflict with a concurrent chunk.
+     *
+     * @param rows rows of the chunk, in the file order
+     * @return outcome of the chunk
+     */
+    ChunkResult write(List<T> rows);
+
+    /**
+     * Outcome of a written chunk. Rows neither rejected nor skipped are imported.
+     */
+    final class ChunkResult {
+
+        private final int rows;
+
+        private final List<Rejection> rejections = new ArrayList<>();
+
+        private int skipped;
+
+        ChunkResult(int rows) {
+            this.rows = rows;
+        }
+
+        void skip() {
+            skipped++;
+        }
+
+        void reject(int index, String message) {
+            rejections.add(new Rejection(index, message));
+        }
+
+        int imported() {
+            return rows - skipped - rejections.size();
+        }
+
+        int skipped() {
+            return skipped;
+        }
+
+        List<Rejection> rejections() {
+            return rejections;
+        }
+
+        /**
+         * @param index   position of the rejected row in the chunk
+         * @param message reason of the rejection
+         */
+        record Rejection(int index, String message) {
+
+        }
+
+    }
+
+}
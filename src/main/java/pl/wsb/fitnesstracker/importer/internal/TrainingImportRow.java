@@ -0,0 +1,28 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.Instant;
+
+/**
+ * Row of the training import, referencing its user by email. Times are ISO-8601 instants, e.g. {@code 2024-01-19T08:00:00Z}.
+ */
+record TrainingImportRow(@NotBlank String userEmail,
+                         @NotNull Instant startTime,
+                         @NotNull Instant endTime,
+                         @NotNull ActivityType activityType,
+                         @PositiveOrZero double distance,
+                         @PositiveOrZero double averageSpeed) {
+
+    @JsonIgnore
+    @AssertTrue(message = "endTime must not be before startTime")
+    boolean isTimeRangeValid() {
+        return startTime == null || endTime == null || !endTime.isBefore(startTime);
+    }
+
+}
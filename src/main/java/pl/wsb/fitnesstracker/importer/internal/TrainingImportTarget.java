@@ -0,0 +1,95 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingService;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Import of trainings referencing their users by email. The emails of a chunk that were not seen yet are resolved to
+ * user IDs with a single query and remembered for the rest of the import, including the ones without a user,
+ * whose rows are rejected.
+ */
+final class TrainingImportTarget implements ImportTarget<TrainingImportRow> {
+
+    private static final List<String> CSV_COLUMNS = List.of("userEmail", "startTime", "endTime", "activityType", "distance", "averageSpeed");
+
+    /**
+     * Marks emails without a user in {@link #userIds}.
+     */
+    private static final Long MISSING = -1L;
+
+    private final TrainingService trainingService;
+
+    private final UserProvider userProvider;
+
+    private final Map<String, Long> userIds = new ConcurrentHashMap<>();
+
+    TrainingImportTarget(TrainingService trainingService, UserProvider userProvider) {
+        this.trainingService = trainingService;
+        this.userProvider = userProvider;
+    }
+
+    @Override
+    public Class<TrainingImportRow> rowType() {
+        return TrainingImportRow.class;
+    }
+
+    @Override
+    public List<String> csvColumns() {
+        return CSV_COLUMNS;
+    }
+
+    @Override
+    public TrainingImportRow fromCsv(String[] values) {
+        return new TrainingImportRow(values[0], Instant.parse(values[1]), Instant.parse(values[2]), ActivityType.valueOf(values[3]),
+                Double.parseDouble(values[4]), Double.parseDouble(values[5]));
+    }
+
+    /**
+     * A chunk updates the statistics of most of the users it references, so concurrent chunks would only queue
+     * on the locks of the statistics rows (up to the lock timeout of the database).
+     */
+    @Override
+    public boolean parallelWrites() {
+        return false;
+    }
+
+    @Override
+    public ChunkResult write(List<TrainingImportRow> rows) {
+        String[] emails = new String[rows.size()];
+        Set<String> unresolved = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            emails[i] = User.normalizeEmail(rows.get(i).userEmail());
+            if (!userIds.containsKey(emails[i])) {
+                unresolved.add(emails[i]);
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            Map<String, Long> resolved = userProvider.getUserIdsByEmail(unresolved);
+            unresolved.forEach(email -> userIds.put(email, resolved.getOrDefault(email, MISSING)));
+        }
+
+        ChunkResult result = new ChunkResult(rows.size());
+        Map<Long, User> users = new HashMap<>();
+        List<Training> trainings = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Long userId = userIds.get(emails[i]);
+            if (MISSING.equals(userId)) {
+                result.reject(i, "User with email %s was not found".formatted(rows.get(i).userEmail()));
+                continue;
+            }
+            TrainingImportRow row = rows.get(i);
+            trainings.add(new Training(users.computeIfAbsent(userId, userProvider::getUserReference),
+                    Date.from(row.startTime()), Date.from(row.endTime()), row.activityType(), row.distance(), row.averageSpeed()));
+        }
+        trainingService.createTrainings(trainings);
+        return result;
+    }
+
+}
@@ -0,0 +1,18 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Past;
+
+import java.time.LocalDate;
+
+/**
+ * Row of the user import.
+ */
+record UserImportRow(@NotBlank String firstName,
+                     @NotBlank String lastName,
+                     @NotNull @Past LocalDate birthdate,
+                     @NotBlank @Email String email) {
+
+}
@@ -0,0 +1,63 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Import of users. Users whose email is already taken, by an existing user or an earlier row, are skipped,
+ * so a partially imported file can be imported again.
+ */
+final class UserImportTarget implements ImportTarget<UserImportRow> {
+
+    private static final List<String> CSV_COLUMNS = List.of("firstName", "lastName", "birthdate", "email");
+
+    private final UserService userService;
+
+    private final UserProvider userProvider;
+
+    UserImportTarget(UserService userService, UserProvider userProvider) {
+        this.userService = userService;
+        this.userProvider = userProvider;
+    }
+
+    @Override
+    public Class<UserImportRow> rowType() {
+        return UserImportRow.class;
+    }
+
+    @Override
+    public List<String> csvColumns() {
+        return CSV_COLUMNS;
+    }
+
+    @Override
+    public UserImportRow fromCsv(String[] values) {
+        return new UserImportRow(values[0], values[1], LocalDate.parse(values[2]), values[3]);
+    }
+
+    @Override
+    public ChunkResult write(List<UserImportRow> rows) {
+        Map<String, Long> existing = userProvider.getUserIdsByEmail(rows.stream().map(UserImportRow::email).toList());
+        Set<String> emails = new HashSet<>(existing.keySet());
+        ChunkResult result = new ChunkResult(rows.size());
+        List<User> users = new ArrayList<>(rows.size());
+        for (UserImportRow row : rows) {
+            if (!emails.add(User.normalizeEmail(row.email()))) {
+                result.skip();
+                continue;
+            }
+            users.add(new User(row.firstName(), row.lastName(), row.birthdate(), row.email()));
+        }
+        userService.createUsers(users);
+        return result;
+    }
+
+}
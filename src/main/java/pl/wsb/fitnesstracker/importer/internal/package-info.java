@@ -0,0 +1,4 @@
+@NonNullByDefault
+package pl.wsb.fitnesstracker.importer.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -9,6 +9,7 @@ import org.springframework.context.event.EventListener;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsUpdater;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.training.internal.ActivityType;
 import pl.wsb.fitnesstracker.user.api.User;
@@ -36,6 +37,8 @@ class InitialDataLoader {
 
     private final JpaRepository<Training, Long> trainingRepository;
 
+    private final StatisticsUpdater statisticsUpdater;
+
     @EventListener
     @Transactional
     @SuppressWarnings({"squid:S1854", "squid:S1481", "squid:S1192", "unused"})
@@ -155,6 +158,7 @@ class InitialDataLoader {
             trainingData.add(training10);
 
             trainingRepository.saveAll(trainingData);
+            statisticsUpdater.trainingsAdded(trainingData);
         } catch (ParseException e) {
             e.printStackTrace();
         }
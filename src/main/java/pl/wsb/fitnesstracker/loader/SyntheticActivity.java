@@ -0,0 +1,83 @@
+package pl.wsb.fitnesstracker.loader;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.util.SplittableRandom;
+
+/**
+ * Shape of the generated trainings of an activity type: how common it is, and the normal distributions
+ * of its average speed and duration (truncated at the given minimums).
+ */
+enum SyntheticActivity {
+
+    RUNNING(ActivityType.RUNNING, 35, 10.5, 1.5, 45, 15),
+    CYCLING(ActivityType.CYCLING, 25, 22, 4, 75, 30),
+    WALKING(ActivityType.WALKING, 25, 5, 0.7, 50, 20),
+    SWIMMING(ActivityType.SWIMMING, 10, 2.5, 0.6, 40, 12),
+    TENNIS(ActivityType.TENNIS, 5, 6, 1, 70, 20);
+
+    private static final SyntheticActivity[] VALUES = values();
+
+    private static final int TOTAL_WEIGHT = 100;
+
+    private static final double MIN_SPEED = 1;
+
+    private static final int MIN_MINUTES = 15;
+
+    private final ActivityType activityType;
+
+    /**
+     * Share of the activity among all trainings, in percent.
+     */
+    private final int weight;
+
+    private final double speedMean;
+
+    private final double speedDeviation;
+
+    private final double minutesMean;
+
+    private final double minutesDeviation;
+
+    SyntheticActivity(ActivityType activityType, int weight, double speedMean, double speedDeviation, double minutesMean, double minutesDeviation) {
+        this.activityType = activityType;
+        this.weight = weight;
+        this.speedMean = speedMean;
+        this.speedDeviation = speedDeviation;
+        this.minutesMean = minutesMean;
+        this.minutesDeviation = minutesDeviation;
+    }
+
+    /**
+     * Draws an activity according to the weights.
+     */
+    static SyntheticActivity draw(SplittableRandom random) {
+        int point = random.nextInt(TOTAL_WEIGHT);
+        for (SyntheticActivity activity : VALUES) {
+            point -= activity.weight;
+            if (point < 0) {
+                return activity;
+            }
+        }
+        return VALUES[VALUES.length - 1];
+    }
+
+    ActivityType activityType() {
+        return activityType;
+    }
+
+    /**
+     * @return average speed in km/h, rounded to one decimal place
+     */
+    double drawSpeed(SplittableRandom random) {
+        return Math.round(Math.max(MIN_SPEED, speedMean + random.nextGaussian() * speedDeviation) * 10) / 10.0;
+    }
+
+    /**
+     * @return duration in minutes
+     */
+    int drawMinutes(SplittableRandom random) {
+        return (int) Math.max(MIN_MINUTES, Math.round(minutesMean + random.nextGaussian() * minutesDeviation));
+    }
+
+}
@@ -0,0 +1,194 @@
+package pl.wsb.fitnesstracker.loader;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsUpdater;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Synthetic data generator for performance work. If the application is run with the `syntheticData` profile, then on
+ * application startup it fills the database with {@link SyntheticDataProperties#getUsers()} users having
+ * {@link SyntheticDataProperties#getTrainingsPerUser()} trainings each. Loader is triggered by {@link ContextRefreshedEvent},
+ * before the in-memory indexes are loaded.
+ * <p>
+ * Every user is generated from a random generator seeded by the configured seed and the index of the user, so the data
+ * does not depend on the parallelism or on the order the batches run in (only the database IDs do). Users get a favourite
+ * activity, taking about half of their trainings, and a favourite time of the day, activity types follow the
+ * {@link SyntheticActivity} weights and the trainings are spread over the period since the user joined.
+ * <p>
+ * Batches of {@link SyntheticDataProperties#getBatchSize()} users are generated in parallel, each in a transaction:
+ * the users are created through the {@link UserService}, their trainings are inserted with plain JDBC batches
+ * (bypassing the persistence context) and added to the statistics through the {@link StatisticsUpdater}.
+ * Generation is skipped if the first synthetic user already exists.
+ */
+@Component
+@Profile("syntheticData")
+@Slf4j
+class SyntheticDataGenerator {
+
+    private static final String INSERT_TRAINING = """
+            insert into trainings (id, user_id, start_time, end_time, activity_type, distance, average_speed)
+            values (next value for trainings_seq, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String[] FIRST_NAMES = {"Emma", "Ethan", "Olivia", "Daniel", "Sophia", "Liam", "Ava", "Noah", "Grace", "Oliver",
+            "Anna", "Jakub", "Zofia", "Jan", "Maja", "Antoni", "Lena", "Filip", "Julia", "Szymon"};
+
+    private static final String[] LAST_NAMES = {"Johnson", "Taylor", "Davis", "Thomas", "Baker", "Jones", "Williams", "Miller", "Anderson",
+            "Swift", "Nowak", "Kowalski", "Wisniewski", "Wojcik", "Kaminski", "Lewandowski", "Zielinski", "Szymanski", "Wozniak", "Dabrowski"};
+
+    private static final int MIN_AGE = 16;
+
+    private static final int AGE_SPAN = 64;
+
+    /**
+     * Start hours of the favourite times of the day: morning, lunch break and evening.
+     */
+    private static final int[] TRAINING_HOURS = {6, 6, 6, 12, 17, 17, 18, 19};
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final UserService userService;
+
+    private final UserProvider userProvider;
+
+    private final StatisticsUpdater statisticsUpdater;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final SyntheticDataProperties properties;
+
+    SyntheticDataGenerator(UserService userService,
+                           UserProvider userProvider,
+                           StatisticsUpdater statisticsUpdater,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           SyntheticDataProperties properties) {
+        this.userService = userService;
+        this.userProvider = userProvider;
+        this.statisticsUpdater = statisticsUpdater;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @EventListener
+    public void loadSyntheticData(ContextRefreshedEvent event) {
+        generate();
+    }
+
+    /**
+     * Generates the configured users and trainings, unless the first synthetic user already exists.
+     */
+    void generate() {
+        if (properties.getUsers() == 0 || userProvider.getUserByEmail(user(0, random(0)).getEmail()).isPresent()) {
+            log.info("Synthetic data already present, skipping generation");
+            return;
+        }
+        log.info("Generating {} synthetic users with {} trainings each (seed {})", properties.getUsers(), properties.getTrainingsPerUser(), properties.getSeed());
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism());
+        try {
+            List<Future<?>> batches = new ArrayList<>();
+            for (int from = 0; from < properties.getUsers(); from += properties.getBatchSize()) {
+                int fromIndex = from;
+                int toIndex = Math.min(from + properties.getBatchSize(), properties.getUsers());
+                batches.add(executor.submit(() -> transactionTemplate.executeWithoutResult(status -> generateBatch(fromIndex, toIndex))));
+            }
+            int logEvery = Math.max(1, batches.size() / 10);
+            for (int i = 0; i < batches.size(); i++) {
+                batches.get(i).get();
+                if ((i + 1) % logEvery == 0) {
+                    log.info("Generated {}/{} batches of synthetic data", i + 1, batches.size());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic data generation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Synthetic data generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Generated {} users and {} trainings in {} ms", properties.getUsers(),
+                (long) properties.getUsers() * properties.getTrainingsPerUser(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void generateBatch(int fromIndex, int toIndex) {
+        SplittableRandom[] randoms = new SplittableRandom[toIndex - fromIndex];
+        List<User> users = new ArrayList<>(randoms.length);
+        for (int i = 0; i < randoms.length; i++) {
+            randoms[i] = random(fromIndex + i);
+            users.add(user(fromIndex + i, randoms[i]));
+        }
+        List<User> created = userService.createUsers(users);
+
+        List<Training> trainings = new ArrayList<>(randoms.length * properties.getTrainingsPerUser());
+        for (int i = 0; i < randoms.length; i++) {
+            addTrainings(created.get(i), randoms[i], trainings);
+        }
+        List<Object[]> rows = new ArrayList<>(trainings.size());
+        for (Training training : trainings) {
+            rows.add(new Object[]{training.getUser().getId(), training.getStartTime(), training.getEndTime(),
+                    training.getActivityType().ordinal(), training.getDistance(), training.getAverageSpeed()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRAINING, rows);
+        statisticsUpdater.trainingsAdded(trainings);
+    }
+
+    private SplittableRandom random(int userIndex) {
+        return new SplittableRandom(properties.getSeed() ^ (userIndex * 0x9E3779B97F4A7C15L));
+    }
+
+    private User user(int index, SplittableRandom random) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        // Triangular distribution of the age, most users being in their forties
+        int age = MIN_AGE + (random.nextInt(AGE_SPAN) + random.nextInt(AGE_SPAN)) / 2;
+        LocalDate birthdate = properties.getFirstDay().minusYears(age).plusDays(random.nextInt(365));
+        String email = "%s.%s.%d@synthetic.fitness-tracker.test".formatted(firstName, lastName, index).toLowerCase(Locale.ROOT);
+        return new User(firstName, lastName, birthdate, email);
+    }
+
+    private void addTrainings(User user, SplittableRandom random, List<Training> trainings) {
+        SyntheticActivity favouriteActivity = SyntheticActivity.draw(random);
+        int favouriteHour = TRAINING_HOURS[random.nextInt(TRAINING_HOURS.length)];
+        int joinedDay = random.nextInt(Math.max(1, properties.getDays() / 2));
+        Instant firstDay = properties.getFirstDay().atStartOfDay(ZoneOffset.UTC).toInstant();
+        for (int i = 0; i < properties.getTrainingsPerUser(); i++) {
+            SyntheticActivity activity = random.nextBoolean() ? favouriteActivity : SyntheticActivity.draw(random);
+            int day = joinedDay + random.nextInt(properties.getDays() - joinedDay);
+            int hour = random.nextInt(4) == 0 ? TRAINING_HOURS[random.nextInt(TRAINING_HOURS.length)] : favouriteHour;
+            Instant start = firstDay.plusSeconds((long) day * SECONDS_PER_DAY + hour * 3600L + random.nextInt(120) * 60L);
+            int minutes = activity.drawMinutes(random);
+            double speed = activity.drawSpeed(random);
+            double distance = Math.round(speed * minutes / 60 * 100) / 100.0;
+            trainings.add(new Training(user, Timestamp.from(start), Timestamp.from(start.plusSeconds(minutes * 60L)),
+                    activity.activityType(), distance, speed));
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package pl.wsb.fitnesstracker.loader;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.LocalDate;
+
+/**
+ * Configuration of the {@link SyntheticDataGenerator}.
+ */
+@ConfigurationProperties(prefix = "loader.synthetic")
+@Getter
+class SyntheticDataProperties {
+
+    /**
+     * Number of generated users.
+     */
+    private final int users;
+
+    /**
+     * Number of trainings generated for every user.
+     */
+    private final int trainingsPerUser;
+
+    /**
+     * Seed of the generated data, the same seed and sizes always produce the same users and trainings.
+     */
+    private final long seed;
+
+    /**
+     * First day of the period the trainings are spread over.
+     */
+    private final LocalDate firstDay;
+
+    /**
+     * Length of the period the trainings are spread over, in days.
+     */
+    private final int days;
+
+    /**
+     * Number of users generated and inserted, together with their trainings, per transaction.
+     */
+    private final int batchSize;
+
+    /**
+     * Number of batches generated in parallel.
+     */
+    private final int parallelism;
+
+    SyntheticDataProperties(@DefaultValue("10000") int users,
+                            @DefaultValue("50") int trainingsPerUser,
+                            @DefaultValue("42") long seed,
+                            @DefaultValue("2023-01-01") LocalDate firstDay,
+                            @DefaultValue("730") int days,
+                            @DefaultValue("1000") int batchSize,
+                            @DefaultValue("4") int parallelism) {
+        this.users = users;
+        this.trainingsPerUser = trainingsPerUser;
+        this.seed = seed;
+        this.firstDay = firstDay;
+        this.days = days;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+    }
+
+}
@@ -1,5 +1,23 @@
 package pl.wsb.fitnesstracker.mail.api;
 
-public record EmailDto(String toAddress, String subject, String content) {
+import jakarta.annotation.Nullable;
+
+/**
+ * Email to be sent.
+ *
+ * @param content        plain text content
+ * @param idempotencyKey key identifying the email among the emails sent by the application, an email with a key that
+ *                       has already been sent is skipped by the outbox delivery; {@code null} if the email is never deduplicated
+ * @param htmlContent    HTML alternative of the content, {@code null} for a plain text email
+ */
+public record EmailDto(String toAddress, String subject, String content, @Nullable String idempotencyKey, @Nullable String htmlContent) {
+
+    public EmailDto(String toAddress, String subject, String content) {
+        this(toAddress, subject, content, null, null);
+    }
+
+    public EmailDto(String toAddress, String subject, String content, @Nullable String idempotencyKey) {
+        this(toAddress, subject, content, idempotencyKey, null);
+    }
 
 }
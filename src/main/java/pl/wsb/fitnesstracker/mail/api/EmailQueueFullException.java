@@ -0,0 +1,18 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception indicating that the email could not be accepted for sending, because the outbound queue stayed full
+ * (backpressure of the asynchronous {@link EmailSender}). The caller may retry later.
+ * Will resolve to the {@link HttpStatus#SERVICE_UNAVAILABLE} if handled by the Spring's exception handler.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class EmailQueueFullException extends RuntimeException {
+
+    public EmailQueueFullException(EmailDto email) {
+        super("Email '%s' to %s was rejected, the mail queue is full".formatted(email.subject(), email.toAddress()));
+    }
+
+}
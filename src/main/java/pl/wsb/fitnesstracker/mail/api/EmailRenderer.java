@@ -0,0 +1,24 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * API interface for component rendering emails from the templates of the mail module.
+ * A template named {@code name} consists of {@code mail/templates/name/subject.txt}, {@code body.txt}
+ * and optionally {@code body.html} on the classpath, compiled once on startup.
+ */
+public interface EmailRenderer {
+
+    /**
+     * Renders the email from the template.
+     *
+     * @param template       name of the template
+     * @param toAddress      recipient of the email
+     * @param model          values rendered into the template
+     * @param idempotencyKey idempotency key of the email, see {@link EmailDto#idempotencyKey()}
+     * @return rendered email, with HTML content if the template has an HTML variant
+     * @throws IllegalArgumentException if the template does not exist
+     */
+    EmailDto render(String template, String toAddress, TemplateModel model, @Nullable String idempotencyKey);
+
+}
@@ -7,9 +7,20 @@ public interface EmailSender {
 
     /**
      * Sends the email message to the recipient from the provided {@link EmailDto}.
+     * Depending on the {@code mail.delivery} configuration the email is sent before the method returns,
+     * or only queued for sending.
      *
      * @param email information on email to be sent
+     * @throws EmailQueueFullException if the email could not be queued for sending
      */
     void send(EmailDto email);
 
+    /**
+     * Tells whether an email accepted by {@link #send(EmailDto)} is delivered at least once, even if sending it fails
+     * for a while or the application stops: it is either sent before the method returns or stored persistently.
+     *
+     * @return {@code false} if an accepted email may still be lost
+     */
+    boolean isDeliveryGuaranteed();
+
 }
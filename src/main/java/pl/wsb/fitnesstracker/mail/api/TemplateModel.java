@@ -0,0 +1,45 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+/**
+ * Values rendered into an email template. Templates refer to variables as {@code {{name}}}, to sections as
+ * {@code {{#name}}...{{/name}}} (rendered {@link #sectionSize(String)} times) and to inverted sections as
+ * {@code {{^name}}...{{/name}}} (rendered once if the section size is {@code 0}).
+ * <p>
+ * Implementations append the values straight to the provided buffer, without creating intermediate strings,
+ * and are used by a single thread at a time.
+ */
+public interface TemplateModel {
+
+    /**
+     * Appends the value of the variable, resolved within the currently entered sections.
+     *
+     * @param variable name of the variable
+     * @param out      buffer to append the (unescaped) value to
+     * @throws IllegalArgumentException if the variable is not known
+     */
+    void append(String variable, StringBuilder out);
+
+    /**
+     * @param section name of the section
+     * @return number of times the section is rendered, {@code 0} to skip it
+     */
+    int sectionSize(String section);
+
+    /**
+     * Enters the iteration of the section, variables within it are resolved against the iterated item.
+     *
+     * @param section name of the section
+     * @param index   index of the iteration
+     */
+    default void enterSection(String section, int index) {
+    }
+
+    /**
+     * Leaves the section entered last.
+     *
+     * @param section name of the section
+     */
+    default void exitSection(String section) {
+    }
+
+}
@@ -0,0 +1,196 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailQueueFullException;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * {@link EmailSender} queueing the emails in a bounded in-memory queue, sent asynchronously by worker threads.
+ * <p>
+ * A worker takes up to {@link MailQueueProperties#getBatchSize()} queued emails and sends them over a single SMTP
+ * connection, after acquiring the permits from the {@link TokenBucket} shared by all workers. Emails that could not
+ * be sent are queued again after an exponential backoff, up to {@link MailQueueProperties#getMaxAttempts()} attempts.
+ * When the queue is full, {@link #send(EmailDto)} blocks the caller up to {@link MailQueueProperties#getEnqueueTimeout()}
+ * and then rejects the email with {@link EmailQueueFullException}.
+ * <p>
+ * The queue is not persistent, emails still queued when the shutdown timeout elapses are lost.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.delivery", havingValue = "async", matchIfMissing = true)
+@Slf4j
+class AsyncEmailSender implements EmailSender, SmartLifecycle {
+
+    private final MailTransport mailTransport;
+
+    private final MailQueueProperties properties;
+
+    private final BlockingQueue<QueuedEmail> queue;
+
+    private final TokenBucket rateLimiter;
+
+    private final Counter sentEmails;
+
+    private final Counter retriedEmails;
+
+    private final Counter droppedEmails;
+
+    private volatile boolean running;
+
+    private ExecutorService workers;
+
+    private ScheduledExecutorService retryScheduler;
+
+    AsyncEmailSender(MailTransport mailTransport, MailQueueProperties properties, MeterRegistry meterRegistry) {
+        this.mailTransport = mailTransport;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.rateLimiter = new TokenBucket(properties.getRatePerSecond(), properties.getBurst());
+        Gauge.builder("mail.queue.size", queue, BlockingQueue::size)
+                .description("Emails waiting to be sent")
+                .register(meterRegistry);
+        this.sentEmails = Counter.builder("mail.sent").description("Emails sent").register(meterRegistry);
+        this.retriedEmails = Counter.builder("mail.retried").description("Email send attempts that failed and were retried").register(meterRegistry);
+        this.droppedEmails = Counter.builder("mail.dropped").description("Emails dropped after the last failed attempt").register(meterRegistry);
+    }
+
+    @Override
+    public void send(final EmailDto email) {
+        try {
+            if (!queue.offer(new QueuedEmail(email, 1), properties.getEnqueueTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new EmailQueueFullException(email);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EmailQueueFullException(email);
+        }
+    }
+
+    /**
+     * @return {@code false}, queued emails are dropped after the last failed attempt and lost on a crash
+     */
+    @Override
+    public boolean isDeliveryGuaranteed() {
+        return false;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("mail-retry"));
+        workers = Executors.newFixedThreadPool(properties.getWorkers(), namedThreads("mail-worker"));
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} queued emails were not sent before the shutdown", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void work() {
+        List<QueuedEmail> batch = new ArrayList<>(properties.getBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                QueuedEmail first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (!running) {
+                        // stopping and the queue is drained
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                rateLimiter.acquire(batch.size());
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Sending a batch of {} emails failed", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<QueuedEmail> batch) {
+        List<EmailDto> emails = new ArrayList<>(batch.size());
+        batch.forEach(queued -> emails.add(queued.email()));
+        Map<EmailDto, Exception> failed = mailTransport.sendBatch(emails);
+        sentEmails.increment(batch.size() - failed.size());
+        if (failed.isEmpty()) {
+            return;
+        }
+        // failed emails are matched by identity, the batch may hold equal emails with different attempt counts
+        for (QueuedEmail queued : batch) {
+            Exception cause = failed.get(queued.email());
+            if (cause != null) {
+                retry(queued, cause);
+            }
+        }
+    }
+
+    private void retry(QueuedEmail queued, Exception cause) {
+        if (queued.attempt() >= properties.getMaxAttempts() || !running) {
+            log.error("Email '{}' to {} dropped after {} attempts", queued.email().subject(), queued.email().toAddress(), queued.attempt(), cause);
+            droppedEmails.increment();
+            return;
+        }
+        retriedEmails.increment();
+        long backoffMillis = properties.getInitialBackoff().toMillis() << (queued.attempt() - 1);
+        log.warn("Sending email '{}' to {} failed ({}), attempt {} scheduled in {} ms",
+                queued.email().subject(), queued.email().toAddress(), cause.getMessage(), queued.attempt() + 1, backoffMillis);
+        QueuedEmail next = new QueuedEmail(queued.email(), queued.attempt() + 1);
+        retryScheduler.schedule(() -> requeue(next), backoffMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void requeue(QueuedEmail queued) {
+        if (!queue.offer(queued)) {
+            // the queue is full of fresh emails, try again later instead of blocking the scheduler
+            retryScheduler.schedule(() -> requeue(queued), properties.getInitialBackoff().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix + "-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private record QueuedEmail(EmailDto email, int attempt) {
+
+    }
+
+}
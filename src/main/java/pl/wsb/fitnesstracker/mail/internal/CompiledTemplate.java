@@ -0,0 +1,165 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import pl.wsb.fitnesstracker.mail.api.TemplateModel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Template parsed into a tree of literal, variable and section nodes. Rendering walks the tree appending to the
+ * provided buffers, it does not allocate.
+ */
+final class CompiledTemplate {
+
+    private final Node[] nodes;
+
+    private final boolean html;
+
+    private CompiledTemplate(Node[] nodes, boolean html) {
+        this.nodes = nodes;
+        this.html = html;
+    }
+
+    /**
+     * Parses the template.
+     *
+     * @param name   name of the template, for the error messages
+     * @param source template source
+     * @param html   whether the variable values are HTML escaped
+     * @return compiled template
+     * @throws IllegalArgumentException if the template is malformed
+     */
+    static CompiledTemplate compile(String name, String source, boolean html) {
+        Deque<SectionBuilder> sections = new ArrayDeque<>();
+        sections.push(new SectionBuilder(null, false));
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                sections.peek().nodes.add(new Literal(source.substring(position)));
+                break;
+            }
+            if (open > position) {
+                sections.peek().nodes.add(new Literal(source.substring(position, open)));
+            }
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Template %s: unclosed tag at %d".formatted(name, open));
+            }
+            String tag = source.substring(open + 2, close).trim();
+            if (tag.isEmpty()) {
+                throw new IllegalArgumentException("Template %s: empty tag at %d".formatted(name, open));
+            }
+            switch (tag.charAt(0)) {
+                case '#' -> sections.push(new SectionBuilder(tag.substring(1).trim(), false));
+                case '^' -> sections.push(new SectionBuilder(tag.substring(1).trim(), true));
+                case '/' -> {
+                    SectionBuilder section = sections.pop();
+                    if (section.name == null || !section.name.equals(tag.substring(1).trim())) {
+                        throw new IllegalArgumentException("Template %s: unexpected %s at %d".formatted(name, tag, open));
+                    }
+                    sections.peek().nodes.add(new Section(section.name, section.inverted, section.nodes.toArray(Node[]::new)));
+                }
+                default -> sections.peek().nodes.add(new Variable(tag));
+            }
+            position = close + 2;
+        }
+        if (sections.size() != 1) {
+            throw new IllegalArgumentException("Template %s: unclosed section %s".formatted(name, sections.peek().name));
+        }
+        return new CompiledTemplate(sections.pop().nodes.toArray(Node[]::new), html);
+    }
+
+    /**
+     * Renders the template.
+     *
+     * @param model   values rendered into the template
+     * @param out     buffer the template is rendered to
+     * @param scratch buffer for the values to be escaped
+     */
+    void render(TemplateModel model, StringBuilder out, StringBuilder scratch) {
+        render(nodes, model, out, scratch);
+    }
+
+    private void render(Node[] nodes, TemplateModel model, StringBuilder out, StringBuilder scratch) {
+        for (Node node : nodes) {
+            if (node instanceof Literal literal) {
+                out.append(literal.text);
+            } else if (node instanceof Variable variable) {
+                if (html) {
+                    scratch.setLength(0);
+                    model.append(variable.name, scratch);
+                    escapeHtml(scratch, out);
+                } else {
+                    model.append(variable.name, out);
+                }
+            } else {
+                Section section = (Section) node;
+                int size = model.sectionSize(section.name);
+                if (section.inverted) {
+                    if (size == 0) {
+                        render(section.nodes, model, out, scratch);
+                    }
+                    continue;
+                }
+                for (int i = 0; i < size; i++) {
+                    model.enterSection(section.name, i);
+                    render(section.nodes, model, out, scratch);
+                    model.exitSection(section.name);
+                }
+            }
+        }
+    }
+
+    private static void escapeHtml(CharSequence value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private interface Node {
+
+    }
+
+    private record Literal(char[] text) implements Node {
+
+        Literal(String text) {
+            this(text.toCharArray());
+        }
+
+    }
+
+    private record Variable(String name) implements Node {
+
+    }
+
+    private record Section(String name, boolean inverted, Node[] nodes) implements Node {
+
+    }
+
+    private static final class SectionBuilder {
+
+        private final String name;
+
+        private final boolean inverted;
+
+        private final List<Node> nodes = new ArrayList<>();
+
+        private SectionBuilder(String name, boolean inverted) {
+            this.name = name;
+            this.inverted = inverted;
+        }
+
+    }
+
+}
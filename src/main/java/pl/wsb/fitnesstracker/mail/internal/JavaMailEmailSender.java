@@ -0,0 +1,32 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+/**
+ * {@link EmailSender} sending the emails synchronously, blocking the caller for the SMTP round trip.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.delivery", havingValue = "sync")
+@RequiredArgsConstructor
+@Slf4j
+class JavaMailEmailSender implements EmailSender {
+
+    private final MailTransport mailTransport;
+
+    @Override
+    public void send(final EmailDto email) {
+        log.debug("Sending email '{}' to {}", email.subject(), email.toAddress());
+        mailTransport.send(email);
+    }
+
+    @Override
+    public boolean isDeliveryGuaranteed() {
+        return true;
+    }
+
+}
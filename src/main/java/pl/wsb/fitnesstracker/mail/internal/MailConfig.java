@@ -2,9 +2,11 @@ package pl.wsb.fitnesstracker.mail.internal;
 
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
-@EnableConfigurationProperties(MailProperties.class)
+@EnableScheduling
+@EnableConfigurationProperties({MailProperties.class, MailQueueProperties.class, MailOutboxProperties.class})
 class MailConfig {
 
 }
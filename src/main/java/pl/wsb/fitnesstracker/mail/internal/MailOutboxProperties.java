@@ -0,0 +1,74 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link OutboxEmailSender} and {@link OutboxDispatcher}.
+ */
+@ConfigurationProperties(prefix = "mail.outbox")
+@Getter
+class MailOutboxProperties {
+
+    /**
+     * Delay between the dispatcher runs.
+     */
+    private final Duration pollInterval;
+
+    /**
+     * Maximum number of emails claimed and sent (over a single SMTP connection) by a dispatcher run.
+     */
+    private final int batchSize;
+
+    /**
+     * Sustained sending rate of the node.
+     */
+    private final double ratePerSecond;
+
+    /**
+     * Number of emails the node may send at once above the sustained rate.
+     */
+    private final int burst;
+
+    /**
+     * Maximum number of attempts to send an email, after which it is marked as failed.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Delay before the first retry, doubled with every further attempt.
+     */
+    private final Duration initialBackoff;
+
+    /**
+     * Time after which an email claimed but not marked as sent is released to the other dispatchers.
+     */
+    private final Duration claimTimeout;
+
+    /**
+     * How long the sent emails are kept for deduplication.
+     */
+    private final Duration retention;
+
+    MailOutboxProperties(@DefaultValue("1s") Duration pollInterval,
+                         @DefaultValue("100") int batchSize,
+                         @DefaultValue("10") double ratePerSecond,
+                         @DefaultValue("50") int burst,
+                         @DefaultValue("5") int maxAttempts,
+                         @DefaultValue("30s") Duration initialBackoff,
+                         @DefaultValue("5m") Duration claimTimeout,
+                         @DefaultValue("30d") Duration retention) {
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.claimTimeout = claimTimeout;
+        this.retention = retention;
+    }
+
+}
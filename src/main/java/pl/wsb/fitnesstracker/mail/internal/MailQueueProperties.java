@@ -0,0 +1,81 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link AsyncEmailSender} queue.
+ */
+@ConfigurationProperties(prefix = "mail.queue")
+@Getter
+class MailQueueProperties {
+
+    /**
+     * Maximum number of emails waiting to be sent.
+     */
+    private final int capacity;
+
+    /**
+     * How long {@code send} blocks the caller while the queue is full before the email is rejected.
+     */
+    private final Duration enqueueTimeout;
+
+    /**
+     * Number of worker threads, each holding its own SMTP connection while sending a batch.
+     */
+    private final int workers;
+
+    /**
+     * Maximum number of emails sent over a single SMTP connection.
+     */
+    private final int batchSize;
+
+    /**
+     * Sustained sending rate, over all workers.
+     */
+    private final double ratePerSecond;
+
+    /**
+     * Number of emails that may be sent at once above the sustained rate.
+     */
+    private final int burst;
+
+    /**
+     * Maximum number of attempts to send an email, after which it is dropped.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Delay before the first retry, doubled with every further attempt.
+     */
+    private final Duration initialBackoff;
+
+    /**
+     * How long the queued emails are still being sent on shutdown.
+     */
+    private final Duration shutdownTimeout;
+
+    MailQueueProperties(@DefaultValue("10000") int capacity,
+                        @DefaultValue("5s") Duration enqueueTimeout,
+                        @DefaultValue("2") int workers,
+                        @DefaultValue("50") int batchSize,
+                        @DefaultValue("10") double ratePerSecond,
+                        @DefaultValue("50") int burst,
+                        @DefaultValue("5") int maxAttempts,
+                        @DefaultValue("1s") Duration initialBackoff,
+                        @DefaultValue("30s") Duration shutdownTimeout) {
+        this.capacity = capacity;
+        this.enqueueTimeout = enqueueTimeout;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+}
@@ -0,0 +1,90 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends emails through the Spring {@link JavaMailSender}. A batch is sent over a single SMTP connection.
+ * Emails with an HTML content are sent as {@code multipart/alternative} with the plain text variant.
+ */
+@Component
+@RequiredArgsConstructor
+class MailTransport {
+
+    private final JavaMailSender javaMailSender;
+
+    private final MailProperties mailProperties;
+
+    void send(EmailDto email) {
+        try {
+            javaMailSender.send(toMessage(email));
+        } catch (MessagingException e) {
+            throw new MailPreparationException(e);
+        }
+    }
+
+    /**
+     * Sends the batch of emails over a single SMTP connection.
+     *
+     * @param emails emails to be sent
+     * @return emails that could not be sent (identity based map) with the cause, empty if all were sent
+     */
+    Map<EmailDto, Exception> sendBatch(List<EmailDto> emails) {
+        Map<EmailDto, Exception> failed = new IdentityHashMap<>();
+        Map<MimeMessage, EmailDto> messages = new IdentityHashMap<>(emails.size());
+        List<MimeMessage> batch = new ArrayList<>(emails.size());
+        for (EmailDto email : emails) {
+            try {
+                MimeMessage message = toMessage(email);
+                messages.put(message, email);
+                batch.add(message);
+            } catch (MessagingException e) {
+                failed.put(email, e);
+            }
+        }
+        if (batch.isEmpty()) {
+            return failed;
+        }
+        try {
+            javaMailSender.send(batch.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            // without failed messages it is a connection level failure, nothing was sent
+            if (e.getFailedMessages().isEmpty()) {
+                batch.forEach(message -> failed.put(messages.get(message), e));
+            }
+            e.getFailedMessages().forEach((message, cause) -> failed.put(messages.get(message), cause));
+        } catch (MailException e) {
+            batch.forEach(message -> failed.put(messages.get(message), e));
+        }
+        return failed;
+    }
+
+    private MimeMessage toMessage(EmailDto email) throws MessagingException {
+        MimeMessage message = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, email.htmlContent() != null, StandardCharsets.UTF_8.name());
+        helper.setFrom(mailProperties.getFrom());
+        helper.setTo(email.toAddress());
+        helper.setSubject(email.subject());
+        if (email.htmlContent() != null) {
+            helper.setText(email.content(), email.htmlContent());
+        } else {
+            helper.setText(email.content());
+        }
+        return message;
+    }
+
+}
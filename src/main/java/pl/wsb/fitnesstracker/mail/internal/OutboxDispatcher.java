@@ -0,0 +1,175 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Sends the emails written to the outbox by the {@link OutboxEmailSender}.
+ * <p>
+ * Every run claims a batch of due emails with a conditional update tagging them with a random claim token, which is
+ * atomic per row, so any number of dispatchers (threads or nodes sharing the database) can run in parallel without
+ * sending an email twice. The claimed emails are sent over a single SMTP connection, rate limited per node,
+ * and marked as sent; failed ones are rescheduled with an exponential backoff or marked as failed after the last attempt.
+ * <p>
+ * The node dispatches every {@link MailOutboxProperties#getPollInterval()}, until no full batch is due.
+ * Emails claimed by a dispatcher that died are released after {@link MailOutboxProperties#getClaimTimeout()}.
+ * The dispatch and the maintenance run on their own scheduler threads, not on the shared single-threaded scheduler
+ * of the {@code @Scheduled} jobs, so a monthly report or statistics reconciliation running for hours does not hold
+ * back the emails. A dispatcher dying between the SMTP server accepting an email and marking it as sent causes it to be sent again.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.delivery", havingValue = "outbox")
+@Slf4j
+class OutboxDispatcher implements SmartLifecycle {
+
+    private final OutboxEmailRepository outboxEmailRepository;
+
+    private final MailTransport mailTransport;
+
+    private final MailOutboxProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TokenBucket rateLimiter;
+
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+
+    private final List<ScheduledFuture<?>> scheduledTasks = new ArrayList<>();
+
+    private final Clock clock = Clock.systemUTC();
+
+    OutboxDispatcher(OutboxEmailRepository outboxEmailRepository,
+                     MailTransport mailTransport,
+                     MailOutboxProperties properties,
+                     PlatformTransactionManager transactionManager) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.mailTransport = mailTransport;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rateLimiter = new TokenBucket(properties.getRatePerSecond(), properties.getBurst());
+        this.taskScheduler.setPoolSize(2);
+        this.taskScheduler.setThreadNamePrefix("outbox-dispatcher-");
+    }
+
+    @Override
+    public void start() {
+        taskScheduler.initialize();
+        scheduledTasks.add(taskScheduler.scheduleWithFixedDelay(this::dispatchDue, properties.getPollInterval()));
+        scheduledTasks.add(taskScheduler.scheduleWithFixedDelay(this::maintenance, properties.getClaimTimeout()));
+    }
+
+    @Override
+    public void stop() {
+        scheduledTasks.forEach(task -> task.cancel(false));
+        scheduledTasks.clear();
+        taskScheduler.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return !scheduledTasks.isEmpty();
+    }
+
+    private void dispatchDue() {
+        try {
+            while (dispatch() == properties.getBatchSize()) {
+                // full batch, more emails are probably due
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Outbox dispatch failed", e);
+        }
+    }
+
+    private void maintenance() {
+        Instant now = clock.instant();
+        Integer released = transactionTemplate.execute(status -> outboxEmailRepository.releaseStaleClaims(now.minus(properties.getClaimTimeout())));
+        Integer deleted = transactionTemplate.execute(status -> outboxEmailRepository.deleteSentBefore(now.minus(properties.getRetention())));
+        if (released != null && released > 0) {
+            log.warn("Released {} outbox emails of timed out dispatchers", released);
+        }
+        log.debug("Deleted {} sent outbox emails past the retention", deleted);
+    }
+
+    /**
+     * Claims and sends a batch of due emails.
+     *
+     * @return number of claimed emails
+     * @throws InterruptedException if interrupted while waiting for the rate limiter
+     */
+    int dispatch() throws InterruptedException {
+        String claimToken = UUID.randomUUID().toString();
+        List<OutboxEmail> claimed = transactionTemplate.execute(status -> claim(claimToken));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<EmailDto> emails = claimed.stream().map(OutboxEmail::toEmail).toList();
+        rateLimiter.acquire(emails.size());
+        Map<EmailDto, Exception> failed = mailTransport.sendBatch(emails);
+
+        List<Long> sentIds = new ArrayList<>(emails.size());
+        Map<Long, Exception> failedEmails = new HashMap<>();
+        for (int i = 0; i < emails.size(); i++) {
+            Exception cause = failed.get(emails.get(i));
+            if (cause != null) {
+                failedEmails.put(claimed.get(i).getId(), cause);
+            } else {
+                sentIds.add(claimed.get(i).getId());
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = clock.instant();
+            if (!sentIds.isEmpty()) {
+                outboxEmailRepository.markSent(sentIds, claimToken, now);
+            }
+            outboxEmailRepository.findAllById(failedEmails.keySet()).forEach(email -> reschedule(email, failedEmails.get(email.getId()), claimToken, now));
+        });
+        log.debug("Outbox dispatch {}: {} sent, {} failed", claimToken, sentIds.size(), failedEmails.size());
+        return claimed.size();
+    }
+
+    private List<OutboxEmail> claim(String claimToken) {
+        Instant now = clock.instant();
+        List<Long> dueIds = outboxEmailRepository.findDueIds(now, Limit.of(properties.getBatchSize()));
+        if (dueIds.isEmpty() || outboxEmailRepository.claim(dueIds, claimToken, now) == 0) {
+            return List.of();
+        }
+        return outboxEmailRepository.findByClaimTokenOrderById(claimToken);
+    }
+
+    private void reschedule(OutboxEmail email, Exception cause, String claimToken, Instant now) {
+        if (!claimToken.equals(email.getClaimToken())) {
+            // released as timed out and claimed by another dispatcher in the meantime
+            return;
+        }
+        email.setAttempts(email.getAttempts() + 1);
+        email.setClaimToken(null);
+        email.setLastError(abbreviate(String.valueOf(cause.getMessage())));
+        if (email.getAttempts() >= properties.getMaxAttempts()) {
+            log.error("Outbox email {} failed after {} attempts", email, email.getAttempts(), cause);
+            email.setStatus(OutboxStatus.FAILED);
+        } else {
+            email.setStatus(OutboxStatus.PENDING);
+            email.setNextAttemptAt(now.plus(properties.getInitialBackoff().multipliedBy(1L << (email.getAttempts() - 1))));
+        }
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+}
@@ -0,0 +1,102 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.*;
+import lombok.*;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+
+import java.time.Instant;
+
+/**
+ * Email written to the outbox in the business transaction and sent by the {@link OutboxDispatcher}.
+ */
+@Entity
+@Table(name = "mail_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "ux_mail_outbox_idempotency_key", columnNames = "idempotency_key"),
+        indexes = {
+                @Index(name = "ix_mail_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+                @Index(name = "ix_mail_outbox_claim_token", columnList = "claim_token")
+        })
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(onlyExplicitlyIncluded = true)
+class OutboxEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mail_outbox_seq")
+    @SequenceGenerator(name = "mail_outbox_seq", sequenceName = "mail_outbox_seq", allocationSize = 50)
+    @Setter(AccessLevel.NONE)
+    @ToString.Include
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, length = 200)
+    @ToString.Include
+    private String idempotencyKey;
+
+    @Column(name = "to_address", nullable = false)
+    @ToString.Include
+    private String toAddress;
+
+    @Column(name = "subject", nullable = false, length = 1000)
+    @ToString.Include
+    private String subject;
+
+    @Lob
+    @Column(name = "content", nullable = false)
+    private String content;
+
+    @Nullable
+    @Lob
+    @Column(name = "html_content")
+    private String htmlContent;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    @ToString.Include
+    private OutboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    /**
+     * Random token of the dispatcher run that claimed the email.
+     */
+    @Nullable
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Nullable
+    @Column(name = "claimed_at")
+    private Instant claimedAt;
+
+    @Nullable
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    @Nullable
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    OutboxEmail(final String idempotencyKey, final EmailDto email, final Instant now) {
+        this.idempotencyKey = idempotencyKey;
+        this.toAddress = email.toAddress();
+        this.subject = email.subject();
+        this.content = email.content();
+        this.htmlContent = email.htmlContent();
+        this.status = OutboxStatus.PENDING;
+        this.nextAttemptAt = now;
+        this.createdAt = now;
+    }
+
+    EmailDto toEmail() {
+        return new EmailDto(toAddress, subject, content, idempotencyKey, htmlContent);
+    }
+
+}
@@ -0,0 +1,60 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    @Query("""
+            select e.id from OutboxEmail e
+            where e.status = pl.wsb.fitnesstracker.mail.internal.OutboxStatus.PENDING and e.nextAttemptAt <= :now
+            order by e.id""")
+    List<Long> findDueIds(Instant now, Limit limit);
+
+    /**
+     * Claims the pending emails with given IDs for the dispatcher run. The status check makes the claim atomic per row:
+     * emails claimed by a concurrent dispatcher in the meantime are skipped, like with {@code SELECT ... FOR UPDATE SKIP LOCKED}.
+     *
+     * @return number of claimed emails
+     */
+    @Modifying
+    @Query("""
+            update OutboxEmail e
+            set e.status = pl.wsb.fitnesstracker.mail.internal.OutboxStatus.SENDING, e.claimToken = :claimToken, e.claimedAt = :now
+            where e.id in :ids and e.status = pl.wsb.fitnesstracker.mail.internal.OutboxStatus.PENDING""")
+    int claim(Collection<Long> ids, String claimToken, Instant now);
+
+    List<OutboxEmail> findByClaimTokenOrderById(String claimToken);
+
+    @Modifying
+    @Query("""
+            update OutboxEmail e
+            set e.status = pl.wsb.fitnesstracker.mail.internal.OutboxStatus.SENT, e.sentAt = :now, e.attempts = e.attempts + 1
+            where e.id in :ids and e.claimToken = :claimToken""")
+    int markSent(Collection<Long> ids, String claimToken, Instant now);
+
+    /**
+     * Returns the emails claimed before given time back to the pending ones, their dispatcher is considered dead.
+     *
+     * @return number of released emails
+     */
+    @Modifying
+    @Query("""
+            update OutboxEmail e
+            set e.status = pl.wsb.fitnesstracker.mail.internal.OutboxStatus.PENDING, e.claimToken = null
+            where e.status = pl.wsb.fitnesstracker.mail.internal.OutboxStatus.SENDING and e.claimedAt < :claimedBefore""")
+    int releaseStaleClaims(Instant claimedBefore);
+
+    @Modifying
+    @Query("delete from OutboxEmail e where e.status = pl.wsb.fitnesstracker.mail.internal.OutboxStatus.SENT and e.sentAt < :sentBefore")
+    int deleteSentBefore(Instant sentBefore);
+
+}
@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+import java.time.Clock;
+import java.util.UUID;
+
+/**
+ * {@link EmailSender} writing the emails to the {@code mail_outbox} table, in the caller's transaction if there is one.
+ * The email is sent by the {@link OutboxDispatcher} only once the transaction commits, and is never lost afterwards.
+ * An email whose idempotency key is already in the outbox is skipped, keys of emails without one are generated.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.delivery", havingValue = "outbox")
+@RequiredArgsConstructor
+@Slf4j
+class OutboxEmailSender implements EmailSender {
+
+    private final OutboxEmailRepository outboxEmailRepository;
+
+    private final Clock clock = Clock.systemUTC();
+
+    @Override
+    @Transactional
+    public void send(final EmailDto email) {
+        String idempotencyKey = email.idempotencyKey() != null ? email.idempotencyKey() : UUID.randomUUID().toString();
+        // a concurrent duplicate passing the check fails on the unique key constraint
+        if (outboxEmailRepository.existsByIdempotencyKey(idempotencyKey)) {
+            log.info("Email {} is already in the outbox, skipped", idempotencyKey);
+            return;
+        }
+        outboxEmailRepository.save(new OutboxEmail(idempotencyKey, email, clock.instant()));
+    }
+
+    @Override
+    public boolean isDeliveryGuaranteed() {
+        return true;
+    }
+
+}
@@ -0,0 +1,22 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+enum OutboxStatus {
+
+    /**
+     * Waiting to be claimed by a dispatcher, possibly after a failed attempt.
+     */
+    PENDING,
+
+    /**
+     * Claimed by a dispatcher, which is sending it.
+     */
+    SENDING,
+
+    SENT,
+
+    /**
+     * All attempts failed, the email is not going to be sent.
+     */
+    FAILED
+
+}
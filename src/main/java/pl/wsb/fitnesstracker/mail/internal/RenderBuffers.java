@@ -0,0 +1,47 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+/**
+ * Per-thread buffers reused by the template rendering. Buffers grown above the retained capacity by an exceptionally
+ * large email are replaced, so a thread does not hold on to them.
+ */
+final class RenderBuffers {
+
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+
+    private static final int RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<RenderBuffers> BUFFERS = ThreadLocal.withInitial(RenderBuffers::new);
+
+    private StringBuilder out = new StringBuilder(INITIAL_CAPACITY);
+
+    private StringBuilder scratch = new StringBuilder(256);
+
+    private RenderBuffers() {
+    }
+
+    static RenderBuffers get() {
+        return BUFFERS.get();
+    }
+
+    /**
+     * @return empty output buffer
+     */
+    StringBuilder out() {
+        if (out.capacity() > RETAINED_CAPACITY) {
+            out = new StringBuilder(INITIAL_CAPACITY);
+        }
+        out.setLength(0);
+        return out;
+    }
+
+    /**
+     * @return scratch buffer, emptied by its user
+     */
+    StringBuilder scratch() {
+        if (scratch.capacity() > RETAINED_CAPACITY) {
+            scratch = new StringBuilder(256);
+        }
+        return scratch;
+    }
+
+}
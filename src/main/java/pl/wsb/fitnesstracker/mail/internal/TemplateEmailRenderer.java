@@ -0,0 +1,87 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailRenderer;
+import pl.wsb.fitnesstracker.mail.api.TemplateModel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link EmailRenderer} compiling all templates found under {@code classpath:mail/templates/} on startup.
+ * Templates are rendered into {@link RenderBuffers} of the calling thread, the only allocations per email
+ * are the resulting strings.
+ */
+@Component
+@Slf4j
+class TemplateEmailRenderer implements EmailRenderer {
+
+    private static final String TEMPLATES_LOCATION = "classpath*:mail/templates/*/";
+
+    private final Map<String, EmailTemplate> templates;
+
+    TemplateEmailRenderer() throws IOException {
+        this(new PathMatchingResourcePatternResolver());
+    }
+
+    TemplateEmailRenderer(ResourcePatternResolver resourceResolver) throws IOException {
+        Map<String, EmailTemplate> compiled = new HashMap<>();
+        for (Resource subject : resourceResolver.getResources(TEMPLATES_LOCATION + "subject.txt")) {
+            String name = templateName(subject);
+            Resource html = subject.createRelative("body.html");
+            compiled.put(name, new EmailTemplate(
+                    CompiledTemplate.compile(name + "/subject.txt", read(subject).strip(), false),
+                    CompiledTemplate.compile(name + "/body.txt", read(subject.createRelative("body.txt")), false),
+                    html.exists() ? CompiledTemplate.compile(name + "/body.html", read(html), true) : null));
+        }
+        this.templates = Map.copyOf(compiled);
+        log.info("Compiled email templates {}", templates.keySet());
+    }
+
+    @Override
+    public EmailDto render(final String template, final String toAddress, final TemplateModel model, @Nullable final String idempotencyKey) {
+        EmailTemplate emailTemplate = templates.get(template);
+        if (emailTemplate == null) {
+            throw new IllegalArgumentException("Email template %s does not exist".formatted(template));
+        }
+        RenderBuffers buffers = RenderBuffers.get();
+        String subject = render(emailTemplate.subject(), model, buffers);
+        String content = render(emailTemplate.text(), model, buffers);
+        String htmlContent = emailTemplate.html() != null ? render(emailTemplate.html(), model, buffers) : null;
+        return new EmailDto(toAddress, subject, content, idempotencyKey, htmlContent);
+    }
+
+    private static String render(CompiledTemplate template, TemplateModel model, RenderBuffers buffers) {
+        StringBuilder out = buffers.out();
+        template.render(model, out, buffers.scratch());
+        return out.toString();
+    }
+
+    private static String templateName(Resource subject) throws IOException {
+        String path = subject.getURL().toString();
+        String directory = path.substring(0, path.lastIndexOf('/'));
+        return directory.substring(directory.lastIndexOf('/') + 1);
+    }
+
+    private static String read(Resource resource) {
+        try {
+            return resource.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Email template %s could not be read".formatted(resource), e);
+        }
+    }
+
+    private record EmailTemplate(CompiledTemplate subject, CompiledTemplate text, @Nullable CompiledTemplate html) {
+
+    }
+
+}
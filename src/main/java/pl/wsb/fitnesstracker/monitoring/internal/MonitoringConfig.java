@@ -0,0 +1,21 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SqlProfileProperties.class)
+class MonitoringConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer sqlProfilingCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlProfilingListener());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlProfilingListener.class.getName());
+        };
+    }
+
+}
@@ -0,0 +1,109 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingService;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call of the module API methods ({@link UserProvider}, {@link UserService}, {@link TrainingProvider},
+ * {@link TrainingService}, {@link StatisticsProvider}, {@link EmailSender}) and of the SMTP {@code MailTransport},
+ * as the {@value #METRIC_NAME} timer tagged by the {@code component} (API interface), {@code method}
+ * and {@code exception} ({@code none} on success). The timer also counts the calls.
+ * <p>
+ * Together with the {@code http.server.requests} and the Spring Data {@code spring.data.repository.invocations} timers,
+ * this tells whether the latency of a request comes from the controller (mapping, serialization), the service
+ * or the repositories. The timers of successful calls are resolved once per method, so a call costs two
+ * {@link System#nanoTime()} reads and a map lookup. Calls returning a {@link java.util.stream.Stream} are timed
+ * until the stream is returned, not until it is consumed.
+ */
+@Aspect
+@Component
+class ServiceMetricsAspect {
+
+    static final String METRIC_NAME = "service.calls";
+
+    private static final List<Class<?>> COMPONENTS = List.of(UserProvider.class, UserService.class, TrainingProvider.class,
+            TrainingService.class, StatisticsProvider.class, EmailSender.class);
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* pl.wsb.fitnesstracker.user.api.UserProvider.*(..))"
+            + " || execution(* pl.wsb.fitnesstracker.user.api.UserService.*(..))"
+            + " || execution(* pl.wsb.fitnesstracker.training.api.TrainingProvider.*(..))"
+            + " || execution(* pl.wsb.fitnesstracker.training.api.TrainingService.*(..))"
+            + " || execution(* pl.wsb.fitnesstracker.statistics.api.StatisticsProvider.*(..))"
+            + " || execution(* pl.wsb.fitnesstracker.mail.api.EmailSender.*(..))"
+            + " || execution(* pl.wsb.fitnesstracker.mail.internal.MailTransport.*(..))")
+    Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            successTimers.computeIfAbsent(method, key -> timer(joinPoint, key, NO_EXCEPTION))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            timer(joinPoint, method, e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(ProceedingJoinPoint joinPoint, Method method, String exception) {
+        return Timer.builder(METRIC_NAME)
+                .description("Calls of the module API methods")
+                .tag("component", component(AopUtils.getTargetClass(joinPoint.getTarget()), method))
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resolves the API interface declaring the method, e.g. {@code UserProvider} for {@code getUser} implemented
+     * by the {@code UserServiceImpl}, or the class itself for the instrumented internal components.
+     */
+    private static String component(Class<?> targetClass, Method method) {
+        for (Class<?> component : COMPONENTS) {
+            if (component.isAssignableFrom(targetClass) && declares(component, method)) {
+                return component.getSimpleName();
+            }
+        }
+        return targetClass.getSimpleName();
+    }
+
+    private static boolean declares(Class<?> type, Method method) {
+        try {
+            type.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Request served slower than {@link SqlProfileProperties#getSlowThreshold()}, with the SQL profile of the request.
+ *
+ * @param timestamp        time the request completed
+ * @param method           HTTP method
+ * @param path             request path, without the query string
+ * @param uri              URI template of the handler, {@code UNKNOWN} if no handler matched
+ * @param status           HTTP status of the response
+ * @param durationMillis   time spent serving the request
+ * @param statements       number of prepared SQL statements
+ * @param jdbcMillis       time spent in JDBC preparing and executing the statements
+ * @param hydratedEntities number of entities hydrated from the results
+ * @param sql              the prepared statements, the ones with the longest total JDBC time first
+ */
+record SlowRequestDto(Instant timestamp,
+                      String method,
+                      String path,
+                      String uri,
+                      int status,
+                      long durationMillis,
+                      long statements,
+                      double jdbcMillis,
+                      long hydratedEntities,
+                      List<SqlStatementDto> sql) {
+
+}
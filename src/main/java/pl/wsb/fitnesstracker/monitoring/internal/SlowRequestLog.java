@@ -0,0 +1,50 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring buffer of the most recent {@link SlowRequestDto slow requests}, the oldest overwritten when full.
+ */
+@Component
+class SlowRequestLog {
+
+    private final AtomicReferenceArray<SlowRequestDto> requests;
+
+    private final AtomicLong written = new AtomicLong();
+
+    SlowRequestLog(SqlProfileProperties properties) {
+        this.requests = new AtomicReferenceArray<>(properties.getCapacity());
+    }
+
+    void add(SlowRequestDto request) {
+        requests.set((int) (written.getAndIncrement() % requests.length()), request);
+    }
+
+    /**
+     * @return the kept requests, the slowest first
+     */
+    List<SlowRequestDto> slowest() {
+        List<SlowRequestDto> slowest = new ArrayList<>(requests.length());
+        for (int i = 0; i < requests.length(); i++) {
+            SlowRequestDto request = requests.get(i);
+            if (request != null) {
+                slowest.add(request);
+            }
+        }
+        slowest.sort(Comparator.comparingLong(SlowRequestDto::durationMillis).reversed());
+        return slowest;
+    }
+
+    void clear() {
+        for (int i = 0; i < requests.length(); i++) {
+            requests.set(i, null);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL executed by Hibernate on the current thread while serving a request: the prepared statements, the time spent
+ * in JDBC (preparing and executing them, not fetching the rows of a streamed result) and the number of entities
+ * hydrated from the results. Recorded by the {@link SqlProfilingListener} and the {@link EntityLoadCounter}.
+ * <p>
+ * A profile is confined to the thread that opened it, so it needs no synchronization. At most {@code maxStatements}
+ * distinct SQL strings are kept, the others are accumulated under {@value #OTHER_STATEMENTS}.
+ */
+final class SqlProfile {
+
+    static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final ThreadLocal<SqlProfile> CURRENT = new ThreadLocal<>();
+
+    private final int maxStatements;
+
+    private final Map<String, StatementStats> statements = new HashMap<>();
+
+    private long statementCount;
+
+    private long jdbcNanos;
+
+    private long hydratedEntities;
+
+    @Nullable
+    private StatementStats currentStatement;
+
+    private long jdbcStart;
+
+    private SqlProfile(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Starts profiling the SQL of the current thread.
+     *
+     * @param maxStatements maximum number of distinct SQL strings kept
+     * @return the opened profile
+     */
+    static SqlProfile open(int maxStatements) {
+        SqlProfile profile = new SqlProfile(maxStatements);
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    /**
+     * Stops profiling the SQL of the current thread.
+     */
+    static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return profile of the current thread, {@code null} if none is open
+     */
+    @Nullable
+    static SqlProfile current() {
+        return CURRENT.get();
+    }
+
+    void statementPrepared(String sql) {
+        statementCount++;
+        StatementStats stats = statements.get(sql);
+        if (stats == null) {
+            stats = statements.computeIfAbsent(statements.size() < maxStatements ? sql : OTHER_STATEMENTS, StatementStats::new);
+        }
+        stats.count++;
+        currentStatement = stats;
+    }
+
+    void jdbcStarted() {
+        jdbcStart = System.nanoTime();
+    }
+
+    void jdbcEnded() {
+        long nanos = System.nanoTime() - jdbcStart;
+        jdbcNanos += nanos;
+        if (currentStatement != null) {
+            currentStatement.nanos += nanos;
+        }
+    }
+
+    void entityLoaded() {
+        hydratedEntities++;
+    }
+
+    long getStatementCount() {
+        return statementCount;
+    }
+
+    long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    long getHydratedEntities() {
+        return hydratedEntities;
+    }
+
+    /**
+     * @return the prepared statements, the ones with the longest total JDBC time first
+     */
+    List<SqlStatementDto> statements() {
+        return statements.values().stream()
+                .sorted(Comparator.comparingLong((StatementStats stats) -> stats.nanos).reversed())
+                .map(stats -> new SqlStatementDto(stats.sql, stats.count, stats.nanos / 1e6))
+                .toList();
+    }
+
+    private static final class StatementStats {
+
+        private final String sql;
+
+        private long count;
+
+        private long nanos;
+
+        private StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profiles the SQL executed by Hibernate while serving a request (see {@link SqlProfile}) and records it, tagged like
+ * {@code http.server.requests} by the {@code method} and {@code uri} template, as the {@value #STATEMENTS_METRIC_NAME}
+ * and {@value #ENTITIES_METRIC_NAME} distribution summaries and the {@value #JDBC_METRIC_NAME} timer, so N+1 regressions
+ * of an endpoint show up in the production metrics. Requests served slower than
+ * {@link SqlProfileProperties#getSlowThreshold()} are kept with their SQL in the {@link SlowRequestLog}.
+ * <p>
+ * Only the request thread is profiled: the SQL of streamed responses, written after the request thread
+ * is released, is not recorded.
+ */
+@Component
+@RequiredArgsConstructor
+class SqlProfileFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_METRIC_NAME = "http.server.requests.statements";
+
+    static final String JDBC_METRIC_NAME = "http.server.requests.jdbc";
+
+    static final String ENTITIES_METRIC_NAME = "http.server.requests.entities";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final SqlProfileProperties properties;
+
+    private final SlowRequestLog slowRequestLog;
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        SqlProfile profile = SqlProfile.open(properties.getMaxStatements());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlProfile.close();
+            long durationNanos = System.nanoTime() - start;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+            record(request.getMethod(), uri, profile);
+            if (durationNanos >= properties.getSlowThreshold().toNanos()) {
+                slowRequestLog.add(new SlowRequestDto(Instant.now(), request.getMethod(), request.getRequestURI(), uri,
+                        response.getStatus(), TimeUnit.NANOSECONDS.toMillis(durationNanos), profile.getStatementCount(),
+                        profile.getJdbcNanos() / 1e6, profile.getHydratedEntities(), profile.statements()));
+            }
+        }
+    }
+
+    private void record(String method, String uri, SqlProfile profile) {
+        DistributionSummary.builder(STATEMENTS_METRIC_NAME)
+                .description("SQL statements prepared per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(profile.getStatementCount());
+        DistributionSummary.builder(ENTITIES_METRIC_NAME)
+                .description("Entities hydrated by Hibernate per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(profile.getHydratedEntities());
+        Timer.builder(JDBC_METRIC_NAME)
+                .description("Time spent in JDBC preparing and executing the SQL statements of a request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(profile.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+
+}
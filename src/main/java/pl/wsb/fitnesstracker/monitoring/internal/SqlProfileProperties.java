@@ -0,0 +1,39 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the per-request SQL profiling of the {@link SqlProfileFilter}.
+ */
+@ConfigurationProperties(prefix = "monitoring.sql-profile")
+@Getter
+class SqlProfileProperties {
+
+    /**
+     * Requests served at least this long are kept in the {@link SlowRequestLog}.
+     */
+    private final Duration slowThreshold;
+
+    /**
+     * Number of the most recent slow requests kept.
+     */
+    private final int capacity;
+
+    /**
+     * Maximum number of distinct SQL statements kept per request.
+     */
+    private final int maxStatements;
+
+    SqlProfileProperties(@DefaultValue("500ms") Duration slowThreshold,
+                         @DefaultValue("100") int capacity,
+                         @DefaultValue("50") int maxStatements) {
+        this.slowThreshold = slowThreshold;
+        this.capacity = capacity;
+        this.maxStatements = maxStatements;
+    }
+
+}
@@ -0,0 +1,69 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL executed by Hibernate into the {@link SqlProfile} open on the current thread: the statements as
+ * the session factory {@link StatementInspector}, and the JDBC time as the {@link SessionEventListener} of every
+ * session. Hibernate prepares a statement right after inspecting it, so the timings are attributed to the last
+ * inspected statement. Without an open profile a callback costs a single {@link ThreadLocal} read.
+ * <p>
+ * Public, as Hibernate instantiates the session listeners from their class name.
+ */
+public class SqlProfilingListener implements StatementInspector, SessionEventListener {
+
+    @Override
+    public String inspect(String sql) {
+        SqlProfile profile = SqlProfile.current();
+        if (profile != null) {
+            profile.statementPrepared(sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        jdbcStarted();
+    }
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        jdbcEnded();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        jdbcStarted();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        jdbcEnded();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcStarted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcEnded();
+    }
+
+    private static void jdbcStarted() {
+        SqlProfile profile = SqlProfile.current();
+        if (profile != null) {
+            profile.jdbcStarted();
+        }
+    }
+
+    private static void jdbcEnded() {
+        SqlProfile profile = SqlProfile.current();
+        if (profile != null) {
+            profile.jdbcEnded();
+        }
+    }
+
+}
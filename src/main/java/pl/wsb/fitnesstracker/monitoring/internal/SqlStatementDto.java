@@ -0,0 +1,12 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+/**
+ * SQL statement prepared while serving a request.
+ *
+ * @param sql         the SQL, as generated by Hibernate (with {@code ?} parameter placeholders)
+ * @param count       number of times the statement was prepared
+ * @param totalMillis time spent in JDBC preparing and executing the statement
+ */
+record SqlStatementDto(String sql, long count, double totalMillis) {
+
+}
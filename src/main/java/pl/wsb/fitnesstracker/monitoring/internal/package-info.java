@@ -0,0 +1,4 @@
+@NonNullByDefault
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -0,0 +1,26 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/v1/reports")
+@RequiredArgsConstructor
+class MonthlyReportController {
+
+    private final MonthlyReportJob monthlyReportJob;
+
+    private final ReportCheckpointMapper reportCheckpointMapper;
+
+    /**
+     * Runs (or resumes) the monthly report of the month synchronously.
+     */
+    @PostMapping("/monthly/{month}")
+    public ReportCheckpointDto runMonthlyReport(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        return reportCheckpointMapper.toDto(monthlyReportJob.run(month));
+    }
+
+}
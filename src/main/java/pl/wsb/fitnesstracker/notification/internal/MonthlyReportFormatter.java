@@ -0,0 +1,28 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailRenderer;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Renders the monthly training report email of a user from the {@code monthly-report} template.
+ */
+@Component
+@RequiredArgsConstructor
+class MonthlyReportFormatter {
+
+    static final String TEMPLATE = "monthly-report";
+
+    private final EmailRenderer emailRenderer;
+
+    EmailDto format(User user, YearMonth month, List<MonthlyTrainingAggregate> aggregates) {
+        return emailRenderer.render(TEMPLATE, user.getEmail(), new MonthlyReportModel(user, month, aggregates),
+                "monthly-report/%s/%d".formatted(month, user.getId()));
+    }
+
+}
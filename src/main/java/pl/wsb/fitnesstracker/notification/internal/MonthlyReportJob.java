@@ -0,0 +1,237 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.EmailQueueFullException;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Sends the monthly training report to every user.
+ * <p>
+ * Users are read in keyset ordered chunks of {@link MonthlyReportProperties#getChunkSize()}. Each chunk is processed
+ * on a bounded worker pool: a single grouped query aggregates the month's trainings of all users of the chunk,
+ * then the reports are rendered and sent. When the pool is busy the reading thread processes the chunk itself,
+ * so no more than a few chunks are held in memory.
+ * <p>
+ * Progress is checkpointed in {@code report_checkpoints} after each chunk, up to the last chunk completed
+ * together with all its predecessors. A run interrupted by a crash resumes after the checkpoint, a completed run is not repeated.
+ * Chunks completed past the checkpoint are processed again on resume, their reports carry idempotency keys
+ * so the outbox mail delivery does not send them twice.
+ * <p>
+ * A chunk completes only once the reports of all its users are accepted by the {@link EmailSender}: a failed send
+ * fails the chunk, the run stops reading further users and the next run resumes before the chunk. When the mail queue
+ * is full the chunk fails at once with the {@link EmailQueueFullException}, which the run rethrows as the caller may
+ * retry later.
+ * <p>
+ * No user is skipped only if the sender {@link EmailSender#isDeliveryGuaranteed() guarantees the delivery} of the
+ * accepted reports ({@code outbox} or {@code sync} mail delivery). The {@code async} delivery may still drop an accepted
+ * report after its last attempt or lose it on a crash, after the checkpoint passed its user, so it is only used when
+ * {@link MonthlyReportProperties#isAtMostOnceDelivery() at most once delivery} is configured explicitly.
+ */
+@Component
+@Slf4j
+class MonthlyReportJob {
+
+    private final UserProvider userProvider;
+
+    private final MonthlyReportRepository reportRepository;
+
+    private final MonthlyReportFormatter reportFormatter;
+
+    private final EmailSender emailSender;
+
+    private final MonthlyReportMetrics metrics;
+
+    private final MonthlyReportProperties properties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    MonthlyReportJob(UserProvider userProvider,
+                     MonthlyReportRepository reportRepository,
+                     MonthlyReportFormatter reportFormatter,
+                     EmailSender emailSender,
+                     MonthlyReportMetrics metrics,
+                     MonthlyReportProperties properties) {
+        this.userProvider = userProvider;
+        this.reportRepository = reportRepository;
+        this.reportFormatter = reportFormatter;
+        this.emailSender = emailSender;
+        this.metrics = metrics;
+        this.properties = properties;
+        if (!emailSender.isDeliveryGuaranteed()) {
+            if (!properties.isAtMostOnceDelivery()) {
+                throw new IllegalStateException("Monthly reports require the outbox or sync mail delivery, "
+                        + "set notification.monthly-report.at-most-once-delivery=true to send them with the async one");
+            }
+            log.info("Monthly reports are sent at most once, a report lost by the mail delivery is not sent again");
+        }
+    }
+
+    @Scheduled(cron = "${notification.monthly-report.cron:-}")
+    void scheduledRun() {
+        run(YearMonth.now().minusMonths(1));
+    }
+
+    /**
+     * Sends the report of the month to all users, resuming the run of the month if it was interrupted.
+     *
+     * @param month reported month
+     * @return checkpoint of the run
+     * @throws ReportInProgressException if a report run is already in progress
+     * @throws EmailQueueFullException   if the run stopped as the mail queue is full, it resumes when run again
+     * @throws IllegalStateException     if the run failed, it resumes when run again
+     */
+    ReportCheckpoint run(YearMonth month) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ReportInProgressException();
+        }
+        try {
+            return doRun(month);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReportCheckpoint doRun(YearMonth month) {
+        String reportKey = "monthly-" + month;
+        ReportCheckpoint checkpoint = reportRepository.findById(reportKey)
+                .orElseGet(() -> new ReportCheckpoint(reportKey));
+        if (checkpoint.isCompleted()) {
+            log.info("Report {} has already been completed", reportKey);
+            return checkpoint;
+        }
+        Long afterUserId = checkpoint.getLastUserId();
+        long usersToProcess = reportRepository.countUsersAfter(afterUserId == null ? Long.MIN_VALUE : afterUserId);
+        log.info("Starting report {} after User {}, {} users to process", reportKey, afterUserId, usersToProcess);
+        metrics.started(usersToProcess);
+
+        Date monthStart = Date.from(month.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date monthEnd = Date.from(month.plusMonths(1).atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        CheckpointTracker tracker = new CheckpointTracker(checkpoint);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(properties.getParallelism(), properties.getParallelism(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getParallelism()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            long sequence = 0;
+            List<User> users = userProvider.findUsersAfter(afterUserId, properties.getChunkSize());
+            while (!users.isEmpty() && failure.get() == null) {
+                long chunkSequence = sequence++;
+                List<User> chunk = users;
+                executor.execute(() -> {
+                    try {
+                        processChunk(chunk, month, monthStart, monthEnd);
+                        tracker.completed(chunkSequence, chunk.get(chunk.size() - 1).getId(), chunk.size());
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                users = userProvider.findUsersAfter(chunk.get(chunk.size() - 1).getId(), properties.getChunkSize());
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Waiting for report {} chunks to complete", reportKey);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Report %s was interrupted".formatted(reportKey), e);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure.get() instanceof EmailQueueFullException queueFull) {
+            log.warn("Report {} stopped as the mail queue is full, it will resume after User {}",
+                    reportKey, tracker.checkpoint().getLastUserId());
+            throw queueFull;
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Report %s failed, it will resume after User %s"
+                    .formatted(reportKey, tracker.checkpoint().getLastUserId()), failure.get());
+        }
+        ReportCheckpoint completed = tracker.complete();
+        log.info("Report {} completed, {} users processed", reportKey, completed.getProcessedUsers());
+        return completed;
+    }
+
+    private void processChunk(List<User> users, YearMonth month, Date monthStart, Date monthEnd) {
+        Map<Long, List<MonthlyTrainingAggregate>> aggregates = reportRepository
+                .aggregateMonth(users.get(0).getId(), users.get(users.size() - 1).getId(), monthStart, monthEnd).stream()
+                .collect(Collectors.groupingBy(MonthlyTrainingAggregate::userId));
+        int failed = 0;
+        for (User user : users) {
+            try {
+                emailSender.send(reportFormatter.format(user, month, aggregates.getOrDefault(user.getId(), List.of())));
+            } catch (EmailQueueFullException e) {
+                metrics.failed();
+                throw e;
+            } catch (RuntimeException e) {
+                log.warn("Sending monthly report to User {} failed", user.getId(), e);
+                metrics.failed();
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            throw new IllegalStateException("Sending monthly report to %d of %d users from User %d failed"
+                    .formatted(failed, users.size(), users.get(0).getId()));
+        }
+        metrics.processed(users.size());
+    }
+
+    /**
+     * Advances the checkpoint over the chunks completed in order, chunks may complete out of order on the pool.
+     */
+    private final class CheckpointTracker {
+
+        private final SortedMap<Long, CompletedChunk> completedAhead = new TreeMap<>();
+
+        private ReportCheckpoint checkpoint;
+
+        private long nextSequence;
+
+        private CheckpointTracker(ReportCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        synchronized void completed(long sequence, Long lastUserId, int users) {
+            completedAhead.put(sequence, new CompletedChunk(lastUserId, users));
+            boolean advanced = false;
+            while (!completedAhead.isEmpty() && completedAhead.firstKey() == nextSequence) {
+                CompletedChunk chunk = completedAhead.remove(nextSequence++);
+                checkpoint.setLastUserId(chunk.lastUserId());
+                checkpoint.setProcessedUsers(checkpoint.getProcessedUsers() + chunk.users());
+                advanced = true;
+            }
+            if (advanced) {
+                checkpoint = reportRepository.save(checkpoint);
+            }
+        }
+
+        synchronized ReportCheckpoint complete() {
+            checkpoint.setCompleted(true);
+            checkpoint = reportRepository.save(checkpoint);
+            return checkpoint;
+        }
+
+        synchronized ReportCheckpoint checkpoint() {
+            return checkpoint;
+        }
+
+    }
+
+    private record CompletedChunk(Long lastUserId, int users) {
+
+    }
+
+}
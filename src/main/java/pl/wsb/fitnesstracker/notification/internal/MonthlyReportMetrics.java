@@ -0,0 +1,71 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the running {@link MonthlyReportJob}, exposed through the actuator {@code metrics} endpoint:
+ * {@code report.monthly.users.total}, {@code report.monthly.users.processed}, {@code report.monthly.throughput}
+ * (users per second) and {@code report.monthly.eta} (seconds), plus the {@code report.monthly.users.failed} counter.
+ */
+@Component
+class MonthlyReportMetrics {
+
+    private final AtomicLong totalUsers = new AtomicLong();
+
+    private final AtomicLong processedUsers = new AtomicLong();
+
+    private final AtomicLong startNanos = new AtomicLong();
+
+    private final Counter failedUsers;
+
+    MonthlyReportMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("report.monthly.users.total", totalUsers, AtomicLong::get)
+                .description("Users to be processed by the running monthly report")
+                .register(meterRegistry);
+        Gauge.builder("report.monthly.users.processed", processedUsers, AtomicLong::get)
+                .description("Users processed by the running monthly report")
+                .register(meterRegistry);
+        Gauge.builder("report.monthly.throughput", this, MonthlyReportMetrics::throughput)
+                .description("Users processed per second by the running monthly report")
+                .baseUnit("users/s")
+                .register(meterRegistry);
+        Gauge.builder("report.monthly.eta", this, MonthlyReportMetrics::etaSeconds)
+                .description("Estimated time until the running monthly report completes")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        failedUsers = Counter.builder("report.monthly.users.failed")
+                .description("Users whose monthly report could not be sent")
+                .register(meterRegistry);
+    }
+
+    void started(long usersToProcess) {
+        totalUsers.set(usersToProcess);
+        processedUsers.set(0);
+        startNanos.set(System.nanoTime());
+    }
+
+    void processed(int users) {
+        processedUsers.addAndGet(users);
+    }
+
+    void failed() {
+        failedUsers.increment();
+    }
+
+    private double throughput() {
+        long elapsedNanos = System.nanoTime() - startNanos.get();
+        return startNanos.get() == 0 || elapsedNanos <= 0 ? 0 : processedUsers.get() * 1e9 / elapsedNanos;
+    }
+
+    private double etaSeconds() {
+        double throughput = throughput();
+        long remaining = Math.max(0, totalUsers.get() - processedUsers.get());
+        return remaining == 0 ? 0 : throughput > 0 ? remaining / throughput : Double.NaN;
+    }
+
+}
@@ -0,0 +1,108 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import pl.wsb.fitnesstracker.mail.api.TemplateModel;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Values of the {@code monthly-report} template. The {@code trainings}, {@code distance} and {@code duration}
+ * variables resolve to the current item of the {@code activities} section, or to the totals outside of it.
+ */
+class MonthlyReportModel implements TemplateModel {
+
+    private final User user;
+
+    private final YearMonth month;
+
+    private final List<MonthlyTrainingAggregate> aggregates;
+
+    private final long totalTrainings;
+
+    private final double totalDistance;
+
+    private final long totalDurationSeconds;
+
+    private int activity = -1;
+
+    MonthlyReportModel(User user, YearMonth month, List<MonthlyTrainingAggregate> aggregates) {
+        this.user = user;
+        this.month = month;
+        this.aggregates = aggregates;
+        long trainings = 0;
+        double distance = 0;
+        long durationSeconds = 0;
+        for (MonthlyTrainingAggregate aggregate : aggregates) {
+            trainings += aggregate.trainings();
+            distance += aggregate.distance();
+            durationSeconds += aggregate.durationSeconds();
+        }
+        this.totalTrainings = trainings;
+        this.totalDistance = distance;
+        this.totalDurationSeconds = durationSeconds;
+    }
+
+    @Override
+    public void append(String variable, StringBuilder out) {
+        MonthlyTrainingAggregate aggregate = activity >= 0 ? aggregates.get(activity) : null;
+        switch (variable) {
+            case "firstName" -> out.append(user.getFirstName());
+            case "month" -> out.append(month.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH))
+                    .append(' ').append(month.getYear());
+            case "activity" -> out.append(requireActivity(aggregate, variable).activityType().getDisplayName());
+            case "trainings" -> {
+                long trainings = aggregate != null ? aggregate.trainings() : totalTrainings;
+                out.append(trainings).append(trainings == 1 ? " training" : " trainings");
+            }
+            case "distance" -> appendDistance(aggregate != null ? aggregate.distance() : totalDistance, out);
+            case "duration" -> {
+                long durationSeconds = aggregate != null ? aggregate.durationSeconds() : totalDurationSeconds;
+                long minutes = durationSeconds % 3600 / 60;
+                out.append(durationSeconds / 3600).append(" h ").append(minutes < 10 ? "0" : "").append(minutes).append(" min");
+            }
+            default -> throw new IllegalArgumentException("Unknown variable " + variable);
+        }
+    }
+
+    @Override
+    public int sectionSize(String section) {
+        return switch (section) {
+            case "hasTrainings" -> aggregates.isEmpty() ? 0 : 1;
+            case "activities" -> aggregates.size();
+            default -> throw new IllegalArgumentException("Unknown section " + section);
+        };
+    }
+
+    @Override
+    public void enterSection(String section, int index) {
+        if ("activities".equals(section)) {
+            activity = index;
+        }
+    }
+
+    @Override
+    public void exitSection(String section) {
+        if ("activities".equals(section)) {
+            activity = -1;
+        }
+    }
+
+    private static MonthlyTrainingAggregate requireActivity(MonthlyTrainingAggregate aggregate, String variable) {
+        if (aggregate == null) {
+            throw new IllegalArgumentException("Variable %s is only available in the activities section".formatted(variable));
+        }
+        return aggregate;
+    }
+
+    /**
+     * Appends the distance rounded to one decimal place, same as {@code %.1f} but without formatting garbage.
+     */
+    private static void appendDistance(double distance, StringBuilder out) {
+        long tenths = Math.round(distance * 10);
+        out.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+}
@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the {@link MonthlyReportJob}.
+ */
+@ConfigurationProperties(prefix = "notification.monthly-report")
+@Getter
+class MonthlyReportProperties {
+
+    /**
+     * Cron expression of the scheduled run reporting the previous month, {@code -} disables it.
+     */
+    private final String cron;
+
+    /**
+     * Number of users processed (aggregated, rendered and sent) by a single task.
+     */
+    private final int chunkSize;
+
+    /**
+     * Number of chunks processed in parallel.
+     */
+    private final int parallelism;
+
+    /**
+     * Whether the reports may be sent by an {@link pl.wsb.fitnesstracker.mail.api.EmailSender} that does not guarantee
+     * the delivery (the {@code async} mail delivery). A report accepted by such a sender and lost afterwards is not
+     * sent again, the user gets it at most once. Without it the job requires the {@code outbox} or {@code sync} delivery.
+     */
+    private final boolean atMostOnceDelivery;
+
+    MonthlyReportProperties(@DefaultValue("-") String cron,
+                            @DefaultValue("500") int chunkSize,
+                            @DefaultValue("4") int parallelism,
+                            @DefaultValue("false") boolean atMostOnceDelivery) {
+        this.cron = cron;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.atMostOnceDelivery = atMostOnceDelivery;
+    }
+
+}
@@ -0,0 +1,34 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Date;
+import java.util.List;
+
+interface MonthlyReportRepository extends JpaRepository<ReportCheckpoint, String> {
+
+    /**
+     * Aggregates the trainings started within the month of the users within the ID range, grouped by user and activity type.
+     * The range predicate on {@code user_id} together with {@code start_time} is served by the {@code (user_id, start_time)} index.
+     *
+     * @param fromUserId first user ID of the range
+     * @param toUserId   last user ID of the range
+     * @param monthStart start of the month (inclusive)
+     * @param monthEnd   start of the next month (exclusive)
+     * @return monthly aggregates
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.notification.internal.MonthlyTrainingAggregate(
+                t.userId, t.activityType, count(t), sum(t.distance), sum((t.endTime - t.startTime) by second))
+            from Training t
+            where t.userId between :fromUserId and :toUserId
+              and t.startTime >= :monthStart and t.startTime < :monthEnd
+            group by t.userId, t.activityType
+            """)
+    List<MonthlyTrainingAggregate> aggregateMonth(Long fromUserId, Long toUserId, Date monthStart, Date monthEnd);
+
+    @Query("select count(u) from User u where u.id > :afterUserId")
+    long countUsersAfter(Long afterUserId);
+
+}
@@ -0,0 +1,10 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+/**
+ * Monthly totals of the trainings of a single user and activity type.
+ */
+record MonthlyTrainingAggregate(Long userId, ActivityType activityType, long trainings, double distance, long durationSeconds) {
+
+}
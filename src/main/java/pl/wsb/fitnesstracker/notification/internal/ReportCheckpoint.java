@@ -0,0 +1,37 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Progress of a report run: all users up to {@link #lastUserId} (in ID order) have been processed.
+ */
+@Entity
+@Table(name = "report_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+class ReportCheckpoint {
+
+    /**
+     * Key of the report run, e.g. {@code monthly-2024-01}.
+     */
+    @Id
+    @Column(name = "report_key", length = 64)
+    private String reportKey;
+
+    @Column(name = "last_user_id")
+    private Long lastUserId;
+
+    @Column(name = "processed_users", nullable = false)
+    private long processedUsers;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    ReportCheckpoint(final String reportKey) {
+        this.reportKey = reportKey;
+    }
+
+}
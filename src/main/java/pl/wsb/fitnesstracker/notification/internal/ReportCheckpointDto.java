@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Progress of a report run.
+ *
+ * @param reportKey      key of the report run, e.g. {@code monthly-2024-01}
+ * @param lastUserId     ID of the last processed user, all users up to it (in ID order) have been sent their report
+ * @param processedUsers number of users processed so far
+ * @param completed      whether all users have been processed
+ */
+record ReportCheckpointDto(String reportKey, @Nullable Long lastUserId, long processedUsers, boolean completed) {
+
+}
@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import org.springframework.stereotype.Component;
+
+@Component
+class ReportCheckpointMapper {
+
+    ReportCheckpointDto toDto(ReportCheckpoint checkpoint) {
+        return new ReportCheckpointDto(checkpoint.getReportKey(),
+                checkpoint.getLastUserId(),
+                checkpoint.getProcessedUsers(),
+                checkpoint.isCompleted());
+    }
+
+}
@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import pl.wsb.fitnesstracker.exception.api.ConflictException;
+
+/**
+ * Exception indicating that a report run is already in progress, only one runs at a time.
+ */
+@SuppressWarnings("squid:S110")
+class ReportInProgressException extends ConflictException {
+
+    ReportInProgressException() {
+        super("Monthly report is already running");
+    }
+
+}
@@ -13,4 +13,14 @@ public interface StatisticsProvider {
      */
     Optional<Statistics> getStatistics(Long statisticsId);
 
+    /**
+     * Retrieves the statistics of the user with given ID. Statistics are maintained incrementally on every training write,
+     * so this is a single row read.
+     * If the user has no trainings recorded yet, then {@link Optional#empty()} will be returned.
+     *
+     * @param userId id of the user
+     * @return An {@link Optional} containing the user's Statistics, or {@link Optional#empty()} if not found
+     */
+    Optional<Statistics> getStatisticsForUser(Long userId);
+
 }
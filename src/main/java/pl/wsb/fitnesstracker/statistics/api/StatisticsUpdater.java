@@ -0,0 +1,44 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.util.Collection;
+
+/**
+ * Interface (API) applying training writes to the users' {@link Statistics}.
+ * It has to be called within the transaction writing the trainings, so statistics are committed or rolled back together with them.
+ * An update of a training is applied as removal of its previous state and addition of the new one in a single write.
+ */
+public interface StatisticsUpdater {
+
+    /**
+     * Adds the training to the statistics of its user.
+     *
+     * @param training created training
+     */
+    void trainingAdded(Training training);
+
+    /**
+     * Adds the trainings to the statistics of their users, with a single update per user.
+     *
+     * @param trainings created trainings
+     */
+    void trainingsAdded(Collection<Training> trainings);
+
+    /**
+     * Subtracts the training from the statistics of its user. Must be called before the training is modified or deleted.
+     *
+     * @param training training in its current (persisted) state
+     */
+    void trainingRemoved(Training training);
+
+    /**
+     * Replaces the previous state of the training with the updated one in the statistics of their users,
+     * locking the statistics of both users at once when the training moved to another user.
+     *
+     * @param previous copy of the training in its persisted state, before the update
+     * @param updated  updated training
+     */
+    void trainingUpdated(Training previous, Training updated);
+
+}
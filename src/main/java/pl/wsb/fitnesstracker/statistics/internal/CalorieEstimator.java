@@ -0,0 +1,96 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static java.lang.Double.POSITIVE_INFINITY;
+
+/**
+ * Estimates the energy burned during a training as {@code MET * weight [kg] * duration [h]}, with the MET looked up
+ * in a speed-bucketed table of the activity type (values after the Compendium of Physical Activities).
+ * The speed is the training's average speed, or distance over duration if the average speed is not recorded.
+ * <p>
+ * The tables are built once, an estimation does not allocate, so it is used both per training write
+ * and for the bulk recomputation of the statistics.
+ */
+@Component
+class CalorieEstimator {
+
+    private static final double MILLIS_PER_HOUR = 3_600_000d;
+
+    private static final Map<ActivityType, MetTable> MET_TABLES = new EnumMap<>(ActivityType.class);
+
+    static {
+        MET_TABLES.put(ActivityType.RUNNING, new MetTable(8.0,
+                6.4, 6.0,
+                8.0, 8.3,
+                9.7, 9.8,
+                11.3, 11.0,
+                12.9, 11.8,
+                14.5, 12.8,
+                16.1, 14.5,
+                POSITIVE_INFINITY, 16.0));
+        MET_TABLES.put(ActivityType.CYCLING, new MetTable(7.5,
+                16.0, 4.0,
+                19.3, 6.8,
+                22.5, 8.0,
+                25.7, 10.0,
+                30.6, 12.0,
+                POSITIVE_INFINITY, 15.8));
+        MET_TABLES.put(ActivityType.WALKING, new MetTable(3.5,
+                3.2, 2.0,
+                4.0, 2.8,
+                4.8, 3.0,
+                5.6, 3.5,
+                6.4, 4.3,
+                7.2, 5.0,
+                POSITIVE_INFINITY, 7.0));
+        MET_TABLES.put(ActivityType.SWIMMING, new MetTable(6.0,
+                2.0, 5.8,
+                2.7, 8.3,
+                3.3, 9.8,
+                POSITIVE_INFINITY, 10.0));
+        MET_TABLES.put(ActivityType.TENNIS, new MetTable(7.3,
+                POSITIVE_INFINITY, 7.3));
+    }
+
+    private final double weightKg;
+
+    CalorieEstimator(CalorieProperties properties) {
+        this.weightKg = properties.getDefaultWeightKg();
+    }
+
+    /**
+     * Estimates the calories burned during the training, rounded to whole kilocalories.
+     *
+     * @param training training to be estimated
+     * @return burned kilocalories
+     */
+    int estimate(Training training) {
+        return estimate(training.getActivityType(), training.getAverageSpeed(), training.getDistance(),
+                training.getEndTime().getTime() - training.getStartTime().getTime());
+    }
+
+    /**
+     * Estimates the calories burned during a training given by its attributes, rounded to whole kilocalories.
+     *
+     * @param activityType   type of the activity
+     * @param averageSpeed   average speed in km/h, not positive if unknown
+     * @param distance       distance in km
+     * @param durationMillis duration of the training in milliseconds
+     * @return burned kilocalories, {@code 0} for a non-positive duration
+     */
+    int estimate(ActivityType activityType, double averageSpeed, double distance, long durationMillis) {
+        if (durationMillis <= 0) {
+            return 0;
+        }
+        double hours = durationMillis / MILLIS_PER_HOUR;
+        double speed = averageSpeed > 0 ? averageSpeed : distance / hours;
+        return (int) Math.round(MET_TABLES.get(activityType).met(speed) * weightKg * hours);
+    }
+
+}
@@ -0,0 +1,23 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the {@link CalorieEstimator}.
+ */
+@ConfigurationProperties(prefix = "statistics.calories")
+@Getter
+class CalorieProperties {
+
+    /**
+     * Body weight used for the estimation, users do not record their weight.
+     */
+    private final double defaultWeightKg;
+
+    CalorieProperties(@DefaultValue("70") double defaultWeightKg) {
+        this.defaultWeightKg = defaultWeightKg;
+    }
+
+}
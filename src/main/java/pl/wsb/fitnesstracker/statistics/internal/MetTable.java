@@ -0,0 +1,55 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import java.util.Arrays;
+
+/**
+ * Metabolic equivalents (MET) of an activity bucketed by speed. Buckets are scanned linearly, the tables are a handful
+ * of entries long, so this is cheaper than a binary search and does not allocate.
+ */
+final class MetTable {
+
+    private final double[] speedUpperBounds;
+
+    private final double[] mets;
+
+    private final double unknownSpeedMet;
+
+    /**
+     * @param unknownSpeedMet MET used when the speed is not known
+     * @param bucketsAndMets  pairs of the exclusive upper speed bound (km/h) of a bucket and its MET, in ascending order,
+     *                        the last pair's bound is usually {@link Double#POSITIVE_INFINITY}
+     */
+    MetTable(double unknownSpeedMet, double... bucketsAndMets) {
+        if (bucketsAndMets.length == 0 || bucketsAndMets.length % 2 != 0) {
+            throw new IllegalArgumentException("MET table requires pairs of speed bound and MET, got " + Arrays.toString(bucketsAndMets));
+        }
+        this.unknownSpeedMet = unknownSpeedMet;
+        this.speedUpperBounds = new double[bucketsAndMets.length / 2];
+        this.mets = new double[bucketsAndMets.length / 2];
+        for (int i = 0; i < speedUpperBounds.length; i++) {
+            speedUpperBounds[i] = bucketsAndMets[2 * i];
+            mets[i] = bucketsAndMets[2 * i + 1];
+            if (i > 0 && speedUpperBounds[i] <= speedUpperBounds[i - 1]) {
+                throw new IllegalArgumentException("MET table speed bounds must be ascending, got " + Arrays.toString(bucketsAndMets));
+            }
+        }
+    }
+
+    /**
+     * @param speedKmh speed in km/h, not positive if unknown
+     * @return MET of the bucket the speed falls into, the last bucket for speeds above all bounds
+     */
+    double met(double speedKmh) {
+        if (!(speedKmh > 0)) {
+            return unknownSpeedMet;
+        }
+        int last = speedUpperBounds.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (speedKmh < speedUpperBounds[i]) {
+                return mets[i];
+            }
+        }
+        return mets[last];
+    }
+
+}
@@ -0,0 +1,35 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+
+@RestController
+@RequestMapping("/v1/statistics")
+@RequiredArgsConstructor
+class StatisticsController {
+
+    private final StatisticsServiceImpl statisticsService;
+
+    private final StatisticsReconciliationJob reconciliationJob;
+
+    /**
+     * Statistics of the user, a user without trainings gets zero totals.
+     */
+    @GetMapping("/user/{userId}")
+    public StatisticsDto getUserStatistics(@PathVariable Long userId) {
+        return statisticsService.getStatisticsForUser(userId)
+                .map(statistics -> toDto(userId, statistics))
+                .orElseGet(() -> new StatisticsDto(userId, 0, 0, 0));
+    }
+
+    @PostMapping("/reconciliation")
+    public StatisticsReconciliationReport reconcile(@RequestParam(defaultValue = "false") boolean repair) {
+        return reconciliationJob.reconcile(repair);
+    }
+
+    private static StatisticsDto toDto(Long userId, Statistics statistics) {
+        return new StatisticsDto(userId, statistics.getTotalTrainings(), statistics.getTotalDistance(), statistics.getTotalCaloriesBurned());
+    }
+
+}
@@ -0,0 +1,8 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+/**
+ * Statistics of a user not matching the totals recomputed from the trainings.
+ */
+record StatisticsDrift(Long userId, StatisticsTotals stored, StatisticsTotals expected) {
+
+}
@@ -0,0 +1,5 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+record StatisticsDto(Long userId, int totalTrainings, double totalDistance, int totalCaloriesBurned) {
+
+}
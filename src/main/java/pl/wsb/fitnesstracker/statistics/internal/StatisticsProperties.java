@@ -0,0 +1,44 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the {@link StatisticsReconciliationJob}.
+ */
+@ConfigurationProperties(prefix = "statistics.reconciliation")
+@Getter
+class StatisticsProperties {
+
+    /**
+     * Cron expression of the scheduled reconciliation, {@code -} disables it.
+     */
+    private final String cron;
+
+    /**
+     * Width of the user ID range recomputed by a single task.
+     */
+    private final int rangeSize;
+
+    /**
+     * Number of ranges recomputed in parallel.
+     */
+    private final int parallelism;
+
+    /**
+     * Whether drifted statistics are overwritten with the recomputed totals, otherwise the drift is only reported.
+     */
+    private final boolean repair;
+
+    StatisticsProperties(@DefaultValue("-") String cron,
+                         @DefaultValue("10000") int rangeSize,
+                         @DefaultValue("4") int parallelism,
+                         @DefaultValue("false") boolean repair) {
+        this.cron = cron;
+        this.rangeSize = rangeSize;
+        this.parallelism = parallelism;
+        this.repair = repair;
+    }
+
+}
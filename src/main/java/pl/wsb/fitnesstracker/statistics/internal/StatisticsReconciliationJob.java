@@ -0,0 +1,210 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes the {@link Statistics} of all users from their trainings and reports the ones that drifted from the
+ * incrementally maintained values (trainings written around the {@link pl.wsb.fitnesstracker.statistics.api.StatisticsUpdater},
+ * e.g. by SQL scripts).
+ * <p>
+ * The user ID space is split into ranges of {@link StatisticsProperties#getRangeSize()} IDs, recomputed in parallel,
+ * each streaming the trainings of the range once (calories are estimated per training by the {@link CalorieEstimator},
+ * exactly as on the writes) and reading the stored statistics with a single query.
+ * Trainings written during the run may show up as drift. The repair, off by default, overwrites the drifted statistics
+ * in one transaction per range: it locks their rows like the training writes do (see
+ * {@link StatisticsServiceImpl#lockOrInsert(List)}), then recomputes the totals of these users under the lock, so a training
+ * written concurrently is either counted by the recomputation or applied on top of the repaired totals, never lost.
+ */
+@Component
+@Slf4j
+class StatisticsReconciliationJob {
+
+    private static final int LOGGED_DRIFTS = 20;
+
+    /**
+     * Maximum number of user IDs bound to a single {@code IN} list of the repair queries.
+     */
+    private static final int REPAIR_BATCH_SIZE = 1000;
+
+    private final StatisticsRepository statisticsRepository;
+
+    private final CalorieEstimator calorieEstimator;
+
+    private final StatisticsServiceImpl statisticsService;
+
+    private final TransactionTemplate readTransaction;
+
+    private final TransactionTemplate writeTransaction;
+
+    private final StatisticsProperties properties;
+
+    StatisticsReconciliationJob(StatisticsRepository statisticsRepository,
+                                CalorieEstimator calorieEstimator,
+                                StatisticsServiceImpl statisticsService,
+                                PlatformTransactionManager transactionManager,
+                                StatisticsProperties properties) {
+        this.statisticsRepository = statisticsRepository;
+        this.calorieEstimator = calorieEstimator;
+        this.statisticsService = statisticsService;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @Scheduled(cron = "${statistics.reconciliation.cron:-}")
+    void scheduledReconciliation() {
+        reconcile(properties.isRepair());
+    }
+
+    /**
+     * Recomputes the statistics of all users.
+     *
+     * @param repair whether the drifted statistics should be overwritten with the recomputed totals
+     * @return report of the run
+     */
+    StatisticsReconciliationReport reconcile(boolean repair) {
+        long start = System.nanoTime();
+        Optional<Long> minUserId = statisticsRepository.findMinUserId();
+        Optional<Long> maxUserId = statisticsRepository.findMaxUserId();
+        if (minUserId.isEmpty() || maxUserId.isEmpty()) {
+            return new StatisticsReconciliationReport(0, List.of(), repair, 0);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism());
+        int usersChecked = 0;
+        List<StatisticsDrift> drifts = new ArrayList<>();
+        try {
+            List<Future<RangeResult>> results = new ArrayList<>();
+            for (long from = minUserId.get(); from <= maxUserId.get(); from += properties.getRangeSize()) {
+                long fromUserId = from;
+                long toUserId = Math.min(from + properties.getRangeSize() - 1, maxUserId.get());
+                results.add(executor.submit(() -> reconcileRange(fromUserId, toUserId, repair)));
+            }
+            for (Future<RangeResult> result : results) {
+                usersChecked += result.get().usersChecked();
+                drifts.addAll(result.get().drifts());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statistics reconciliation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Statistics reconciliation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        drifts.sort(Comparator.comparing(StatisticsDrift::userId));
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        if (drifts.isEmpty()) {
+            log.info("Statistics of {} users reconciled in {} ms, no drift", usersChecked, durationMillis);
+        } else {
+            log.warn("Statistics of {} users reconciled in {} ms, {} drifted{}: {}", usersChecked, durationMillis, drifts.size(),
+                    repair ? " and were repaired" : "", drifts.subList(0, Math.min(LOGGED_DRIFTS, drifts.size())));
+        }
+        return new StatisticsReconciliationReport(usersChecked, List.copyOf(drifts), repair, durationMillis);
+    }
+
+    private RangeResult reconcileRange(long fromUserId, long toUserId, boolean repair) {
+        Map<Long, StatisticsTotals> expected = new HashMap<>();
+        Map<Long, StatisticsTotals> stored = new HashMap<>();
+        readTransaction.executeWithoutResult(status -> {
+            Map<Long, TotalsAccumulator> accumulators = new HashMap<>();
+            try (Stream<TrainingTotalsRow> trainings = statisticsRepository.streamTrainings(fromUserId, toUserId)) {
+                accumulate(accumulators, trainings);
+            }
+            expected.putAll(totals(accumulators));
+            stored.putAll(byUserId(statisticsRepository.findStoredTotals(fromUserId, toUserId)));
+        });
+
+        Set<Long> userIds = new HashSet<>(expected.keySet());
+        userIds.addAll(stored.keySet());
+        List<StatisticsDrift> drifts = new ArrayList<>();
+        for (Long userId : userIds) {
+            StatisticsTotals expectedTotals = expected.getOrDefault(userId, StatisticsTotals.empty(userId));
+            StatisticsTotals storedTotals = stored.getOrDefault(userId, StatisticsTotals.empty(userId));
+            if (!storedTotals.matches(expectedTotals)) {
+                drifts.add(new StatisticsDrift(userId, storedTotals, expectedTotals));
+            }
+        }
+        if (repair && !drifts.isEmpty()) {
+            writeTransaction.executeWithoutResult(status -> repair(drifts.stream().map(StatisticsDrift::userId).sorted().toList()));
+        }
+        return new RangeResult(userIds.size(), drifts);
+    }
+
+    /**
+     * Overwrites the statistics of the users with their totals recomputed under the row locks.
+     *
+     * @param userIds IDs of the users with drifted statistics, in ascending order
+     */
+    private void repair(List<Long> userIds) {
+        Map<Long, Statistics> statistics = statisticsService.lockOrInsert(userIds);
+        Map<Long, TotalsAccumulator> accumulators = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += REPAIR_BATCH_SIZE) {
+            try (Stream<TrainingTotalsRow> trainings = statisticsRepository.streamTrainingsOfUsers(
+                    userIds.subList(from, Math.min(from + REPAIR_BATCH_SIZE, userIds.size())))) {
+                accumulate(accumulators, trainings);
+            }
+        }
+        Map<Long, StatisticsTotals> totals = totals(accumulators);
+        statistics.forEach((userId, userStatistics) -> {
+            StatisticsTotals expected = totals.getOrDefault(userId, StatisticsTotals.empty(userId));
+            userStatistics.setTotalTrainings((int) expected.trainings());
+            userStatistics.setTotalDistance(expected.distance());
+            userStatistics.setTotalCaloriesBurned((int) expected.calories());
+        });
+    }
+
+    private void accumulate(Map<Long, TotalsAccumulator> accumulators, Stream<TrainingTotalsRow> trainings) {
+        trainings.forEach(training -> accumulators.computeIfAbsent(training.userId(), userId -> new TotalsAccumulator())
+                .add(training.distance(), calorieEstimator.estimate(training.activityType(), training.averageSpeed(), training.distance(),
+                        training.endTime().getTime() - training.startTime().getTime())));
+    }
+
+    private static Map<Long, StatisticsTotals> totals(Map<Long, TotalsAccumulator> accumulators) {
+        Map<Long, StatisticsTotals> totals = new HashMap<>(accumulators.size());
+        accumulators.forEach((userId, accumulator) -> totals.put(userId,
+                new StatisticsTotals(userId, accumulator.trainings, accumulator.distance, accumulator.calories)));
+        return totals;
+    }
+
+    private static Map<Long, StatisticsTotals> byUserId(List<StatisticsTotals> totals) {
+        return totals.stream().collect(Collectors.toMap(StatisticsTotals::userId, Function.identity()));
+    }
+
+    private static final class TotalsAccumulator {
+
+        private long trainings;
+
+        private double distance;
+
+        private long calories;
+
+        private void add(double distance, int calories) {
+            this.trainings++;
+            this.distance += distance;
+            this.calories += calories;
+        }
+
+    }
+
+    private record RangeResult(int usersChecked, List<StatisticsDrift> drifts) {
+
+    }
+
+}
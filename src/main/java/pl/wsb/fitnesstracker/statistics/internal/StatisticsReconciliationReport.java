@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import java.util.List;
+
+/**
+ * Result of a {@link StatisticsReconciliationJob} run.
+ *
+ * @param usersChecked   number of users having either statistics or trainings
+ * @param drifts         users whose statistics did not match their trainings
+ * @param repaired       whether the drifted statistics were repaired
+ * @param durationMillis duration of the run
+ */
+record StatisticsReconciliationReport(int usersChecked, List<StatisticsDrift> drifts, boolean repaired, long durationMillis) {
+
+}
@@ -0,0 +1,79 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+interface StatisticsRepository extends JpaRepository<Statistics, Long> {
+
+    /**
+     * Reads the statistics of the user. The result is kept in the query cache, invalidated by every write
+     * to the {@code statistics} table made through Hibernate, the statistics themselves are read from their cache region.
+     *
+     * @param userId ID of the user
+     * @return {@link Optional} containing the statistics of the user or {@link Optional#empty()} if the user has none
+     */
+    @Query("select s from Statistics s where s.user.id = :userId")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Optional<Statistics> findByUserId(Long userId);
+
+    /**
+     * Reads the statistics of the users, locking their rows until the end of the transaction in the order of the user IDs,
+     * so concurrent batches locking overlapping users cannot deadlock.
+     *
+     * @param userIds IDs of the users
+     * @return statistics of the users that have them, ordered by user ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Statistics s where s.user.id in :userIds order by s.user.id")
+    List<Statistics> findByUserIdsForUpdate(Collection<Long> userIds);
+
+    @Query("""
+            select new pl.wsb.fitnesstracker.statistics.internal.StatisticsTotals(s.user.id, s.totalTrainings, s.totalDistance, s.totalCaloriesBurned)
+            from Statistics s
+            where s.user.id between :fromUserId and :toUserId
+            """)
+    List<StatisticsTotals> findStoredTotals(Long fromUserId, Long toUserId);
+
+    /**
+     * Streams the attributes of the trainings of the users within the ID range the statistics are computed from.
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.statistics.internal.TrainingTotalsRow(t.userId, t.activityType, t.averageSpeed, t.distance, t.startTime, t.endTime)
+            from Training t
+            where t.userId between :fromUserId and :toUserId
+            """)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<TrainingTotalsRow> streamTrainings(Long fromUserId, Long toUserId);
+
+    /**
+     * Streams the attributes of the trainings of the given users the statistics are computed from.
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.statistics.internal.TrainingTotalsRow(t.userId, t.activityType, t.averageSpeed, t.distance, t.startTime, t.endTime)
+            from Training t
+            where t.userId in :userIds
+            """)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<TrainingTotalsRow> streamTrainingsOfUsers(Collection<Long> userIds);
+
+    @Query("select min(u.id) from User u")
+    Optional<Long> findMinUserId();
+
+    @Query("select max(u.id) from User u")
+    Optional<Long> findMaxUserId();
+
+}
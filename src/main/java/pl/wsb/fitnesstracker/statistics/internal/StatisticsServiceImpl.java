@@ -0,0 +1,216 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsUpdater;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Statistics are materialized aggregates of the users' trainings. Every training write, including an update moving
+ * a training between users, locks the statistics rows of its users with a single query (in the order of the user IDs,
+ * so overlapping writes cannot deadlock) in the writing transaction and applies its delta to the loaded entities,
+ * which are flushed as JDBC batches. The first training of a user inserts an empty row and locks it. Of two concurrent
+ * first trainings of the same user, the later insert waits for the earlier one and is rolled back to its savepoint,
+ * after which both lock and update the same row.
+ * <p>
+ * The deltas are applied to entities rather than with bulk {@code UPDATE ... SET x = x + ?} statements: a bulk statement
+ * would flush the persistence context every time and evict the whole {@link Statistics} second-level cache region,
+ * while an entity update only replaces the cached statistics of its user.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class StatisticsServiceImpl implements StatisticsProvider, StatisticsUpdater {
+
+    /**
+     * Maximum number of user IDs bound to a single {@code IN} list of the locking query.
+     */
+    private static final int LOCK_BATCH_SIZE = 1000;
+
+    private static final String INSERT_EMPTY_STATISTICS = """
+            insert into statistics (user_id, total_trainings, total_distance, total_calories_burned)
+            values (?, 0, 0, 0)""";
+
+    /**
+     * SQLSTATE of a unique constraint violation.
+     */
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final StatisticsRepository statisticsRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CalorieEstimator calorieEstimator;
+
+    @Override
+    public Optional<Statistics> getStatistics(final Long statisticsId) {
+        return statisticsRepository.findById(statisticsId);
+    }
+
+    @Override
+    public Optional<Statistics> getStatisticsForUser(final Long userId) {
+        return statisticsRepository.findByUserId(userId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void trainingAdded(final Training training) {
+        trainingsAdded(List.of(training));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void trainingsAdded(final Collection<Training> trainings) {
+        Map<Long, Delta> deltas = new TreeMap<>();
+        trainings.forEach(training -> add(deltas, training, 1));
+        apply(deltas);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void trainingRemoved(final Training training) {
+        Map<Long, Delta> deltas = new TreeMap<>();
+        add(deltas, training, -1);
+        apply(deltas);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void trainingUpdated(final Training previous, final Training updated) {
+        Map<Long, Delta> deltas = new TreeMap<>();
+        add(deltas, previous, -1);
+        add(deltas, updated, 1);
+        apply(deltas);
+    }
+
+    private void add(Map<Long, Delta> deltas, Training training, int sign) {
+        deltas.computeIfAbsent(training.getUser().getId(), userId -> new Delta())
+                .add(sign, training.getDistance(), calories(training));
+    }
+
+    /**
+     * Locks the statistics of the users and applies the deltas to them. Statistics missing for a user gaining trainings
+     * are inserted first, then locked as well.
+     *
+     * @param deltas deltas by user ID, in the order of the user IDs
+     */
+    private void apply(Map<Long, Delta> deltas) {
+        Map<Long, Statistics> statistics = lock(deltas.keySet());
+        List<Long> missing = deltas.entrySet().stream()
+                .filter(entry -> entry.getValue().trainings > 0 && !statistics.containsKey(entry.getKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!missing.isEmpty()) {
+            insertEmpty(missing);
+            statistics.putAll(lock(missing));
+        }
+        deltas.forEach((userId, delta) -> {
+            Statistics userStatistics = statistics.get(userId);
+            if (userStatistics == null) {
+                log.warn("User {} has no statistics to apply {} trainings to, left for the reconciliation", userId, delta.trainings);
+                return;
+            }
+            userStatistics.setTotalTrainings(userStatistics.getTotalTrainings() + delta.trainings);
+            userStatistics.setTotalDistance(userStatistics.getTotalDistance() + delta.distance);
+            userStatistics.setTotalCaloriesBurned(userStatistics.getTotalCaloriesBurned() + delta.calories);
+        });
+    }
+
+    /**
+     * Locks the statistics of the users the way the training writes do, inserting empty statistics for the users
+     * without them first, so their totals can be overwritten in the calling transaction without losing a concurrent
+     * training write: the write either committed before the lock or applies its delta after the caller commits.
+     *
+     * @param userIds IDs of existing users, in ascending order
+     * @return locked statistics by user ID
+     */
+    Map<Long, Statistics> lockOrInsert(List<Long> userIds) {
+        Map<Long, Statistics> statistics = lock(userIds);
+        List<Long> missing = userIds.stream()
+                .filter(userId -> !statistics.containsKey(userId))
+                .toList();
+        if (!missing.isEmpty()) {
+            insertEmpty(missing);
+            statistics.putAll(lock(missing));
+        }
+        return statistics;
+    }
+
+    private Map<Long, Statistics> lock(Collection<Long> userIds) {
+        Map<Long, Statistics> statistics = new HashMap<>(userIds.size());
+        List<Long> ids = List.copyOf(userIds);
+        for (int from = 0; from < ids.size(); from += LOCK_BATCH_SIZE) {
+            statisticsRepository.findByUserIdsForUpdate(ids.subList(from, Math.min(from + LOCK_BATCH_SIZE, ids.size())))
+                    .forEach(userStatistics -> statistics.put(userStatistics.getUser().getId(), userStatistics));
+        }
+        return statistics;
+    }
+
+    /**
+     * Inserts empty statistics of the users, each under its own savepoint. If a concurrent transaction inserted
+     * the statistics of a user first, the insert waits for it to commit, fails on the unique constraint and is rolled
+     * back to the savepoint, leaving the writing transaction intact.
+     *
+     * @param userIds IDs of the users, in ascending order
+     */
+    private void insertEmpty(List<Long> userIds) {
+        // the users may still be pending in the persistence context
+        statisticsRepository.flush();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_EMPTY_STATISTICS)) {
+                for (Long userId : userIds) {
+                    Savepoint savepoint = connection.setSavepoint();
+                    try {
+                        insert.setLong(1, userId);
+                        insert.executeUpdate();
+                        connection.releaseSavepoint(savepoint);
+                    } catch (SQLException e) {
+                        connection.rollback(savepoint);
+                        if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                            throw e;
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private int calories(Training training) {
+        return calorieEstimator.estimate(training);
+    }
+
+    private static final class Delta {
+
+        private int trainings;
+
+        private double distance;
+
+        private int calories;
+
+        private void add(int sign, double distance, int calories) {
+            this.trainings += sign;
+            this.distance += sign * distance;
+            this.calories += sign * calories;
+        }
+
+    }
+
+}
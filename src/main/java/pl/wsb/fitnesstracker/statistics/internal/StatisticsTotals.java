@@ -0,0 +1,18 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+/**
+ * Totals of a single user, either stored in the statistics or recomputed from the trainings.
+ */
+record StatisticsTotals(Long userId, long trainings, double distance, long calories) {
+
+    static StatisticsTotals empty(Long userId) {
+        return new StatisticsTotals(userId, 0, 0, 0);
+    }
+
+    boolean matches(StatisticsTotals other) {
+        return trainings == other.trainings
+                && calories == other.calories
+                && Math.abs(distance - other.distance) <= 1e-6 * Math.max(1, Math.abs(distance));
+    }
+
+}
@@ -0,0 +1,12 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.util.Date;
+
+/**
+ * Attributes of a training contributing to the statistics of its user.
+ */
+record TrainingTotalsRow(Long userId, ActivityType activityType, double averageSpeed, double distance, Date startTime, Date endTime) {
+
+}
@@ -1,30 +1,46 @@
 package pl.wsb.fitnesstracker.training.api;
 
 import jakarta.persistence.*;
-import lombok.AccessLevel;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.ToString;
+import lombok.*;
 import pl.wsb.fitnesstracker.training.internal.ActivityType;
 import pl.wsb.fitnesstracker.user.api.User;
 
 import java.util.Date;
 
 @Entity
-@Table(name = "trainings")
+@Table(name = "trainings",
+        indexes = {
+                @Index(name = "ix_trainings_user_start_time", columnList = "user_id, start_time"),
+                @Index(name = "ix_trainings_end_time", columnList = "end_time"),
+                @Index(name = "ix_trainings_activity_type_start_time", columnList = "activity_type, start_time")
+        })
 @Getter
+@Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
 public class Training {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trainings_seq")
+    @SequenceGenerator(name = "trainings_seq", sequenceName = "trainings_seq", allocationSize = 50)
+    @Setter(AccessLevel.NONE)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
     private User user;
 
+    /**
+     * Read-only mapping of the {@code user_id} foreign key, letting queries filter on the column itself
+     * (and its index) instead of on the joined {@code users} table.
+     */
+    @Column(name = "user_id", insertable = false, updatable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private Long userId;
+
     @Column(name = "start_time", nullable = false)
     private Date startTime;
 
@@ -55,4 +71,4 @@ public class Training {
         this.distance = distance;
         this.averageSpeed = averageSpeed;
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,55 @@
 package pl.wsb.fitnesstracker.training.api;
 
-import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Interface (API) for read operations on {@link Training} entities.
+ * Returned trainings have their {@link Training#getUser() user} already loaded.
+ */
 public interface TrainingProvider {
 
     /**
      * Retrieves a training based on their ID.
-     * If the user with given ID is not found, then {@link Optional#empty()} will be returned.
+     * If the training with given ID is not found, then {@link Optional#empty()} will be returned.
      *
      * @param trainingId id of the training to be searched
      * @return An {@link Optional} containing the located Training, or {@link Optional#empty()} if not found
      */
-    Optional<User> getTraining(Long trainingId);
+    Optional<Training> getTraining(Long trainingId);
+
+    /**
+     * Retrieves all trainings.
+     *
+     * @return list of all trainings
+     */
+    List<Training> findAllTrainings();
+
+    /**
+     * Retrieves all trainings of the user with given ID.
+     *
+     * @param userId id of the user
+     * @return list of the user's trainings ordered by start time
+     */
+    List<Training> findTrainingsByUserId(Long userId);
+
+    /**
+     * Retrieves all trainings finished after the given time.
+     *
+     * @param afterTime exclusive lower bound of the training end time
+     * @return list of trainings finished after the given time ordered by end time
+     */
+    List<Training> findTrainingsFinishedAfter(Date afterTime);
+
+    /**
+     * Retrieves all trainings of the given activity type.
+     *
+     * @param activityType activity type of the trainings
+     * @return list of trainings of the given activity type ordered by start time
+     */
+    List<Training> findTrainingsByActivityType(ActivityType activityType);
 
 }
@@ -0,0 +1,52 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import java.util.List;
+
+/**
+ * Interface (API) for modifying operations on {@link Training} entities through the API.
+ * Implementing classes are responsible for executing changes within a database transaction, whether by continuing an existing transaction or creating a new one if required.
+ */
+public interface TrainingService {
+
+    /**
+     * Creates a new training for the user with given ID.
+     *
+     * @param userId   id of the user owning the training
+     * @param training training to be created
+     * @return created training
+     * @throws pl.wsb.fitnesstracker.user.api.UserNotFoundException if the user with given ID does not exist
+     */
+    Training createTraining(Long userId, Training training);
+
+    /**
+     * Creates the trainings, each already associated with its user, in a single transaction.
+     * The trainings are inserted in JDBC batches and the statistics are updated once per user.
+     * Existence of the users is not verified, a missing one fails the whole call on the foreign key.
+     *
+     * @param trainings trainings to be created, associated with their users
+     *                  (e.g. by {@link pl.wsb.fitnesstracker.user.api.UserProvider#getUserReference(Long)})
+     * @return created trainings, in the order of the argument
+     */
+    List<Training> createTrainings(List<Training> trainings);
+
+    /**
+     * Updates the training with given ID with the attributes of the provided training.
+     *
+     * @param trainingId id of the training to be updated
+     * @param userId     id of the user owning the training
+     * @param training   training carrying the new attribute values
+     * @return updated training
+     * @throws TrainingNotFoundException                            if the training with given ID does not exist
+     * @throws pl.wsb.fitnesstracker.user.api.UserNotFoundException if the user with given ID does not exist
+     */
+    Training updateTraining(Long trainingId, Long userId, Training training);
+
+    /**
+     * Deletes the training with given ID.
+     *
+     * @param trainingId id of the training to be deleted
+     * @throws TrainingNotFoundException if the training with given ID does not exist
+     */
+    void deleteTraining(Long trainingId);
+
+}
@@ -0,0 +1,5 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+record ActivityDistanceDto(ActivityType activityType, long trainings, double distance) {
+
+}
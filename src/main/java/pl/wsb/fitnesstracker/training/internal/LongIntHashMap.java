@@ -0,0 +1,138 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import java.util.Arrays;
+
+/**
+ * Map of {@code long} keys to non-negative {@code int} values with open addressing (linear probing) over two primitive
+ * arrays, so an entry costs 12 bytes at full and 24 bytes at the lowest load instead of the ~80 bytes of a boxed
+ * {@code HashMap<Long, Integer>} entry. Removal shifts the following entries of the probe sequence back,
+ * so the table never accumulates deleted markers.
+ * <p>
+ * Not thread-safe, guarded by the lock of the {@link TrainingColumnStore}.
+ */
+final class LongIntHashMap {
+
+    /**
+     * Value returned for keys not in the map, also marking the free slots.
+     */
+    static final int MISSING = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int mask;
+
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    /**
+     * @return value of the key, {@link #MISSING} if the map does not contain it
+     */
+    int get(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            int value = values[slot];
+            if (value == MISSING || keys[slot] == key) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Maps the key to the value, replacing its previous value.
+     *
+     * @param value non-negative value
+     */
+    void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value has to be non-negative, was " + value);
+        }
+        int slot = slot(key);
+        while (values[slot] != MISSING) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) / 4 * 3) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes the key from the map.
+     *
+     * @return removed value of the key, {@link #MISSING} if the map did not contain it
+     */
+    int remove(long key) {
+        int slot = slot(key);
+        while (values[slot] != MISSING && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        int removed = values[slot];
+        if (removed == MISSING) {
+            return MISSING;
+        }
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != MISSING; next = (next + 1) & mask) {
+            // the entry may fill the gap if the gap lies on its probe sequence, between its home slot and its slot
+            if (((next - slot(keys[next])) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = MISSING;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != MISSING) {
+                int target = slot(oldKeys[slot]);
+                while (values[target] != MISSING) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+    }
+
+    private static int tableSize(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 4 * 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+}
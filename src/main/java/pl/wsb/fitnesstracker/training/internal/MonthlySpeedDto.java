@@ -0,0 +1,9 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.YearMonth;
+
+record MonthlySpeedDto(@JsonFormat(pattern = "yyyy-MM") YearMonth month, long trainings, double averageSpeed) {
+
+}
@@ -0,0 +1,55 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Aggregates over the trainings served by the {@link TrainingColumnStore}. The optional {@code from} and {@code to}
+ * dates limit the trainings by their start, {@code to} is exclusive.
+ */
+@RestController
+@RequestMapping("/v1/trainings/analytics")
+@RequiredArgsConstructor
+class TrainingAnalyticsController {
+
+    private static final int MAX_TOP_USERS = 100;
+
+    private final TrainingColumnStore columnStore;
+
+    @GetMapping("/activities")
+    public List<ActivityDistanceDto> getDistanceByActivity(@RequestParam(required = false) @Nullable @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                                                           @RequestParam(required = false) @Nullable @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+        return columnStore.distanceByActivity(fromMillis(from), toMillis(to));
+    }
+
+    @GetMapping("/months")
+    public List<MonthlySpeedDto> getAverageSpeedByMonth(@RequestParam(required = false) @Nullable @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                                                        @RequestParam(required = false) @Nullable @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+        return columnStore.averageSpeedByMonth(fromMillis(from), toMillis(to));
+    }
+
+    @GetMapping("/top-users")
+    public List<UserDistanceDto> getTopUsersByDistance(@RequestParam(required = false) @Nullable @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                                                       @RequestParam(required = false) @Nullable @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+                                                       @RequestParam(defaultValue = "10") int limit) {
+        return columnStore.topUsersByDistance(fromMillis(from), toMillis(to), Math.max(1, Math.min(limit, MAX_TOP_USERS)));
+    }
+
+    private static long fromMillis(@Nullable LocalDate from) {
+        return from == null ? Long.MIN_VALUE : from.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long toMillis(@Nullable LocalDate to) {
+        return to == null ? Long.MAX_VALUE : to.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+}
@@ -0,0 +1,19 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Training of the bulk ingestion request as read from the request body: either the training or, if it could not be
+ * read, the reason.
+ */
+record TrainingBatchItem(@Nullable TrainingRequestDto training, @Nullable String error) {
+
+    static TrainingBatchItem of(@Nullable TrainingRequestDto training) {
+        return training != null ? new TrainingBatchItem(training, null) : malformed("Training is missing");
+    }
+
+    static TrainingBatchItem malformed(String error) {
+        return new TrainingBatchItem(null, error);
+    }
+
+}
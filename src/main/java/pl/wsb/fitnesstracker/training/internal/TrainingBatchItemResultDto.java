@@ -0,0 +1,39 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.annotation.Nullable;
+
+/**
+ * Outcome of a single training of the bulk ingestion request, identified by its position in the request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record TrainingBatchItemResultDto(int index, Status status, @Nullable Long trainingId, @Nullable String error) {
+
+    static TrainingBatchItemResultDto created(int index, Long trainingId) {
+        return new TrainingBatchItemResultDto(index, Status.CREATED, trainingId, null);
+    }
+
+    static TrainingBatchItemResultDto rejected(int index, String error) {
+        return new TrainingBatchItemResultDto(index, Status.REJECTED, null, error);
+    }
+
+    static TrainingBatchItemResultDto failed(int index, String error) {
+        return new TrainingBatchItemResultDto(index, Status.FAILED, null, error);
+    }
+
+    enum Status {
+        /**
+         * The training was stored.
+         */
+        CREATED,
+        /**
+         * The training was malformed, invalid or referenced a missing user and was skipped.
+         */
+        REJECTED,
+        /**
+         * Storing the chunk containing the training failed.
+         */
+        FAILED
+    }
+
+}
@@ -0,0 +1,23 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the bulk training ingestion.
+ */
+@ConfigurationProperties(prefix = "training.batch")
+@Getter
+class TrainingBatchProperties {
+
+    /**
+     * Number of trainings inserted per transaction. Should be a multiple of {@code hibernate.jdbc.batch_size}.
+     */
+    private final int chunkSize;
+
+    TrainingBatchProperties(@DefaultValue("500") int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+}
@@ -0,0 +1,10 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import java.util.List;
+
+/**
+ * Response of the bulk training ingestion: counts and per-item results in request order.
+ */
+record TrainingBatchResultDto(int created, int rejected, int failed, List<TrainingBatchItemResultDto> items) {
+
+}
@@ -0,0 +1,159 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsUpdater;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk ingestion of trainings, e.g. uploaded by a wearable sync.
+ * <p>
+ * Trainings are consumed in chunks of {@link TrainingBatchProperties#getChunkSize()}. Per chunk the items are validated,
+ * items which could not be read from the request are rejected with the reason,
+ * the referenced users are resolved with a single query and the valid trainings are inserted in one transaction,
+ * together with a single statistics update per user,
+ * which Hibernate turns into JDBC batches (sequence based IDs, ordered inserts, {@code hibernate.jdbc.batch_size}).
+ * A chunk failing in the database does not affect the other chunks, all its items are reported as failed.
+ */
+@Service
+@Slf4j
+class TrainingBatchService {
+
+    private final TrainingRepository trainingRepository;
+
+    private final UserProvider userProvider;
+
+    private final TrainingMapper trainingMapper;
+
+    private final StatisticsUpdater statisticsUpdater;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    TrainingBatchService(TrainingRepository trainingRepository,
+                         UserProvider userProvider,
+                         TrainingMapper trainingMapper,
+                         StatisticsUpdater statisticsUpdater,
+                         Validator validator,
+                         PlatformTransactionManager transactionManager,
+                         TrainingBatchProperties properties) {
+        this.trainingRepository = trainingRepository;
+        this.userProvider = userProvider;
+        this.trainingMapper = trainingMapper;
+        this.statisticsUpdater = statisticsUpdater;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = properties.getChunkSize();
+    }
+
+    /**
+     * Creates all trainings provided by the iterator, which is consumed chunk by chunk.
+     *
+     * @param trainings trainings to be created, as read from the request
+     * @return per-item results in the iteration order
+     */
+    TrainingBatchResultDto createTrainings(Iterator<TrainingBatchItem> trainings) {
+        List<TrainingBatchItemResultDto> results = new ArrayList<>();
+        List<TrainingBatchItem> chunk = new ArrayList<>(chunkSize);
+        while (trainings.hasNext()) {
+            chunk.add(trainings.next());
+            if (chunk.size() == chunkSize) {
+                results.addAll(createChunk(results.size(), chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(createChunk(results.size(), chunk));
+        }
+        Map<TrainingBatchItemResultDto.Status, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(TrainingBatchItemResultDto::status, Collectors.counting()));
+        log.info("Bulk training ingestion finished: {}", counts);
+        return new TrainingBatchResultDto(
+                counts.getOrDefault(TrainingBatchItemResultDto.Status.CREATED, 0L).intValue(),
+                counts.getOrDefault(TrainingBatchItemResultDto.Status.REJECTED, 0L).intValue(),
+                counts.getOrDefault(TrainingBatchItemResultDto.Status.FAILED, 0L).intValue(),
+                results);
+    }
+
+    private List<TrainingBatchItemResultDto> createChunk(int firstIndex, List<TrainingBatchItem> chunk) {
+        TrainingBatchItemResultDto[] results = new TrainingBatchItemResultDto[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            TrainingRequestDto trainingDto = chunk.get(i).training();
+            if (trainingDto == null) {
+                results[i] = TrainingBatchItemResultDto.rejected(firstIndex + i, chunk.get(i).error());
+                continue;
+            }
+            Set<ConstraintViolation<TrainingRequestDto>> violations = validator.validate(trainingDto);
+            if (!violations.isEmpty()) {
+                results[i] = TrainingBatchItemResultDto.rejected(firstIndex + i, describe(violations));
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertValid(firstIndex, chunk, results));
+        } catch (RuntimeException e) {
+            log.warn("Inserting trainings {}-{} failed", firstIndex, firstIndex + chunk.size() - 1, e);
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null || results[i].status() == TrainingBatchItemResultDto.Status.CREATED) {
+                    results[i] = TrainingBatchItemResultDto.failed(firstIndex + i, e.getMessage());
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void insertValid(int firstIndex, List<TrainingBatchItem> chunk, TrainingBatchItemResultDto[] results) {
+        Set<Long> userIds = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (results[i] == null) {
+                userIds.add(chunk.get(i).training().userId());
+            }
+        }
+        Map<Long, User> users = userProvider.getUsers(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Training> trainings = new ArrayList<>(chunk.size());
+        int[] positions = new int[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            TrainingRequestDto trainingDto = chunk.get(i).training();
+            User user = users.get(trainingDto.userId());
+            if (user == null) {
+                results[i] = TrainingBatchItemResultDto.rejected(firstIndex + i, "User with ID=%s was not found".formatted(trainingDto.userId()));
+                continue;
+            }
+            Training training = trainingMapper.toEntity(trainingDto);
+            training.setUser(user);
+            positions[trainings.size()] = i;
+            trainings.add(training);
+        }
+        trainingRepository.saveAll(trainings);
+        statisticsUpdater.trainingsAdded(trainings);
+        trainingRepository.flush();
+        for (int i = 0; i < trainings.size(); i++) {
+            results[positions[i]] = TrainingBatchItemResultDto.created(firstIndex + positions[i], trainings.get(i).getId());
+        }
+    }
+
+    private static String describe(Set<ConstraintViolation<TrainingRequestDto>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+}
@@ -0,0 +1,476 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * In-memory columnar copy of the trainings serving aggregate queries without loading {@link pl.wsb.fitnesstracker.training.api.Training}
+ * entities. Every attribute is kept in its own primitive array, users are dictionary encoded into dense slots and
+ * the start month is precomputed, so a query is a tight loop over a few arrays accumulating into arrays indexed
+ * by the group. Row ranges of {@value #SCAN_CHUNK_ROWS} are scanned in parallel on the common fork-join pool
+ * and their partial aggregates merged.
+ * <p>
+ * The store is loaded on application startup and kept current by {@link TrainingStoreSynchronizer}. Changes committed
+ * while the trainings are streamed are buffered and replayed in the order they were committed once the stream ends,
+ * so a training deleted during the load does not come back with its streamed row. Until then the queries fail
+ * with {@link TrainingStoreLoadingException} rather than return partial aggregates.
+ * <p>
+ * Deleted rows are tombstoned and compacted once they make up a quarter of the store. Trainings and users are mapped
+ * to their rows and slots by {@link LongIntHashMap}s, adding a few bytes per training to the columns.
+ * Time ranges are closed-open intervals of the training start time, months are in the default time zone.
+ */
+@Component
+@Slf4j
+class TrainingColumnStore {
+
+    static final int SCAN_CHUNK_ROWS = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final byte DELETED = -1;
+
+    private static final ActivityType[] ACTIVITY_TYPES = ActivityType.values();
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final TrainingRepository trainingRepository;
+
+    private final TransactionTemplate readTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongIntHashMap rowsById = new LongIntHashMap(INITIAL_CAPACITY);
+
+    private final LongIntHashMap userSlotsById = new LongIntHashMap(INITIAL_CAPACITY);
+
+    /**
+     * Changes committed while loading, replayed once the load completes.
+     */
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+
+    private boolean loading;
+
+    private boolean loaded;
+
+    private long[] slotUserIds = new long[INITIAL_CAPACITY];
+
+    private int size;
+
+    private int deletedRows;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    private int[] userSlots = new int[INITIAL_CAPACITY];
+
+    private long[] startTimes = new long[INITIAL_CAPACITY];
+
+    private long[] endTimes = new long[INITIAL_CAPACITY];
+
+    private int[] startMonths = new int[INITIAL_CAPACITY];
+
+    private byte[] activities = new byte[INITIAL_CAPACITY];
+
+    private double[] distances = new double[INITIAL_CAPACITY];
+
+    private double[] averageSpeeds = new double[INITIAL_CAPACITY];
+
+    private int minStartMonth = Integer.MAX_VALUE;
+
+    private int maxStartMonth = Integer.MIN_VALUE;
+
+    TrainingColumnStore(TrainingRepository trainingRepository, PlatformTransactionManager transactionManager) {
+        this.trainingRepository = trainingRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            loading = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        int streamed;
+        try {
+            streamed = readTransaction.execute(status -> {
+                int[] count = {0};
+                try (Stream<TrainingRow> rows = trainingRepository.streamRows()) {
+                    rows.forEach(row -> {
+                        lock.writeLock().lock();
+                        try {
+                            apply(row);
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                        count[0]++;
+                    });
+                }
+                return count[0];
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                // the store stays unavailable, buffering changes would only leak them
+                pendingChanges.clear();
+                loading = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            replayed = pendingChanges.size();
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges.clear();
+            loading = false;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} trainings into the column store and replayed {} concurrent changes in {} ms",
+                streamed, replayed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Adds the training to the store, replacing the previously stored state of the same training.
+     *
+     * @param training attributes of the training
+     */
+    void put(TrainingRow training) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                pendingChanges.add(() -> apply(training));
+            } else {
+                apply(training);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the training from the store.
+     *
+     * @param trainingId id of the training
+     */
+    void remove(Long trainingId) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                pendingChanges.add(() -> applyRemove(trainingId));
+            } else {
+                applyRemove(trainingId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of stored trainings
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size - deletedRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(TrainingRow training) {
+        int row = rowsById.get(training.id());
+        if (row == LongIntHashMap.MISSING) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowsById.put(training.id(), row);
+        }
+        int startMonth = epochMonth(training.startTime().getTime());
+        ids[row] = training.id();
+        userSlots[row] = userSlot(training.userId());
+        startTimes[row] = training.startTime().getTime();
+        endTimes[row] = training.endTime().getTime();
+        startMonths[row] = startMonth;
+        activities[row] = (byte) training.activityType().ordinal();
+        distances[row] = training.distance();
+        averageSpeeds[row] = training.averageSpeed();
+        minStartMonth = Math.min(minStartMonth, startMonth);
+        maxStartMonth = Math.max(maxStartMonth, startMonth);
+    }
+
+    private void applyRemove(long trainingId) {
+        int row = rowsById.remove(trainingId);
+        if (row != LongIntHashMap.MISSING) {
+            activities[row] = DELETED;
+            if (++deletedRows > Math.max(INITIAL_CAPACITY, size / 4)) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Sums the number and distance of the trainings by the activity type.
+     *
+     * @param fromMillis inclusive lower bound of the start time
+     * @param toMillis   exclusive upper bound of the start time
+     * @return aggregates of the activity types having trainings, in the order of {@link ActivityType}
+     * @throws TrainingStoreLoadingException if the trainings are still being loaded
+     */
+    List<ActivityDistanceDto> distanceByActivity(long fromMillis, long toMillis) {
+        Sums sums;
+        lock.readLock().lock();
+        try {
+            checkLoaded();
+            sums = scan(() -> new Sums(ACTIVITY_TYPES.length), (partial, from, to) -> {
+                long[] starts = startTimes;
+                byte[] activityColumn = activities;
+                double[] distanceColumn = distances;
+                long[] counts = partial.counts;
+                double[] values = partial.values;
+                for (int row = from; row < to; row++) {
+                    long start = starts[row];
+                    int activity = activityColumn[row];
+                    if (activity >= 0 && start >= fromMillis && start < toMillis) {
+                        counts[activity]++;
+                        values[activity] += distanceColumn[row];
+                    }
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<ActivityDistanceDto> result = new ArrayList<>(ACTIVITY_TYPES.length);
+        for (int activity = 0; activity < ACTIVITY_TYPES.length; activity++) {
+            if (sums.counts[activity] > 0) {
+                result.add(new ActivityDistanceDto(ACTIVITY_TYPES[activity], sums.counts[activity], sums.values[activity]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Averages the average speed of the trainings by the month they started in.
+     *
+     * @param fromMillis inclusive lower bound of the start time
+     * @param toMillis   exclusive upper bound of the start time
+     * @return averages of the months having trainings, ordered by month
+     * @throws TrainingStoreLoadingException if the trainings are still being loaded
+     */
+    List<MonthlySpeedDto> averageSpeedByMonth(long fromMillis, long toMillis) {
+        lock.readLock().lock();
+        try {
+            checkLoaded();
+            int firstMonth = minStartMonth;
+            int months = maxStartMonth >= minStartMonth ? maxStartMonth - minStartMonth + 1 : 0;
+            Sums sums = scan(() -> new Sums(months), (partial, from, to) -> {
+                long[] starts = startTimes;
+                int[] monthColumn = startMonths;
+                byte[] activityColumn = activities;
+                double[] speedColumn = averageSpeeds;
+                long[] counts = partial.counts;
+                double[] values = partial.values;
+                for (int row = from; row < to; row++) {
+                    long start = starts[row];
+                    if (activityColumn[row] >= 0 && start >= fromMillis && start < toMillis) {
+                        int month = monthColumn[row] - firstMonth;
+                        counts[month]++;
+                        values[month] += speedColumn[row];
+                    }
+                }
+            });
+            List<MonthlySpeedDto> result = new ArrayList<>();
+            for (int month = 0; month < months; month++) {
+                if (sums.counts[month] > 0) {
+                    int epochMonth = firstMonth + month;
+                    result.add(new MonthlySpeedDto(YearMonth.of(epochMonth / 12, epochMonth % 12 + 1),
+                            sums.counts[month], sums.values[month] / sums.counts[month]));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the users with the longest total distance of their trainings.
+     *
+     * @param fromMillis inclusive lower bound of the start time
+     * @param toMillis   exclusive upper bound of the start time
+     * @param limit      maximum number of returned users
+     * @return users ordered by the total distance descending, then by ID
+     * @throws TrainingStoreLoadingException if the trainings are still being loaded
+     */
+    List<UserDistanceDto> topUsersByDistance(long fromMillis, long toMillis, int limit) {
+        lock.readLock().lock();
+        try {
+            checkLoaded();
+            int users = userSlotsById.size();
+            Sums sums = scan(() -> new Sums(users), (partial, from, to) -> {
+                long[] starts = startTimes;
+                int[] userColumn = userSlots;
+                byte[] activityColumn = activities;
+                double[] distanceColumn = distances;
+                long[] counts = partial.counts;
+                double[] values = partial.values;
+                for (int row = from; row < to; row++) {
+                    long start = starts[row];
+                    if (activityColumn[row] >= 0 && start >= fromMillis && start < toMillis) {
+                        int user = userColumn[row];
+                        counts[user]++;
+                        values[user] += distanceColumn[row];
+                    }
+                }
+            });
+            long[] userIds = slotUserIds;
+            return IntStream.range(0, users)
+                    .filter(user -> sums.counts[user] > 0)
+                    .boxed()
+                    .sorted((left, right) -> {
+                        int byDistance = Double.compare(sums.values[right], sums.values[left]);
+                        return byDistance != 0 ? byDistance : Long.compare(userIds[left], userIds[right]);
+                    })
+                    .limit(limit)
+                    .map(user -> new UserDistanceDto(userIds[user], sums.counts[user], sums.values[user]))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scans the rows in parallel chunks, each accumulated into its own partial aggregate, and merges them.
+     * Runs under the read lock of the calling query, blocking writers for the duration of the scan.
+     */
+    private Sums scan(Supplier<Sums> partials, ChunkScanner scanner) {
+        int rows = size;
+        int chunks = (rows + SCAN_CHUNK_ROWS - 1) / SCAN_CHUNK_ROWS;
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    Sums partial = partials.get();
+                    scanner.scan(partial, chunk * SCAN_CHUNK_ROWS, Math.min(rows, (chunk + 1) * SCAN_CHUNK_ROWS));
+                    return partial;
+                })
+                .reduce(Sums::add)
+                .orElseGet(partials);
+    }
+
+    private void checkLoaded() {
+        if (!loaded) {
+            throw new TrainingStoreLoadingException();
+        }
+    }
+
+    private int userSlot(long userId) {
+        int slot = userSlotsById.get(userId);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = userSlotsById.size();
+            if (slot == slotUserIds.length) {
+                slotUserIds = Arrays.copyOf(slotUserIds, slot + (slot >> 1));
+            }
+            slotUserIds[slot] = userId;
+            userSlotsById.put(userId, slot);
+        }
+        return slot;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        userSlots = Arrays.copyOf(userSlots, newCapacity);
+        startTimes = Arrays.copyOf(startTimes, newCapacity);
+        endTimes = Arrays.copyOf(endTimes, newCapacity);
+        startMonths = Arrays.copyOf(startMonths, newCapacity);
+        activities = Arrays.copyOf(activities, newCapacity);
+        distances = Arrays.copyOf(distances, newCapacity);
+        averageSpeeds = Arrays.copyOf(averageSpeeds, newCapacity);
+    }
+
+    private void compact() {
+        int live = 0;
+        for (int row = 0; row < size; row++) {
+            if (activities[row] == DELETED) {
+                continue;
+            }
+            if (live != row) {
+                ids[live] = ids[row];
+                userSlots[live] = userSlots[row];
+                startTimes[live] = startTimes[row];
+                endTimes[live] = endTimes[row];
+                startMonths[live] = startMonths[row];
+                activities[live] = activities[row];
+                distances[live] = distances[row];
+                averageSpeeds[live] = averageSpeeds[row];
+                rowsById.put(ids[live], live);
+            }
+            live++;
+        }
+        log.debug("Compacted the column store from {} to {} rows", size, live);
+        size = live;
+        deletedRows = 0;
+    }
+
+    private static int epochMonth(long epochMillis) {
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), ZONE);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    @FunctionalInterface
+    private interface ChunkScanner {
+
+        void scan(Sums partial, int fromRow, int toRow);
+
+    }
+
+    /**
+     * Count and sum of a value per group, the group being the index.
+     */
+    private static final class Sums {
+
+        private final long[] counts;
+
+        private final double[] values;
+
+        private Sums(int groups) {
+            this.counts = new long[groups];
+            this.values = new double[groups];
+        }
+
+        private Sums add(Sums other) {
+            for (int group = 0; group < counts.length; group++) {
+                counts[group] += other.counts[group];
+                values[group] += other.values[group];
+            }
+            return this;
+        }
+
+    }
+
+}
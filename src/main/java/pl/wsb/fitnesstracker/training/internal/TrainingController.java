@@ -0,0 +1,145 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/trainings")
+@RequiredArgsConstructor
+class TrainingController {
+
+    private static final MediaType GZIP = new MediaType("application", "gzip");
+
+    private final TrainingServiceImpl trainingService;
+
+    private final TrainingMapper trainingMapper;
+
+    private final TrainingBatchService trainingBatchService;
+
+    private final ObjectMapper objectMapper;
+
+    private final UserProvider userProvider;
+
+    @GetMapping
+    public List<TrainingDto> getAllTrainings() {
+        return toDtos(trainingService.findAllTrainings());
+    }
+
+    /**
+     * Export of all trainings ordered by ID, streamed from the database cursor in constant memory.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTrainings(@RequestParam(defaultValue = "CSV") TrainingExportFormat format,
+                                                                 @RequestParam(defaultValue = "false") boolean gzip) {
+        return export(null, format, gzip, "trainings");
+    }
+
+    /**
+     * Export of the trainings of the user ordered by start time, streamed from the database cursor in constant memory.
+     */
+    @GetMapping("/export/user/{userId}")
+    public ResponseEntity<StreamingResponseBody> exportUserTrainings(@PathVariable Long userId,
+                                                                     @RequestParam(defaultValue = "CSV") TrainingExportFormat format,
+                                                                     @RequestParam(defaultValue = "false") boolean gzip) {
+        if (userProvider.getUser(userId).isEmpty()) {
+            throw new UserNotFoundException(userId);
+        }
+        return export(userId, format, gzip, "trainings-user-" + userId);
+    }
+
+    @GetMapping("/{userId}")
+    public List<TrainingDto> getTrainingsByUser(@PathVariable Long userId) {
+        return toDtos(trainingService.findTrainingsByUserId(userId));
+    }
+
+    @GetMapping("/finished/{afterTime}")
+    public List<TrainingDto> getTrainingsFinishedAfter(@PathVariable @DateTimeFormat(pattern = "yyyy-MM-dd") Date afterTime) {
+        return toDtos(trainingService.findTrainingsFinishedAfter(afterTime));
+    }
+
+    @GetMapping("/activityType")
+    public List<TrainingDto> getTrainingsByActivityType(@RequestParam ActivityType activityType) {
+        return toDtos(trainingService.findTrainingsByActivityType(activityType));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public TrainingDto addTraining(@RequestBody @Valid TrainingRequestDto trainingDto) {
+        Training training = trainingService.createTraining(trainingDto.userId(), trainingMapper.toEntity(trainingDto));
+        return trainingMapper.toDto(training);
+    }
+
+    /**
+     * Bulk ingestion of trainings sent as a JSON array.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public TrainingBatchResultDto addTrainings(@RequestBody List<TrainingRequestDto> trainingDtos) {
+        return trainingBatchService.createTrainings(trainingDtos.stream().map(TrainingBatchItem::of).iterator());
+    }
+
+    /**
+     * Bulk ingestion of trainings sent as newline delimited JSON, read from the request body while it is being processed.
+     * A malformed line is reported as a rejected item, the other lines are still ingested.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public TrainingBatchResultDto addTrainingsStream(HttpServletRequest request) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            return trainingBatchService.createTrainings(new TrainingNdjsonReader(reader, objectMapper.readerFor(TrainingRequestDto.class)));
+        }
+    }
+
+    @PutMapping("/{trainingId}")
+    public TrainingDto updateTraining(@PathVariable Long trainingId, @RequestBody @Valid TrainingRequestDto trainingDto) {
+        Training training = trainingService.updateTraining(trainingId, trainingDto.userId(), trainingMapper.toEntity(trainingDto));
+        return trainingMapper.toDto(training);
+    }
+
+    @DeleteMapping("/{trainingId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteTraining(@PathVariable Long trainingId) {
+        trainingService.deleteTraining(trainingId);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(@Nullable Long userId, TrainingExportFormat format, boolean gzip, String fileName) {
+        StreamingResponseBody body = outputStream -> {
+            TrainingExportWriter writer = new TrainingExportWriter(format, outputStream, gzip);
+            trainingService.streamTrainings(userId, writer::write);
+            writer.finish();
+        };
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(fileName + "." + format.getExtension() + (gzip ? ".gz" : ""))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    private List<TrainingDto> toDtos(List<Training> trainings) {
+        return trainings.stream()
+                .map(trainingMapper::toDto)
+                .toList();
+    }
+
+}
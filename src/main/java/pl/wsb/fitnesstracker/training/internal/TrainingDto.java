@@ -0,0 +1,13 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import pl.wsb.fitnesstracker.user.api.UserDto;
+
+import java.util.Date;
+
+/**
+ * Training returned by the API, together with its user.
+ */
+record TrainingDto(Long id, UserDto user, Date startTime, Date endTime, ActivityType activityType,
+                   double distance, double averageSpeed) {
+
+}
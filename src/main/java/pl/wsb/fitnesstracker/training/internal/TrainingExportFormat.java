@@ -0,0 +1,30 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formats of the training export.
+ */
+enum TrainingExportFormat {
+
+    CSV(new MediaType("text", "csv"), "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+    private final MediaType mediaType;
+
+    private final String extension;
+
+    TrainingExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    MediaType getMediaType() {
+        return mediaType;
+    }
+
+    String getExtension() {
+        return extension;
+    }
+
+}
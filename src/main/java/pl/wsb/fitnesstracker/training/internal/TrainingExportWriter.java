@@ -0,0 +1,136 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes exported trainings, one line per training, into a fixed size byte buffer that is handed over to the
+ * response stream whenever it fills up. Memory usage does not depend on the number of exported trainings.
+ * All written values are ASCII (numbers, enum names and ISO-8601 instants), so characters are copied
+ * into the buffer without an encoder and no value needs quoting or escaping.
+ */
+final class TrainingExportWriter {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CSV_HEADER = "id,userId,startTime,endTime,activityType,distance,averageSpeed\n";
+
+    private final TrainingExportFormat format;
+
+    private final OutputStream out;
+
+    private final GZIPOutputStream gzip;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private final StringBuilder scratch = new StringBuilder(32);
+
+    private int position;
+
+    private long written;
+
+    /**
+     * @param format format of the export
+     * @param out    stream the export is written to, not closed by the writer
+     * @param gzip   whether the export is gzip compressed
+     */
+    TrainingExportWriter(TrainingExportFormat format, OutputStream out, boolean gzip) throws IOException {
+        this.format = format;
+        this.gzip = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        this.out = gzip ? this.gzip : out;
+        if (format == TrainingExportFormat.CSV) {
+            append(CSV_HEADER);
+        }
+    }
+
+    /**
+     * Appends the training to the export.
+     *
+     * @param training exported training
+     * @throws UncheckedIOException if writing to the stream failed, e.g. the client disconnected
+     */
+    void write(TrainingRow training) {
+        if (format == TrainingExportFormat.CSV) {
+            append(training.id()).append(',')
+                    .append(training.userId()).append(',')
+                    .append(Instant.ofEpochMilli(training.startTime().getTime())).append(',')
+                    .append(Instant.ofEpochMilli(training.endTime().getTime())).append(',')
+                    .append(training.activityType().name()).append(',')
+                    .append(training.distance()).append(',')
+                    .append(training.averageSpeed()).append('\n');
+        } else {
+            append("{\"id\":").append(training.id())
+                    .append(",\"userId\":").append(training.userId())
+                    .append(",\"startTime\":\"").append(Instant.ofEpochMilli(training.startTime().getTime()))
+                    .append("\",\"endTime\":\"").append(Instant.ofEpochMilli(training.endTime().getTime()))
+                    .append("\",\"activityType\":\"").append(training.activityType().name())
+                    .append("\",\"distance\":").append(training.distance())
+                    .append(",\"averageSpeed\":").append(training.averageSpeed())
+                    .append("}\n");
+        }
+        written++;
+    }
+
+    /**
+     * Writes out the buffered rest of the export and completes the gzip stream.
+     *
+     * @return number of exported trainings
+     */
+    long finish() throws IOException {
+        drain();
+        if (gzip != null) {
+            gzip.finish();
+        }
+        out.flush();
+        return written;
+    }
+
+    private TrainingExportWriter append(long value) {
+        scratch.setLength(0);
+        return append(scratch.append(value));
+    }
+
+    private TrainingExportWriter append(double value) {
+        scratch.setLength(0);
+        return append(scratch.append(value));
+    }
+
+    private TrainingExportWriter append(Instant value) {
+        scratch.setLength(0);
+        DateTimeFormatter.ISO_INSTANT.formatTo(value, scratch);
+        return append(scratch);
+    }
+
+    private TrainingExportWriter append(char value) {
+        if (position == buffer.length) {
+            drainUnchecked();
+        }
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    private TrainingExportWriter append(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            append(value.charAt(i));
+        }
+        return this;
+    }
+
+    private void drainUnchecked() {
+        try {
+            drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+
+}
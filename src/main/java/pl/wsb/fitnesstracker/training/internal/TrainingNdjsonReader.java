@@ -0,0 +1,63 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads trainings sent as newline delimited JSON line by line, so a malformed line only rejects its own training
+ * instead of failing the rest of the stream. Blank lines are skipped.
+ */
+class TrainingNdjsonReader implements Iterator<TrainingBatchItem> {
+
+    private final BufferedReader reader;
+
+    private final ObjectReader objectReader;
+
+    @Nullable
+    private String nextLine;
+
+    TrainingNdjsonReader(BufferedReader reader, ObjectReader objectReader) {
+        this.reader = reader;
+        this.objectReader = objectReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (nextLine == null) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+                if (!line.isBlank()) {
+                    nextLine = line;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public TrainingBatchItem next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        nextLine = null;
+        try {
+            return TrainingBatchItem.of(objectReader.readValue(line));
+        } catch (JsonProcessingException e) {
+            return TrainingBatchItem.malformed("Malformed training: " + e.getOriginalMessage());
+        }
+    }
+
+}
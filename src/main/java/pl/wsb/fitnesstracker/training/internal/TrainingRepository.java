@@ -1,8 +1,117 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import pl.wsb.fitnesstracker.training.api.Training;
 
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Repository of {@link Training} entities.
+ * Read queries declare an entity graph fetching {@link Training#getUser()} in the same statement (join fetch),
+ * so listing trainings does not issue an additional select per user.
+ * Filters and their ordering match the composite indexes declared on {@link Training}, so each of them is an index range scan.
+ * Results of the filter by user are kept in the query cache, which is invalidated by every write to the {@code trainings}
+ * table made through Hibernate. The filter by activity type is not cached, its results grow with the whole table.
+ */
 interface TrainingRepository extends JpaRepository<Training, Long> {
 
+    /**
+     * Query reading the training with given ID together with its user.
+     *
+     * @param trainingId id of the training
+     * @return {@link Optional} containing found training or {@link Optional#empty()} if none matched
+     */
+    @EntityGraph(attributePaths = "user")
+    Optional<Training> findWithUserById(Long trainingId);
+
+    /**
+     * Query reading all trainings together with their users.
+     *
+     * @return all trainings
+     */
+    @EntityGraph(attributePaths = "user")
+    @Override
+    List<Training> findAll();
+
+    /**
+     * Query reading trainings of the user with given ID, served by the {@code (user_id, start_time)} index.
+     * The predicate is on the foreign key column itself, not on the joined {@code users} table, so the index can be used.
+     *
+     * @param userId id of the user
+     * @return trainings of the user ordered by start time
+     */
+    @Query("select t from Training t join fetch t.user where t.userId = :userId order by t.startTime")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Training> findByUserIdOrderByStartTime(Long userId);
+
+    /**
+     * Query reading trainings finished after the given time together with their users, served by the {@code (end_time)} index.
+     *
+     * @param afterTime exclusive lower bound of the training end time
+     * @return trainings finished after the given time ordered by end time
+     */
+    @EntityGraph(attributePaths = "user")
+    List<Training> findByEndTimeAfterOrderByEndTime(Date afterTime);
+
+    /**
+     * Query reading trainings of the given activity type together with their users,
+     * served by the {@code (activity_type, start_time)} index.
+     *
+     * @param activityType activity type of the trainings
+     * @return trainings of the given activity type ordered by start time
+     */
+    @EntityGraph(attributePaths = "user")
+    List<Training> findByActivityTypeOrderByStartTime(ActivityType activityType);
+
+    /**
+     * Query streaming the attributes of all trainings kept by the {@link TrainingColumnStore}, without loading
+     * {@link Training} entities. The returned {@link Stream} has to be consumed and closed within a transaction.
+     *
+     * @return stream of all trainings
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.training.internal.TrainingRow(t.id, t.userId, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t""")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<TrainingRow> streamRows();
+
+    /**
+     * Query streaming all trainings ordered by ID from a forward-only JDBC cursor, projected into {@link TrainingRow}.
+     * The returned {@link Stream} has to be consumed and closed within a transaction.
+     *
+     * @return stream of all trainings
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.training.internal.TrainingRow(t.id, t.userId, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t
+            order by t.id""")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<TrainingRow> streamAllOrderById();
+
+    /**
+     * Query streaming trainings of the user with given ID ordered by start time from a forward-only JDBC cursor,
+     * served by the {@code (user_id, start_time)} index. The returned {@link Stream} has to be consumed and closed within a transaction.
+     *
+     * @param userId ID of the user
+     * @return stream of trainings of the user
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.training.internal.TrainingRow(t.id, t.userId, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t
+            where t.userId = :userId
+            order by t.startTime""")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<TrainingRow> streamByUserIdOrderByStartTime(Long userId);
+
 }
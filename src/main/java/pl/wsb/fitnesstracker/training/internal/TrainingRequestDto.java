@@ -0,0 +1,26 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.Date;
+
+/**
+ * Training sent to the API to create or update a training, referencing its user by ID.
+ */
+record TrainingRequestDto(@NotNull Long userId,
+                          @NotNull Date startTime,
+                          @NotNull Date endTime,
+                          @NotNull ActivityType activityType,
+                          @PositiveOrZero double distance,
+                          @PositiveOrZero double averageSpeed) {
+
+    @JsonIgnore
+    @AssertTrue(message = "endTime must not be before startTime")
+    boolean isTimeRangeValid() {
+        return startTime == null || endTime == null || !endTime.before(startTime);
+    }
+
+}
@@ -0,0 +1,11 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import java.util.Date;
+
+/**
+ * Attributes of a training kept by the {@link TrainingColumnStore}.
+ */
+record TrainingRow(Long id, Long userId, Date startTime, Date endTime, ActivityType activityType,
+                   double distance, double averageSpeed) {
+
+}
@@ -1,17 +1,143 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import jakarta.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsUpdater;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingNotFoundException;
 import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingService;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-// TODO: Provide Implementation and correct the return type of the method getTraining
-public class TrainingServiceImpl implements TrainingProvider {
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class TrainingServiceImpl implements TrainingProvider, TrainingService {
+
+    private final TrainingRepository trainingRepository;
+
+    private final UserProvider userProvider;
+
+    private final StatisticsUpdater statisticsUpdater;
+
+    @Override
+    public Optional<Training> getTraining(final Long trainingId) {
+        return trainingRepository.findWithUserById(trainingId);
+    }
+
+    @Override
+    public List<Training> findAllTrainings() {
+        return trainingRepository.findAll();
+    }
+
+    @Override
+    public List<Training> findTrainingsByUserId(final Long userId) {
+        return trainingRepository.findByUserIdOrderByStartTime(userId);
+    }
+
+    @Override
+    public List<Training> findTrainingsFinishedAfter(final Date afterTime) {
+        return trainingRepository.findByEndTimeAfterOrderByEndTime(afterTime);
+    }
 
     @Override
-    public Optional<User> getTraining(final Long trainingId) {
-        throw new UnsupportedOperationException("Not finished yet");
+    public List<Training> findTrainingsByActivityType(final ActivityType activityType) {
+        return trainingRepository.findByActivityTypeOrderByStartTime(activityType);
     }
 
+    @Override
+    @Transactional
+    public Training createTraining(final Long userId, final Training training) {
+        log.info("Creating Training {} for User {}", training, userId);
+        if (training.getId() != null) {
+            throw new IllegalArgumentException("Training has already DB ID, update is not permitted!");
+        }
+        training.setUser(findUser(userId));
+        Training created = trainingRepository.save(training);
+        statisticsUpdater.trainingAdded(created);
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public List<Training> createTrainings(final List<Training> trainings) {
+        log.debug("Creating {} Trainings", trainings.size());
+        if (trainings.stream().anyMatch(training -> training.getId() != null)) {
+            throw new IllegalArgumentException("Training has already DB ID, update is not permitted!");
+        }
+        // Statistics first, while the persistence context is still small: their queries flush it,
+        // dirty checking all managed entities
+        statisticsUpdater.trainingsAdded(trainings);
+        List<Training> created = trainingRepository.saveAll(trainings);
+        trainingRepository.flush();
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public Training updateTraining(final Long trainingId, final Long userId, final Training training) {
+        log.info("Updating Training {} with {}", trainingId, training);
+        Training existing = trainingRepository.findWithUserById(trainingId)
+                .orElseThrow(() -> new TrainingNotFoundException(trainingId));
+        Training previous = new Training(existing.getUser(), existing.getStartTime(), existing.getEndTime(),
+                existing.getActivityType(), existing.getDistance(), existing.getAverageSpeed());
+        if (!existing.getUser().getId().equals(userId)) {
+            existing.setUser(findUser(userId));
+        }
+        existing.setStartTime(training.getStartTime());
+        existing.setEndTime(training.getEndTime());
+        existing.setActivityType(training.getActivityType());
+        existing.setDistance(training.getDistance());
+        existing.setAverageSpeed(training.getAverageSpeed());
+        statisticsUpdater.trainingUpdated(previous, existing);
+        return existing;
+    }
+
+    @Override
+    @Transactional
+    public void deleteTraining(final Long trainingId) {
+        log.info("Deleting Training {}", trainingId);
+        Training existing = trainingRepository.findWithUserById(trainingId)
+                .orElseThrow(() -> new TrainingNotFoundException(trainingId));
+        statisticsUpdater.trainingRemoved(existing);
+        trainingRepository.delete(existing);
+    }
+
+    /**
+     * Passes the trainings, of the user with given ID or all of them, to the consumer as they are read from the database cursor.
+     *
+     * @param userId   ID of the user, {@code null} for trainings of all users ordered by ID
+     * @param consumer consumer of the trainings, ordered by start time for a single user
+     */
+    @Transactional(readOnly = true)
+    void streamTrainings(@Nullable final Long userId, final Consumer<TrainingRow> consumer) {
+        try (Stream<TrainingRow> trainings = userId == null
+                ? trainingRepository.streamAllOrderById()
+                : trainingRepository.streamByUserIdOrderByStartTime(userId)) {
+            trainings.forEach(consumer);
+        }
+    }
+
+    private User findUser(@Nullable final Long userId) {
+        if (userId == null) {
+            throw new BusinessException("Training has to belong to a user, userId is missing");
+        }
+        if (userProvider.getUser(userId).isEmpty()) {
+            throw new UserNotFoundException(userId);
+        }
+        return userProvider.getUserReference(userId);
+    }
 
 }
@@ -0,0 +1,18 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception indicating that the {@link TrainingColumnStore} is still loading the trainings, so its aggregates would
+ * be partial. The caller may retry later.
+ * Will resolve to the {@link HttpStatus#SERVICE_UNAVAILABLE} if handled by the Spring's exception handler.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+class TrainingStoreLoadingException extends RuntimeException {
+
+    TrainingStoreLoadingException() {
+        super("Training analytics are not available until the trainings are loaded");
+    }
+
+}
@@ -0,0 +1,82 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+/**
+ * Keeps the {@link TrainingColumnStore} in sync with every {@link Training} write flushed by Hibernate,
+ * whether it comes through the {@link pl.wsb.fitnesstracker.training.api.TrainingService}, the bulk ingestion
+ * or directly through a repository.
+ * <p>
+ * Changes are applied once the writing transaction commits, the store only ever reflects committed trainings.
+ * Bulk JPQL/SQL statements bypass the listener.
+ */
+@Component
+@RequiredArgsConstructor
+class TrainingStoreSynchronizer implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TrainingColumnStore columnStore;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Training training) {
+            TrainingRow row = row(training);
+            onCommit(event.getSession(), () -> columnStore.put(row));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Training training) {
+            TrainingRow row = row(training);
+            onCommit(event.getSession(), () -> columnStore.put(row));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Training training) {
+            Long trainingId = training.getId();
+            onCommit(event.getSession(), () -> columnStore.remove(trainingId));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static TrainingRow row(Training training) {
+        return new TrainingRow(training.getId(), training.getUser().getId(), training.getStartTime(), training.getEndTime(),
+                training.getActivityType(), training.getDistance(), training.getAverageSpeed());
+    }
+
+    private static void onCommit(EventSource session, Runnable change) {
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, ignored) -> {
+            if (success) {
+                change.run();
+            }
+        });
+    }
+
+}
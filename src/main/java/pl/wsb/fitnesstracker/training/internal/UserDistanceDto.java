@@ -0,0 +1,5 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+record UserDistanceDto(Long userId, long trainings, double distance) {
+
+}
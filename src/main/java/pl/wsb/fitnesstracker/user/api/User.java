@@ -5,34 +5,54 @@ import jakarta.persistence.*;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@Table(name = "users",
+        indexes = {
+                @Index(name = "ux_users_email_normalized", columnList = "email_normalized", unique = true),
+                @Index(name = "ix_users_birthdate", columnList = "birthdate")
+        })
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Nullable
     private Long id;
 
+    @Setter
     @Column(name = "first_name", nullable = false)
     private String firstName;
 
+    @Setter
     @Column(name = "last_name", nullable = false)
     private String lastName;
 
+    @Setter
     @Column(name = "birthdate", nullable = false)
     private LocalDate birthdate;
 
     @Column(nullable = false, unique = true)
     private String email;
 
+    /**
+     * Lower-cased, trimmed copy of the {@link #email}, backing the case-insensitive email index.
+     */
+    @Column(name = "email_normalized", nullable = false)
+    private String emailNormalized;
+
     public User(
             final String firstName,
             final String lastName,
@@ -43,6 +63,28 @@ public class User {
         this.lastName = lastName;
         this.birthdate = birthdate;
         this.email = email;
+        this.emailNormalized = normalizeEmail(email);
+    }
+
+    public void setEmail(final String email) {
+        this.email = email;
+        this.emailNormalized = normalizeEmail(email);
+    }
+
+    /**
+     * Normalizes the email address to the form stored in the case-insensitive email index.
+     *
+     * @param email email address to normalize
+     * @return trimmed, lower-cased email address
+     */
+    public static String normalizeEmail(final String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncNormalizedEmail() {
+        this.emailNormalized = normalizeEmail(email);
     }
 
 }
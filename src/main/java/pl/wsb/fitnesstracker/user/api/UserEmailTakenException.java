@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.user.api;
+
+import pl.wsb.fitnesstracker.exception.api.ConflictException;
+
+/**
+ * Exception indicating that the email is already used by another {@link User}, compared case-insensitively.
+ */
+@SuppressWarnings("squid:S110")
+public class UserEmailTakenException extends ConflictException {
+
+    public UserEmailTakenException(String email) {
+        super("User with email %s already exists".formatted(email));
+    }
+
+}
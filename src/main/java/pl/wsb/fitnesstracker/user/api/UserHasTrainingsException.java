@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.user.api;
+
+import pl.wsb.fitnesstracker.exception.api.ConflictException;
+
+/**
+ * Exception indicating that the {@link User} can not be deleted, as trainings still reference it.
+ */
+@SuppressWarnings("squid:S110")
+public class UserHasTrainingsException extends ConflictException {
+
+    public UserHasTrainingsException(Long userId) {
+        super("User with ID=%s has trainings, they have to be deleted first".formatted(userId));
+    }
+
+}
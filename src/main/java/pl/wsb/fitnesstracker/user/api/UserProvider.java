@@ -1,6 +1,10 @@
 package pl.wsb.fitnesstracker.user.api;
 
+import jakarta.annotation.Nullable;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserProvider {
@@ -8,20 +12,57 @@ public interface UserProvider {
     /**
      * Retrieves a user based on their ID.
      * If the user with given ID is not found, then {@link Optional#empty()} will be returned.
+     * The user is served from a cache invalidated by the writes through {@link UserService}.
      *
      * @param userId id of the user to be searched
-     * @return An {@link Optional} containing the located user, or {@link Optional#empty()} if not found
+     * @return An {@link Optional} containing the immutable snapshot of the located user, or {@link Optional#empty()} if not found
      */
-    Optional<User> getUser(Long userId);
+    Optional<UserDto> getUser(Long userId);
 
     /**
-     * Retrieves a user based on their email.
+     * Retrieves a user based on their email, matched case-insensitively.
      * If the user with given email is not found, then {@link Optional#empty()} will be returned.
+     * The user is served from a cache invalidated by the writes through {@link UserService}.
      *
      * @param email The email of the user to be searched
-     * @return An {@link Optional} containing the located user, or {@link Optional#empty()} if not found
+     * @return An {@link Optional} containing the immutable snapshot of the located user, or {@link Optional#empty()} if not found
+     */
+    Optional<UserDto> getUserByEmail(String email);
+
+    /**
+     * Returns a reference to the user with given ID for associating other entities with it, without loading it.
+     * Existence of the user is not verified, check it with {@link #getUser(Long)} first.
+     *
+     * @param userId id of the user
+     * @return lazily loaded reference to the user
+     */
+    User getUserReference(Long userId);
+
+    /**
+     * Resolves the IDs of the users with given emails with a single query, bypassing the cache.
+     * Emails without matching user are skipped.
+     *
+     * @param emails emails of the users, matched case-insensitively
+     * @return IDs of the located users keyed by the normalized email (see {@link User#normalizeEmail(String)})
+     */
+    Map<String, Long> getUserIdsByEmail(Collection<String> emails);
+
+    /**
+     * Retrieves users with given IDs with a single query. IDs without matching user are skipped.
+     *
+     * @param userIds ids of the users to be searched
+     * @return list of the located users
+     */
+    List<User> getUsers(Collection<Long> userIds);
+
+    /**
+     * Retrieves the page of users following the user with given ID, ordered by ID (keyset pagination).
+     *
+     * @param afterUserId ID of the last user of the previous page, {@code null} for the first page
+     * @param limit       maximum number of returned users
+     * @return page of users ordered by ID
      */
-    Optional<User> getUserByEmail(String email);
+    List<User> findUsersAfter(@Nullable Long afterUserId, int limit);
 
     /**
      * Retrieves all users.
@@ -1,11 +1,48 @@
 package pl.wsb.fitnesstracker.user.api;
 
+import java.util.List;
+
 /**
  * Interface (API) for modifying operations on {@link User} entities through the API.
  * Implementing classes are responsible for executing changes within a database transaction, whether by continuing an existing transaction or creating a new one if required.
  */
 public interface UserService {
 
+    /**
+     * Creates the user.
+     *
+     * @param user user to be created
+     * @return created user
+     * @throws UserEmailTakenException if another user has the same email, compared case-insensitively
+     */
     User createUser(User user);
 
+    /**
+     * Creates the users in a single transaction, inserted in JDBC batches.
+     *
+     * @param users users to be created
+     * @return created users, in the order of the argument
+     */
+    List<User> createUsers(List<User> users);
+
+    /**
+     * Updates the user with given ID with the attributes of the provided user.
+     *
+     * @param userId id of the user to be updated
+     * @param user   user carrying the new attribute values
+     * @return updated user
+     * @throws UserNotFoundException   if the user with given ID does not exist
+     * @throws UserEmailTakenException if another user has the new email, compared case-insensitively
+     */
+    User updateUser(Long userId, User user);
+
+    /**
+     * Deletes the user with given ID.
+     *
+     * @param userId id of the user to be deleted
+     * @throws UserNotFoundException     if the user with given ID does not exist
+     * @throws UserHasTrainingsException if the user has trainings
+     */
+    void deleteUser(Long userId);
+
 }
@@ -0,0 +1,25 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * {@link UserBirthdateSearch} executing a range scan over the index on the {@code birthdate} column.
+ */
+@Component
+@ConditionalOnProperty(name = "user.birthdate-search", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+class DatabaseBirthdateSearch implements UserBirthdateSearch {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public List<UserDto> findBornBefore(final LocalDate cutoff) {
+        return userRepository.findBornBefore(cutoff);
+    }
+
+}
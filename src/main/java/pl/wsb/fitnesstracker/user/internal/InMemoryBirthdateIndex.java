@@ -0,0 +1,267 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link UserBirthdateSearch} backed by an in-memory index of the users' birthdates.
+ * <p>
+ * Birthdates are kept as epoch days in sorted primitive arrays, with the user IDs in parallel arrays, split into
+ * segments of about {@value #SEGMENT_SIZE} users. The users born before a date are the segments before the one
+ * holding the date plus a prefix of that segment, found by binary searches. Readers work on an immutable snapshot
+ * of the segments. Writers merge all their changes into the segments they touch in one pass and publish a new
+ * snapshot sharing the other segments, so an update is never seen half applied and a write copies a segment
+ * instead of the whole index. Only the matching users are then read from the database by ID.
+ */
+@Component
+@ConditionalOnProperty(name = "user.birthdate-search", havingValue = "memory")
+@RequiredArgsConstructor
+@Slf4j
+class InMemoryBirthdateIndex implements UserBirthdateSearch, UserIndex {
+
+    /**
+     * Number of users of the segments built on load and by splitting, merges let a segment grow to twice that.
+     */
+    static final int SEGMENT_SIZE = 512;
+
+    private static final int ID_QUERY_CHUNK_SIZE = 1000;
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Long> epochDayByUserId = new HashMap<>();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @EventListener(ApplicationReadyEvent.class)
+    synchronized void load() {
+        List<IndexedUser> users = userRepository.findAllIndexed();
+        epochDayByUserId.clear();
+        snapshot = Snapshot.EMPTY;
+        putAll(users, List.of());
+        log.info("Indexed birthdates of {} users", epochDayByUserId.size());
+    }
+
+    @Override
+    public List<UserDto> findBornBefore(final LocalDate cutoff) {
+        long[] userIds = snapshot.userIdsBefore(cutoff.toEpochDay());
+        List<UserDto> result = new ArrayList<>(userIds.length);
+        for (int from = 0; from < userIds.length; from += ID_QUERY_CHUNK_SIZE) {
+            long[] chunk = Arrays.copyOfRange(userIds, from, Math.min(from + ID_QUERY_CHUNK_SIZE, userIds.length));
+            result.addAll(userRepository.findAllByIds(Arrays.stream(chunk).boxed().toList()));
+        }
+        result.sort((left, right) -> Long.compare(left.Id(), right.Id()));
+        return result;
+    }
+
+    @Override
+    public void put(final IndexedUser user) {
+        putAll(List.of(user), List.of());
+    }
+
+    @Override
+    public void remove(final Long userId) {
+        putAll(List.of(), List.of(userId));
+    }
+
+    @Override
+    public synchronized void putAll(final Collection<IndexedUser> users, final Collection<Long> removedUserIds) {
+        List<Entry> removed = new ArrayList<>();
+        List<Entry> added = new ArrayList<>();
+        for (Long userId : removedUserIds) {
+            Long epochDay = epochDayByUserId.remove(userId);
+            if (epochDay != null) {
+                removed.add(new Entry(epochDay, userId));
+            }
+        }
+        Map<Long, IndexedUser> latest = new LinkedHashMap<>();
+        users.forEach(user -> latest.put(user.id(), user));
+        for (IndexedUser user : latest.values()) {
+            long epochDay = user.birthdate().toEpochDay();
+            Long previous = epochDayByUserId.put(user.id(), epochDay);
+            if (previous == null || previous != epochDay) {
+                if (previous != null) {
+                    removed.add(new Entry(previous, user.id()));
+                }
+                added.add(new Entry(epochDay, user.id()));
+            }
+        }
+        if (!removed.isEmpty() || !added.isEmpty()) {
+            removed.sort(Comparator.naturalOrder());
+            added.sort(Comparator.naturalOrder());
+            snapshot = snapshot.merge(removed, added);
+        }
+    }
+
+    /**
+     * Birthdate of a user, ordered by the birthdate and then by the user ID.
+     */
+    private record Entry(long epochDay, long userId) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            return epochDay != other.epochDay ? Long.compare(epochDay, other.epochDay) : Long.compare(userId, other.userId);
+        }
+
+    }
+
+    /**
+     * Sorted run of the index, with the birthdates as epoch days and the user IDs in parallel arrays.
+     */
+    private record Segment(long[] epochDays, long[] userIds) {
+
+        int size() {
+            return epochDays.length;
+        }
+
+        Entry last() {
+            return new Entry(epochDays[size() - 1], userIds[size() - 1]);
+        }
+
+        /**
+         * @return index of the first birthdate not before the given epoch day
+         */
+        int lowerBound(long epochDay) {
+            int low = 0;
+            int high = epochDays.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (epochDays[middle] < epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Merges the sorted changes into the segment, splitting the result if it outgrew the segment size.
+         *
+         * @param result segments the merged segments are appended to, nothing is appended if the segment emptied
+         */
+        void merge(List<Entry> removed, List<Entry> added, List<Segment> result) {
+            int length = size() - removed.size() + added.size();
+            long[] mergedEpochDays = new long[length];
+            long[] mergedUserIds = new long[length];
+            int position = 0;
+            int nextRemoved = 0;
+            int nextAdded = 0;
+            for (int i = 0; i <= size(); i++) {
+                Entry entry = i < size() ? new Entry(epochDays[i], userIds[i]) : null;
+                while (nextAdded < added.size() && (entry == null || added.get(nextAdded).compareTo(entry) < 0)) {
+                    mergedEpochDays[position] = added.get(nextAdded).epochDay();
+                    mergedUserIds[position++] = added.get(nextAdded++).userId();
+                }
+                if (entry == null) {
+                    break;
+                }
+                if (nextRemoved < removed.size() && removed.get(nextRemoved).equals(entry)) {
+                    nextRemoved++;
+                } else {
+                    mergedEpochDays[position] = entry.epochDay();
+                    mergedUserIds[position++] = entry.userId();
+                }
+            }
+            int segments = length <= 2 * SEGMENT_SIZE ? 1 : length / SEGMENT_SIZE;
+            for (int segment = 0; segment < segments && length > 0; segment++) {
+                int from = segment * SEGMENT_SIZE;
+                int to = segment == segments - 1 ? length : from + SEGMENT_SIZE;
+                result.add(segments == 1
+                        ? new Segment(mergedEpochDays, mergedUserIds)
+                        : new Segment(Arrays.copyOfRange(mergedEpochDays, from, to), Arrays.copyOfRange(mergedUserIds, from, to)));
+            }
+        }
+
+    }
+
+    /**
+     * Immutable state of the index. Segments are ordered and non-empty, only the empty index has a single empty
+     * segment. An entry belongs to the first segment whose last entry is not before it, or to the last segment.
+     */
+    private record Snapshot(Segment[] segments) {
+
+        static final Snapshot EMPTY = new Snapshot(new Segment[]{new Segment(new long[0], new long[0])});
+
+        /**
+         * @return IDs of the users born before the given epoch day, ordered by the birthdate
+         */
+        long[] userIdsBefore(long epochDay) {
+            int low = 0;
+            int high = segments.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                Segment segment = segments[middle];
+                if (segment.epochDays()[segment.size() - 1] < epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int count = segments[low].lowerBound(epochDay);
+            for (int segment = 0; segment < low; segment++) {
+                count += segments[segment].size();
+            }
+            long[] result = new long[count];
+            int position = 0;
+            for (int segment = 0; position < count; segment++) {
+                int length = Math.min(segments[segment].size(), count - position);
+                System.arraycopy(segments[segment].userIds(), 0, result, position, length);
+                position += length;
+            }
+            return result;
+        }
+
+        /**
+         * @param removed sorted entries present in the index
+         * @param added   sorted entries absent from the index
+         * @return snapshot with the changes applied, sharing the segments without changes
+         */
+        Snapshot merge(List<Entry> removed, List<Entry> added) {
+            List<Segment> result = new ArrayList<>(segments.length + 1);
+            int removedFrom = 0;
+            int addedFrom = 0;
+            for (int index = 0; index < segments.length; index++) {
+                Segment segment = segments[index];
+                int removedTo = removed.size();
+                int addedTo = added.size();
+                if (index < segments.length - 1) {
+                    Entry last = segment.last();
+                    removedTo = upTo(removed, removedFrom, last);
+                    addedTo = upTo(added, addedFrom, last);
+                }
+                if (removedFrom == removedTo && addedFrom == addedTo) {
+                    result.add(segment);
+                } else {
+                    segment.merge(removed.subList(removedFrom, removedTo), added.subList(addedFrom, addedTo), result);
+                }
+                removedFrom = removedTo;
+                addedFrom = addedTo;
+            }
+            return result.isEmpty() ? EMPTY : new Snapshot(result.toArray(Segment[]::new));
+        }
+
+        private static int upTo(List<Entry> entries, int from, Entry last) {
+            int to = from;
+            while (to < entries.size() && entries.get(to).compareTo(last) <= 0) {
+                to++;
+            }
+            return to;
+        }
+
+    }
+
+}
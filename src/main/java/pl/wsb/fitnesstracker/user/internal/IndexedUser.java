@@ -0,0 +1,10 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import java.time.LocalDate;
+
+/**
+ * Snapshot of the user attributes kept by the in-memory {@link UserIndex user indexes}.
+ */
+record IndexedUser(Long id, String email, LocalDate birthdate) {
+
+}
@@ -0,0 +1,20 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Search of users by the birthdate range. The implementation is selected by the {@code user.birthdate-search} property:
+ * {@code database} (default) pushes the range predicate down to the database, {@code memory} uses {@link InMemoryBirthdateIndex}.
+ */
+interface UserBirthdateSearch {
+
+    /**
+     * Searches users born before the given date.
+     *
+     * @param cutoff exclusive upper bound of the birthdate
+     * @return users born before the cutoff, ordered by ID
+     */
+    List<UserDto> findBornBefore(LocalDate cutoff);
+
+}
@@ -0,0 +1,167 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserDto;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of immutable {@link UserDto} snapshots, keyed by user ID and by normalized email
+ * (see {@link User#normalizeEmail(String)}). The email key maps to the ID, so each user is cached once
+ * and evicting it by ID invalidates both lookups. Absent users are not cached.
+ * <p>
+ * A miss is loaded by the calling thread after registering the pending load as a future, which concurrent lookups of
+ * the key wait for. The database is not read while holding a lock of the cache's map, which would pin a virtual
+ * thread to its carrier and can deadlock once all carriers are pinned waiting for a lock held by an unmounted thread.
+ * <p>
+ * Writes through the {@link UserServiceImpl} evict the user explicitly. As a {@link UserIndex} the cache is also
+ * notified of the writes flushed directly through the repository, other writes are picked up on expiry.
+ * <p>
+ * Metrics are exported as the {@code cache.*} meters (hits, misses, evictions, size) tagged {@code cache=users}
+ * for the users by ID and {@code cache=users-by-email} for the resolution of emails to IDs.
+ */
+@Component
+class UserCache implements UserIndex {
+
+    static final String NAME = "users";
+
+    static final String EMAIL_NAME = "users-by-email";
+
+    private final AsyncCache<Long, UserDto> usersById;
+
+    private final AsyncCache<String, Long> userIdsByEmail;
+
+    UserCache(UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .buildAsync();
+        this.userIdsByEmail = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, userIdsByEmail, EMAIL_NAME);
+    }
+
+    /**
+     * Returns the cached user, loading and caching it on a miss.
+     *
+     * @param userId ID of the user
+     * @param loader loader of the user from the database
+     * @return snapshot of the user, or {@link Optional#empty()} if it does not exist
+     */
+    Optional<UserDto> get(Long userId, Function<Long, Optional<User>> loader) {
+        return Optional.ofNullable(getOrLoad(usersById, userId, id -> loader.apply(id).map(UserCache::snapshot).orElse(null)));
+    }
+
+    /**
+     * Returns the cached user with given email, loading and caching it on a miss.
+     * <p>
+     * The email is first resolved to the user ID, then the user is read through {@link #get(Long, Function)}, so
+     * concurrent lookups of the same user resolve and load it once. A resolved ID whose
+     * user no longer has the email is evicted and the email resolved once more.
+     *
+     * @param email      email of the user, matched case-insensitively
+     * @param idResolver resolver of the normalized email to the user ID from the database
+     * @param loader     loader of the user from the database
+     * @return snapshot of the user, or {@link Optional#empty()} if it does not exist
+     */
+    Optional<UserDto> getByEmail(String email, Function<String, Optional<Long>> idResolver, Function<Long, Optional<User>> loader) {
+        String emailNormalized = User.normalizeEmail(email);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long userId = getOrLoad(userIdsByEmail, emailNormalized, key -> idResolver.apply(key).orElse(null));
+            if (userId == null) {
+                return Optional.empty();
+            }
+            Optional<UserDto> user = get(userId, loader);
+            if (user.isPresent() && User.normalizeEmail(user.get().email()).equals(emailNormalized)) {
+                return user;
+            }
+            userIdsByEmail.synchronous().asMap().remove(emailNormalized, userId);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Evicts the user with given ID and the email lookup. Within a transaction the eviction is repeated
+     * after it completes, so a concurrent read cannot cache the state from before the commit.
+     *
+     * @param userId ID of the user
+     * @param email  email of the user, {@code null} if not known
+     */
+    void evict(@Nullable Long userId, @Nullable String email) {
+        doEvict(userId, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    doEvict(userId, email);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void put(IndexedUser user) {
+        doEvict(user.id(), null);
+    }
+
+    @Override
+    public void remove(Long userId) {
+        doEvict(userId, null);
+    }
+
+    private void doEvict(@Nullable Long userId, @Nullable String email) {
+        if (userId != null) {
+            usersById.synchronous().invalidate(userId);
+        }
+        if (email != null) {
+            userIdsByEmail.synchronous().invalidate(User.normalizeEmail(email));
+        }
+    }
+
+    /**
+     * Returns the cached value, loading it in the calling thread unless another thread is already loading it.
+     * A {@code null} or failed load is not cached.
+     */
+    @Nullable
+    private static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> value = cache.get(key, (ignored, executor) -> loading);
+        if (value == loading) {
+            try {
+                loading.complete(loader.apply(key));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static UserDto snapshot(User user) {
+        return new UserDto(user.getId(), user.getFirstName(), user.getLastName(), user.getBirthdate(), user.getEmail());
+    }
+
+}
@@ -0,0 +1,32 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link UserCache}.
+ */
+@ConfigurationProperties(prefix = "user.cache")
+@Getter
+class UserCacheProperties {
+
+    /**
+     * Maximum number of cached users, least recently used are evicted above it.
+     */
+    private final long maximumSize;
+
+    /**
+     * Time after which a cached user is reloaded, bounds staleness of writes bypassing the {@link UserServiceImpl}.
+     */
+    private final Duration expireAfterWrite;
+
+    UserCacheProperties(@DefaultValue("10000") long maximumSize,
+                        @DefaultValue("10m") Duration expireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+}
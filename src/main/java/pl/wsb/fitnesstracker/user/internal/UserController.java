@@ -1,8 +1,21 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -10,26 +23,108 @@ import java.util.List;
 @RequiredArgsConstructor
 class UserController {
 
+    private static final int MAX_SEARCH_LIMIT = 100;
+
+    private static final int MAX_PAGE_LIMIT = 1000;
+
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
     private final UserServiceImpl userService;
 
     private final UserMapper userMapper;
 
+    private final ObjectMapper objectMapper;
+
     @GetMapping
-    public List<UserDto> getAllUsers() {
+    public List<UserDto> getAllUsers(@RequestParam(required = false) @Nullable Long after) {
+        if (after != null) {
+            throw new BusinessException("Parameter after requires limit, or streaming the users as " + MediaType.APPLICATION_NDJSON_VALUE);
+        }
         return userService.findAllUsers()
                 .stream()
                 .map(userMapper::toDto)
                 .toList();
     }
 
-    @PostMapping
-    public UserDto addUser(@RequestBody UserDto userDto) throws InterruptedException {
+    @GetMapping("/simple")
+    public List<UserSummaryDto> getAllUserSummaries() {
+        return userService.findAllUserSummaries();
+    }
+
+    /**
+     * Keyset paginated variant of the user listing: returns up to {@code limit} users with ID greater than {@code after}.
+     * The ID of the last returned user is the {@code after} of the next page.
+     */
+    @GetMapping(params = "limit")
+    public List<UserDto> getUsersPage(@RequestParam(required = false) @Nullable Long after,
+                                      @RequestParam int limit) {
+        return userService.findUsersPage(after, Math.max(1, Math.min(limit, MAX_PAGE_LIMIT)));
+    }
+
+    /**
+     * Streaming variant of the user listing: writes users as newline delimited JSON while they are read
+     * from the database cursor, so neither memory usage nor time to first byte depend on the number of users.
+     * With {@code after}, only the users with greater ID are streamed, e.g. to resume an interrupted stream.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) @Nullable Long after) {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writerFor(UserDto.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                int[] written = {0};
+                userService.streamUsers(after, user -> {
+                    try {
+                        writer.write(user);
+                        if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 
-        // TODO: Implement the method to add a new user.
-        //  You can use the @RequestBody annotation to map the request body to the UserDto object.
+    @GetMapping("/email")
+    public List<UserEmailDto> searchUsersByEmail(@RequestParam String email,
+                                                 @RequestParam(required = false) @Nullable Long after,
+                                                 @RequestParam(defaultValue = "20") int limit) {
+        return userService.searchUsersByEmail(email, after, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)));
+    }
+
+    @GetMapping("/{userId}")
+    public UserDto getUser(@PathVariable Long userId) {
+        return userService.getUser(userId)
+                .map(userMapper::toDto)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+    }
+
+    @GetMapping("/older/{time}")
+    public List<UserDto> getUsersOlderThan(@PathVariable LocalDate time) {
+        return userService.findUsersBornBefore(time);
+    }
 
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public UserDto addUser(@RequestBody UserDto userDto) {
+        return userMapper.toDto(userService.createUser(userMapper.toEntity(userDto)));
+    }
+
+    @PutMapping("/{userId}")
+    public UserDto updateUser(@PathVariable Long userId, @RequestBody UserDto userDto) {
+        return userMapper.toDto(userService.updateUser(userId, userMapper.toEntity(userDto)));
+    }
 
-        return null;
+    @DeleteMapping("/{userId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteUser(@PathVariable Long userId) {
+        userService.deleteUser(userId);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+/**
+ * Projection of the user carrying only the ID and the email, returned by the email search and the lookup of IDs by email.
+ */
+record UserEmailDto(Long id, String email) {
+
+}
@@ -0,0 +1,138 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory trigram index over the users' emails, serving the case-insensitive fragment search
+ * without loading {@link User} entities.
+ * <p>
+ * Every trigram of the normalized email maps to the ordered set of IDs of users whose email contains it.
+ * A fragment of at least three characters is resolved by walking the smallest posting list of its trigrams
+ * and verifying the candidates, shorter fragments fall back to a scan of the indexed emails.
+ * Results are always ordered by user ID, so the last returned ID is the cursor of the next page.
+ * <p>
+ * The index is loaded on application startup and kept current by {@link UserIndexSynchronizer}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class UserEmailSearchIndex implements UserIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final UserRepository userRepository;
+
+    private final ConcurrentSkipListMap<Long, IndexedEmail> emails = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<Long>> grams = new ConcurrentHashMap<>();
+
+    /**
+     * Rebuilds the index from the database. Holding the lock of the writers while reading the users, changes committed
+     * meanwhile are applied after the load, so it never puts back the stale state of a user updated or removed since.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    synchronized void load() {
+        List<IndexedUser> users = userRepository.findAllIndexed();
+        emails.clear();
+        grams.clear();
+        users.forEach(this::put);
+        log.info("Indexed emails of {} users", users.size());
+    }
+
+    @Override
+    public synchronized void put(IndexedUser user) {
+        IndexedEmail indexed = new IndexedEmail(user.id(), user.email(), User.normalizeEmail(user.email()));
+        IndexedEmail previous = emails.put(user.id(), indexed);
+        if (previous != null) {
+            removeGrams(previous);
+        }
+        for (String gram : gramsOf(indexed.normalized())) {
+            grams.computeIfAbsent(gram, key -> new ConcurrentSkipListSet<>()).add(user.id());
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long userId) {
+        IndexedEmail previous = emails.remove(userId);
+        if (previous != null) {
+            removeGrams(previous);
+        }
+    }
+
+    /**
+     * Searches users whose email contains the given fragment, ignoring case.
+     *
+     * @param fragment fragment of the email
+     * @param after    ID of the last user of the previous page, or {@code null} for the first page
+     * @param limit    maximum number of returned users
+     * @return users ordered by ID
+     */
+    List<UserEmailDto> search(String fragment, @Nullable Long after, int limit) {
+        String normalized = User.normalizeEmail(fragment);
+        long cursor = after == null ? Long.MIN_VALUE : after;
+        List<UserEmailDto> result = new ArrayList<>(Math.min(limit, 64));
+        Collection<Long> candidates = normalized.length() < GRAM_LENGTH
+                ? emails.tailMap(cursor, false).keySet()
+                : smallestPostingList(normalized).tailSet(cursor, false);
+        for (Long userId : candidates) {
+            if (result.size() == limit) {
+                break;
+            }
+            IndexedEmail indexed = emails.get(userId);
+            if (indexed != null && indexed.normalized().contains(normalized)) {
+                result.add(new UserEmailDto(indexed.userId(), indexed.email()));
+            }
+        }
+        return result;
+    }
+
+    private NavigableSet<Long> smallestPostingList(String normalizedFragment) {
+        NavigableSet<Long> smallest = null;
+        for (String gram : gramsOf(normalizedFragment)) {
+            NavigableSet<Long> postings = grams.get(gram);
+            if (postings == null) {
+                return new ConcurrentSkipListSet<>();
+            }
+            if (smallest == null || postings.size() < smallest.size()) {
+                smallest = postings;
+            }
+        }
+        return smallest;
+    }
+
+    private void removeGrams(IndexedEmail indexed) {
+        for (String gram : gramsOf(indexed.normalized())) {
+            grams.computeIfPresent(gram, (key, postings) -> {
+                postings.remove(indexed.userId());
+                return postings.isEmpty() ? null : postings;
+            });
+        }
+    }
+
+    private static List<String> gramsOf(String value) {
+        List<String> result = new ArrayList<>(Math.max(value.length() - GRAM_LENGTH + 1, 0));
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            result.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return result;
+    }
+
+    private record IndexedEmail(Long userId, String email, String normalized) {
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import java.util.Collection;
+
+/**
+ * In-memory index over users, kept in sync with the database by {@link UserIndexSynchronizer}.
+ */
+interface UserIndex {
+
+    /**
+     * Adds the user to the index, replacing the previously indexed state of the same user.
+     *
+     * @param user indexed attributes of the user
+     */
+    void put(IndexedUser user);
+
+    /**
+     * Removes the user from the index.
+     *
+     * @param userId id of the user
+     */
+    void remove(Long userId);
+
+    /**
+     * Applies a batch of changes, by default one by one. Indexes whose single writes are expensive override it
+     * to apply the whole batch at once.
+     *
+     * @param users          indexed attributes of the added or updated users
+     * @param removedUserIds ids of the removed users, none of them among the users
+     */
+    default void putAll(Collection<IndexedUser> users, Collection<Long> removedUserIds) {
+        removedUserIds.forEach(this::remove);
+        users.forEach(this::put);
+    }
+
+}
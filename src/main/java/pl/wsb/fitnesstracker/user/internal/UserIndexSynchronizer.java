@@ -0,0 +1,122 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the in-memory user indexes in sync with every {@link User} write flushed by Hibernate,
+ * whether it comes through the {@link pl.wsb.fitnesstracker.user.api.UserService} or directly through a repository.
+ * <p>
+ * The writes flushed in a transaction are collected, keeping the last state of every user, and applied to
+ * the indexes as one batch once the transaction commits, so the indexes only ever reflect committed users
+ * and a rolled back transaction leaves them untouched. Bulk JPQL/SQL statements bypass the listener.
+ */
+@Component
+@RequiredArgsConstructor
+class UserIndexSynchronizer implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final List<UserIndex> indexes;
+
+    private final Map<EventSource, Changes> pendingChanges = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof User user) {
+            changes(event.getSession()).put(user.getId(), indexed(user));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof User user) {
+            changes(event.getSession()).put(user.getId(), indexed(user));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof User user) {
+            changes(event.getSession()).put(user.getId(), null);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * @return changes of the current transaction of the session, applied once it completes successfully
+     */
+    private Changes changes(EventSource session) {
+        return pendingChanges.computeIfAbsent(session, key -> {
+            Changes changes = new Changes();
+            key.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, ignored) -> {
+                pendingChanges.remove(key);
+                if (success) {
+                    changes.apply();
+                }
+            });
+            return changes;
+        });
+    }
+
+    private static IndexedUser indexed(User user) {
+        return new IndexedUser(user.getId(), user.getEmail(), user.getBirthdate());
+    }
+
+    /**
+     * Last state of the users written in a transaction, {@code null} for the deleted ones. Used only by the thread
+     * of the session.
+     */
+    private class Changes {
+
+        private final Map<Long, IndexedUser> users = new LinkedHashMap<>();
+
+        void put(Long userId, @Nullable IndexedUser user) {
+            users.put(userId, user);
+        }
+
+        void apply() {
+            List<IndexedUser> written = new ArrayList<>(users.size());
+            List<Long> removedUserIds = new ArrayList<>();
+            users.forEach((userId, user) -> {
+                if (user == null) {
+                    removedUserIds.add(userId);
+                } else {
+                    written.add(user);
+                }
+            });
+            indexes.forEach(index -> index.putAll(written, removedUserIds));
+        }
+
+    }
+
+}
@@ -14,6 +14,14 @@ class UserMapper {
                 user.getEmail());
     }
 
+    UserDto toDto(pl.wsb.fitnesstracker.user.api.UserDto user) {
+        return new UserDto(user.id(),
+                user.firstName(),
+                user.lastName(),
+                user.birthdate(),
+                user.email());
+    }
+
     User toEntity(UserDto userDto) {
         return new User(
                 userDto.firstName(),
@@ -1,23 +1,146 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import pl.wsb.fitnesstracker.user.api.User;
 
-import java.util.Objects;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 interface UserRepository extends JpaRepository<User, Long> {
 
     /**
-     * Query searching users by email address. It matches by exact match.
+     * Query searching users by email address. It matches by exact, case-insensitive match
+     * and is served by the unique index on the normalized email column.
      *
      * @param email email of the user to search
      * @return {@link Optional} containing found user or {@link Optional#empty()} if none matched
      */
     default Optional<User> findByEmail(String email) {
-        return findAll().stream()
-                .filter(user -> Objects.equals(user.getEmail(), email))
-                .findFirst();
+        return findByEmailNormalized(User.normalizeEmail(email));
     }
 
+    /**
+     * Query searching users by already normalized email address (see {@link User#normalizeEmail(String)}).
+     *
+     * @param emailNormalized normalized email of the user to search
+     * @return {@link Optional} containing found user or {@link Optional#empty()} if none matched
+     */
+    Optional<User> findByEmailNormalized(String emailNormalized);
+
+    /**
+     * Query reading the ID of the user with given normalized email, served by the unique index
+     * on the normalized email column.
+     *
+     * @param emailNormalized normalized email of the user (see {@link User#normalizeEmail(String)})
+     * @return {@link Optional} containing ID of the found user or {@link Optional#empty()} if none matched
+     */
+    @Query("select u.id from User u where u.emailNormalized = :emailNormalized")
+    Optional<Long> findIdByEmailNormalized(String emailNormalized);
+
+    /**
+     * Query reading the attributes kept by the in-memory user indexes, without loading {@link User} entities.
+     *
+     * @return indexed attributes of all users
+     */
+    @Query("select new pl.wsb.fitnesstracker.user.internal.IndexedUser(u.id, u.email, u.birthdate) from User u")
+    List<IndexedUser> findAllIndexed();
+
+    /**
+     * Keyset (seek) query reading the page of users following the given ID, ordered by ID.
+     * Rows are projected straight into {@link UserDto}, no {@link User} entities are loaded.
+     *
+     * @param after ID of the last user of the previous page
+     * @param limit maximum number of returned users
+     * @return page of users ordered by ID
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.user.internal.UserDto(u.id, u.firstName, u.lastName, u.birthdate, u.email)
+            from User u
+            where u.id > :after
+            order by u.id""")
+    List<UserDto> findPageAfter(Long after, Limit limit);
+
+    /**
+     * Keyset (seek) query reading the page of {@link User} entities following the given ID, ordered by ID.
+     *
+     * @param id    ID of the last user of the previous page
+     * @param limit maximum number of returned users
+     * @return page of users ordered by ID
+     */
+    List<User> findByIdGreaterThanOrderById(Long id, Limit limit);
+
+    /**
+     * Query streaming the users following the given ID ordered by ID from a forward-only JDBC cursor, projected into
+     * {@link UserDto}. The returned {@link Stream} has to be consumed and closed within a transaction.
+     *
+     * @param after ID of the last user already read
+     * @return stream of the users with greater ID
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.user.internal.UserDto(u.id, u.firstName, u.lastName, u.birthdate, u.email)
+            from User u
+            where u.id > :after
+            order by u.id""")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<UserDto> streamAfter(Long after);
+
+    /**
+     * Query reading the ID and name of all users ordered by ID, projected straight into {@link UserSummaryDto}
+     * without loading {@link User} entities into the persistence context.
+     *
+     * @return summaries of all users
+     */
+    @Query("select new pl.wsb.fitnesstracker.user.internal.UserSummaryDto(u.id, u.firstName, u.lastName) from User u order by u.id")
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    List<UserSummaryDto> findAllSummaries();
+
+    /**
+     * Range query reading users born before the given date, served by the index on the birthdate column.
+     *
+     * @param cutoff exclusive upper bound of the birthdate
+     * @return users born before the cutoff, ordered by ID
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.user.internal.UserDto(u.id, u.firstName, u.lastName, u.birthdate, u.email)
+            from User u
+            where u.birthdate < :cutoff
+            order by u.id""")
+    List<UserDto> findBornBefore(LocalDate cutoff);
+
+    /**
+     * Query reading users with given IDs.
+     *
+     * @param ids IDs of the users
+     * @return users ordered by ID
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.user.internal.UserDto(u.id, u.firstName, u.lastName, u.birthdate, u.email)
+            from User u
+            where u.id in :ids
+            order by u.id""")
+    List<UserDto> findAllByIds(Collection<Long> ids);
+
+    /**
+     * Query reading the ID and normalized email of the users with given normalized emails,
+     * served by the unique index on the normalized email column.
+     *
+     * @param emailsNormalized normalized emails of the users
+     * @return ID and normalized email of the located users
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.user.internal.UserEmailDto(u.id, u.emailNormalized)
+            from User u
+            where u.emailNormalized in :emailsNormalized""")
+    List<UserEmailDto> findIdsByEmailNormalized(Collection<String> emailsNormalized);
+
 }
@@ -1,39 +1,162 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserEmailTakenException;
+import pl.wsb.fitnesstracker.user.api.UserHasTrainingsException;
+import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
 import pl.wsb.fitnesstracker.user.api.UserProvider;
 import pl.wsb.fitnesstracker.user.api.UserService;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 class UserServiceImpl implements UserService, UserProvider {
 
+    /**
+     * Maximum number of emails bound to a single {@code IN} list of the email lookup.
+     */
+    private static final int EMAIL_LOOKUP_BATCH_SIZE = 1000;
+
+    /**
+     * SQLSTATE of a unique constraint violation.
+     */
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+
     private final UserRepository userRepository;
 
+    private final UserEmailSearchIndex emailSearchIndex;
+
+    private final UserBirthdateSearch birthdateSearch;
+
+    private final UserCache userCache;
+
     @Override
     public User createUser(final User user) {
         log.info("Creating User {}", user);
         if (user.getId() != null) {
             throw new IllegalArgumentException("User has already DB ID, update is not permitted!");
         }
-        return userRepository.save(user);
+        requireEmailAvailable(user.getEmail(), null);
+        User created;
+        try {
+            created = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw emailTakenOr(e, user.getEmail());
+        }
+        userCache.evict(created.getId(), created.getEmail());
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public List<User> createUsers(final List<User> users) {
+        log.debug("Creating {} Users", users.size());
+        if (users.stream().anyMatch(user -> user.getId() != null)) {
+            throw new IllegalArgumentException("User has already DB ID, update is not permitted!");
+        }
+        // New users cannot be cached (absent users are not), so there is nothing to evict
+        List<User> created = userRepository.saveAll(users);
+        userRepository.flush();
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public User updateUser(final Long userId, final User user) {
+        log.info("Updating User {} with {}", userId, user);
+        User existing = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        requireEmailAvailable(user.getEmail(), userId);
+        userCache.evict(userId, existing.getEmail());
+        userCache.evict(userId, user.getEmail());
+        existing.setFirstName(user.getFirstName());
+        existing.setLastName(user.getLastName());
+        existing.setBirthdate(user.getBirthdate());
+        existing.setEmail(user.getEmail());
+        try {
+            // surfaces a concurrently taken email here rather than on commit
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw emailTakenOr(e, user.getEmail());
+        }
+        return existing;
+    }
+
+    @Override
+    @Transactional
+    public void deleteUser(final Long userId) {
+        log.info("Deleting User {}", userId);
+        User existing = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        userCache.evict(userId, existing.getEmail());
+        userRepository.delete(existing);
+        try {
+            // statistics are deleted with the user, trainings are kept and reject the delete
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMostSpecificCause() instanceof SQLException cause && FOREIGN_KEY_VIOLATION.equals(cause.getSQLState())) {
+                throw new UserHasTrainingsException(userId);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<pl.wsb.fitnesstracker.user.api.UserDto> getUser(final Long userId) {
+        return userCache.get(userId, userRepository::findById);
+    }
+
+    @Override
+    public Optional<pl.wsb.fitnesstracker.user.api.UserDto> getUserByEmail(final String email) {
+        return userCache.getByEmail(email, userRepository::findIdByEmailNormalized, userRepository::findById);
+    }
+
+    @Override
+    public User getUserReference(final Long userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
+    @Override
+    public Map<String, Long> getUserIdsByEmail(final Collection<String> emails) {
+        List<String> emailsNormalized = emails.stream()
+                .map(User::normalizeEmail)
+                .distinct()
+                .toList();
+        Map<String, Long> userIds = new HashMap<>(emailsNormalized.size());
+        for (int from = 0; from < emailsNormalized.size(); from += EMAIL_LOOKUP_BATCH_SIZE) {
+            List<String> batch = emailsNormalized.subList(from, Math.min(from + EMAIL_LOOKUP_BATCH_SIZE, emailsNormalized.size()));
+            userRepository.findIdsByEmailNormalized(batch).forEach(user -> userIds.put(user.email(), user.id()));
+        }
+        return userIds;
     }
 
     @Override
-    public Optional<User> getUser(final Long userId) {
-        return userRepository.findById(userId);
+    public List<User> getUsers(final Collection<Long> userIds) {
+        return userRepository.findAllById(userIds);
     }
 
     @Override
-    public Optional<User> getUserByEmail(final String email) {
-        return userRepository.findByEmail(email);
+    public List<User> findUsersAfter(@Nullable final Long afterUserId, final int limit) {
+        return userRepository.findByIdGreaterThanOrderById(afterUserId == null ? Long.MIN_VALUE : afterUserId, Limit.of(limit));
     }
 
     @Override
@@ -41,4 +164,81 @@ class UserServiceImpl implements UserService, UserProvider {
         return userRepository.findAll();
     }
 
-}
\ No newline at end of file
+    /**
+     * Reads the ID and name of all users, without hydrating managed {@link User} entities.
+     *
+     * @return summaries of all users ordered by ID
+     */
+    @Transactional(readOnly = true)
+    List<UserSummaryDto> findAllUserSummaries() {
+        return userRepository.findAllSummaries();
+    }
+
+    /**
+     * Searches users older than the given date, i.e. born before it.
+     *
+     * @param cutoff exclusive upper bound of the birthdate
+     * @return users born before the cutoff, ordered by ID
+     */
+    List<UserDto> findUsersBornBefore(final LocalDate cutoff) {
+        return birthdateSearch.findBornBefore(cutoff);
+    }
+
+    /**
+     * Searches users by a fragment of their email, ignoring case.
+     *
+     * @param emailFragment fragment of the email
+     * @param after         ID of the last user of the previous page, or {@code null} for the first page
+     * @param limit         maximum number of returned users
+     * @return ID and email of the matching users, ordered by ID
+     */
+    List<UserEmailDto> searchUsersByEmail(final String emailFragment, @Nullable final Long after, final int limit) {
+        return emailSearchIndex.search(emailFragment, after, limit);
+    }
+
+    /**
+     * Reads the page of users following the given ID using keyset pagination.
+     *
+     * @param after ID of the last user of the previous page, or {@code null} for the first page
+     * @param limit maximum number of returned users
+     * @return page of users ordered by ID
+     */
+    List<UserDto> findUsersPage(@Nullable final Long after, final int limit) {
+        return userRepository.findPageAfter(after == null ? Long.MIN_VALUE : after, Limit.of(limit));
+    }
+
+    /**
+     * Passes the users following the given ID, ordered by ID, to the consumer as they are read from the database cursor.
+     *
+     * @param after    ID of the last user already read, {@code null} to read all users
+     * @param consumer consumer of the users
+     */
+    @Transactional(readOnly = true)
+    void streamUsers(@Nullable final Long after, final Consumer<UserDto> consumer) {
+        try (Stream<UserDto> users = userRepository.streamAfter(after == null ? Long.MIN_VALUE : after)) {
+            users.forEach(consumer);
+        }
+    }
+
+    /**
+     * @param userId ID of the user allowed to use the email, {@code null} if none
+     * @throws UserEmailTakenException if another user has the email, compared case-insensitively
+     */
+    private void requireEmailAvailable(String email, @Nullable Long userId) {
+        Optional<Long> ownerId = userRepository.findIdByEmailNormalized(User.normalizeEmail(email));
+        if (ownerId.isPresent() && !ownerId.get().equals(userId)) {
+            throw new UserEmailTakenException(email);
+        }
+    }
+
+    /**
+     * Translates a unique constraint violation, which on the users table can only be a taken email, to the conflict.
+     */
+    private static RuntimeException emailTakenOr(DataIntegrityViolationException e, String email) {
+        if (e.getMostSpecificCause() instanceof SQLException cause && UNIQUE_VIOLATION.equals(cause.getSQLState())) {
+            return new UserEmailTakenException(email);
+        }
+        return e;
+    }
+
+}
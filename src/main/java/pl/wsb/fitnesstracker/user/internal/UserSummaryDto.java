@@ -0,0 +1,8 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+/**
+ * Compact projection of the user carrying only the ID and the name, returned by the simple user listing.
+ */
+record UserSummaryDto(Long id, String firstName, String lastName) {
+
+}
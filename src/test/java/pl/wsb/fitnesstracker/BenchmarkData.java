@@ -0,0 +1,82 @@
+package pl.wsb.fitnesstracker;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds the benchmark databases with plain JDBC batches, bypassing the persistence context.
+ */
+public final class BenchmarkData {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private static final int ACTIVITY_TYPES = 5;
+
+    public static final LocalDate FIRST_TRAINING_DAY = LocalDate.of(2023, 1, 1);
+
+    public static final int TRAINING_DAYS = 730;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Inserts {@code count} users with emails {@code User.<i>@Domain.com} (see {@link #email(int)}).
+     */
+    public static void seedUsers(JdbcTemplate jdbcTemplate, int count) {
+        String sql = "insert into users (id, first_name, last_name, birthdate, email, email_normalized) values (next value for users_seq, ?, ?, ?, ?, ?)";
+        LocalDate firstBirthdate = LocalDate.of(1950, 1, 1);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            String email = email(i);
+            Date birthdate = Date.valueOf(firstBirthdate.plusDays(i % 20_000));
+            batch.add(new Object[]{"First" + i, "Last" + i, birthdate, email, User.normalizeEmail(email)});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    /**
+     * Inserts {@code trainingsPerUser} trainings for every user, with start times spread over {@link #TRAINING_DAYS} days
+     * from {@link #FIRST_TRAINING_DAY} and uniformly distributed activity types.
+     */
+    public static void seedTrainings(JdbcTemplate jdbcTemplate, int trainingsPerUser) {
+        String sql = "insert into trainings (id, user_id, start_time, end_time, activity_type, distance, average_speed) values (next value for trainings_seq, ?, ?, ?, ?, ?, ?)";
+        List<Long> userIds = jdbcTemplate.queryForList("select id from users order by id", Long.class);
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (Long userId : userIds) {
+            for (int i = 0; i < trainingsPerUser; i++) {
+                LocalDateTime start = FIRST_TRAINING_DAY.atStartOfDay().plusMinutes(random.nextLong(TRAINING_DAYS * 24 * 60));
+                int minutes = 20 + random.nextInt(100);
+                double averageSpeed = 4 + random.nextDouble() * 20;
+                batch.add(new Object[]{userId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(minutes)),
+                        random.nextInt(ACTIVITY_TYPES), averageSpeed * minutes / 60, averageSpeed});
+                if (batch.size() == INSERT_BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    public static String email(int index) {
+        return "User.%d@Domain.com".formatted(index);
+    }
+
+}
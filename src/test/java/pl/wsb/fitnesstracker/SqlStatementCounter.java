@@ -0,0 +1,42 @@
+package pl.wsb.fitnesstracker;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test harness counting the JDBC statements prepared by Hibernate, used to guard read paths against N+1 regressions.
+ * Requires {@code hibernate.generate_statistics} to be enabled.
+ */
+@Component
+public class SqlStatementCounter {
+
+    private final EntityManager entityManager;
+
+    private final Statistics statistics;
+
+    public SqlStatementCounter(EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+        this.entityManager = entityManager;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Flushes pending changes, detaches all entities (so they have to be read from the database again) and resets the counter.
+     */
+    public void reset() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    public void assertStatementCount(long expected) {
+        assertThat(statistics.getPrepareStatementCount())
+                .as("number of prepared SQL statements")
+                .isEqualTo(expected);
+    }
+
+}
@@ -0,0 +1,72 @@
+package pl.wsb.fitnesstracker;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests are served by the embedded Tomcat, not by MockMvc on the test thread, so the handling thread is the one
+ * of the server. Runs only on Java 21, build with {@code mvn -P java21 test} on a Java 21 JDK.
+ */
+@IntegrationTest
+@EnabledForJreRange(min = JRE.JAVA_21)
+@ActiveProfiles("virtual-threads")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class VirtualThreadsIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AtomicReference<Thread> requestThread;
+
+    @Test
+    void shouldServeRequestsOnVirtualThreads_whenVirtualThreadsProfileActive() throws Exception {
+        assertThat(restTemplate.getForEntity("/v1/users", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // Thread.isVirtual() is not part of the Java 17 API the project is compiled against by default
+        assertThat(Thread.class.getMethod("isVirtual").invoke(requestThread.get()))
+                .as("request thread %s is virtual", requestThread.get())
+                .isEqualTo(true);
+    }
+
+    @TestConfiguration
+    static class RequestThreadConfig {
+
+        @Bean
+        AtomicReference<Thread> requestThread() {
+            return new AtomicReference<>();
+        }
+
+        @Bean
+        OncePerRequestFilter requestThreadRecorder(AtomicReference<Thread> requestThread) {
+            return new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                        throws ServletException, IOException {
+                    requestThread.set(Thread.currentThread());
+                    filterChain.doFilter(request, response);
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+package pl.wsb.fitnesstracker.cache.internal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingService;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Not transactional, entities are put into the second-level cache when their transaction commits.
+ */
+@IntegrationTest
+class SecondLevelCacheIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TrainingProvider trainingProvider;
+
+    @Autowired
+    private TrainingService trainingService;
+
+    @Autowired
+    private StatisticsProvider statisticsProvider;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void shouldReadUserFromCache_inNewPersistenceContext() {
+        User user = existingUser(newUser());
+        long statements = statistics().getPrepareStatementCount();
+        double hits = regionRequests(SecondLevelCacheConfig.USERS_REGION, "hit");
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            assertThat(entityManager.find(User.class, user.getId()).getEmail()).isEqualTo(user.getEmail());
+        } finally {
+            entityManager.close();
+        }
+
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(regionRequests(SecondLevelCacheConfig.USERS_REGION, "hit") - hits).isEqualTo(1);
+    }
+
+    @Test
+    void shouldServeRepeatedUserTrainingsFromQueryCache_untilTrainingAdded() {
+        User user = existingUser(newUser());
+        trainingService.createTraining(user.getId(), newTraining(user, ActivityType.RUNNING));
+        assertThat(trainingProvider.findTrainingsByUserId(user.getId())).hasSize(1);
+        long statements = statistics().getPrepareStatementCount();
+        long queryCacheHits = statistics().getQueryCacheHitCount();
+
+        assertThat(trainingProvider.findTrainingsByUserId(user.getId()))
+                .singleElement()
+                .extracting(training -> training.getUser().getEmail())
+                .isEqualTo(user.getEmail());
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics().getQueryCacheHitCount()).isEqualTo(queryCacheHits + 1);
+
+        trainingService.createTraining(user.getId(), newTraining(user, ActivityType.RUNNING));
+
+        assertThat(trainingProvider.findTrainingsByUserId(user.getId())).hasSize(2);
+    }
+
+    @Test
+    void shouldUpdateCachedStatistics_whenTrainingRemoved_andEvictThem_whenUserDeleted() {
+        User user = existingUser(newUser());
+        Training training = trainingService.createTraining(user.getId(), newTraining(user, ActivityType.CYCLING));
+        Long statisticsId = statisticsProvider.getStatisticsForUser(user.getId()).orElseThrow().getId();
+        assertThat(statisticsProvider.getStatistics(statisticsId)).map(pl.wsb.fitnesstracker.statistics.api.Statistics::getTotalTrainings).contains(1);
+
+        trainingService.deleteTraining(training.getId());
+
+        assertThat(statisticsProvider.getStatistics(statisticsId)).map(pl.wsb.fitnesstracker.statistics.api.Statistics::getTotalTrainings).contains(0);
+        assertThat(statisticsProvider.getStatisticsForUser(user.getId())).map(pl.wsb.fitnesstracker.statistics.api.Statistics::getTotalTrainings).contains(0);
+
+        userService.deleteUser(user.getId());
+
+        assertThat(statisticsProvider.getStatistics(statisticsId)).isEmpty();
+        assertThat(statisticsProvider.getStatisticsForUser(user.getId())).isEmpty();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private double regionRequests(String region, String result) {
+        FunctionCounter counter = meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", region, "result", result)
+                .functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static User newUser() {
+        return new User("John", "Doe", LocalDate.of(1990, 1, 1), "john." + randomUUID() + "@domain.com");
+    }
+
+    private static Training newTraining(User user, ActivityType activityType) {
+        return new Training(user, new Date(1_700_000_000_000L), new Date(1_700_003_600_000L), activityType, 10, 10);
+    }
+
+}
@@ -0,0 +1,112 @@
+package pl.wsb.fitnesstracker.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Imports run on the async request thread and commit chunk by chunk, so the tests are not transactional.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class ImportIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StatisticsProvider statisticsProvider;
+
+    @Test
+    void shouldImportUsersFromCsv_skippingTakenEmails() throws Exception {
+        existingUser(new User("Emma", "Johnson", LocalDate.parse("1996-01-01"), "emma.johnson@domain.com"));
+        String csv = """
+                email,birthdate,firstName,lastName
+                ethan.taylor@domain.com,1973-05-01,Ethan,Taylor
+                EMMA.JOHNSON@domain.com,1996-01-01,Emma,Johnson
+                olivia.davis@domain.com,1948-02-03,"Olivia ""Liv""\","Davis, Jr."
+                ethan.taylor@domain.com,1973-05-01,Ethan,Taylor
+                daniel.thomas@domain.com,not-a-date,Daniel,Thomas
+                """;
+
+        JsonNode result = importFile("/v1/imports/users", "CSV", csv);
+
+        assertThat(result.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(result.get("imported").asLong()).isEqualTo(2);
+        assertThat(result.get("skipped").asLong()).isEqualTo(2);
+        assertThat(result.get("rejected").asLong()).isEqualTo(1);
+        assertThat(result.get("bytesProcessed").asLong()).isEqualTo(result.get("bytesTotal").asLong());
+        assertThat(result.get("errors").get(0).get("offset").asLong()).isEqualTo(csv.indexOf("daniel.thomas"));
+        assertThat(getAllUsers()).extracting(User::getEmail)
+                .containsExactlyInAnyOrder("emma.johnson@domain.com", "ethan.taylor@domain.com", "olivia.davis@domain.com");
+        assertThat(getAllUsers()).extracting(User::getFirstName, User::getLastName).contains(tuple("Olivia \"Liv\"", "Davis, Jr."));
+    }
+
+    @Test
+    void shouldImportTrainingsFromNdjson_resolvingUsersByEmail() throws Exception {
+        User user = existingUser(new User("Emma", "Johnson", LocalDate.parse("1996-01-01"), "emma.johnson@domain.com"));
+        String ndjson = """
+                {"userEmail":"Emma.Johnson@domain.com","startTime":"2024-01-19T08:00:00Z","endTime":"2024-01-19T09:30:00Z","activityType":"RUNNING","distance":10.5,"averageSpeed":8.2}
+                {"userEmail":"missing@domain.com","startTime":"2024-01-19T08:00:00Z","endTime":"2024-01-19T09:30:00Z","activityType":"RUNNING","distance":5,"averageSpeed":8}
+
+                {"userEmail":"emma.johnson@domain.com","startTime":"2024-01-20T08:00:00Z","endTime":"2024-01-20T07:00:00Z","activityType":"WALKING","distance":1,"averageSpeed":4}
+                {"userEmail":"emma.johnson@domain.com","startTime":"2024-01-21T08:00:00Z","endTime":"2024-01-21T09:00:00Z","activityType":"CYCLING","distance":20,"averageSpeed":20}
+                """;
+
+        JsonNode result = importFile("/v1/imports/trainings", "NDJSON", ndjson);
+
+        assertThat(result.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(result.get("imported").asLong()).isEqualTo(2);
+        assertThat(result.get("rejected").asLong()).isEqualTo(2);
+        assertThat(result.get("errors")).extracting(error -> error.get("message").asText())
+                .containsExactly("User with email missing@domain.com was not found", "timeRangeValid: endTime must not be before startTime");
+        List<Training> trainings = getAllTrainings();
+        assertThat(trainings).extracting(Training::getDistance).containsExactlyInAnyOrder(10.5, 20.0);
+        assertThat(statisticsProvider.getStatisticsForUser(user.getId())).hasValueSatisfying(statistics -> {
+            assertThat(statistics.getTotalTrainings()).isEqualTo(2);
+            assertThat(statistics.getTotalDistance()).isEqualTo(30.5);
+        });
+    }
+
+    @Test
+    void shouldRejectCsv_whenHeaderLacksColumns() throws Exception {
+        mockMvc.perform(post("/v1/imports/trainings").content("userEmail,startTime\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode importFile(String path, String format, String content) throws Exception {
+        MvcResult result = mockMvc.perform(post(path).param("format", format).content(content))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String events = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String[] lines = events.split("\n");
+        return objectMapper.readTree(lines[lines.length - 1]);
+    }
+
+}
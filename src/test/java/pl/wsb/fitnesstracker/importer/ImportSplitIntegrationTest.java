@@ -0,0 +1,94 @@
+package pl.wsb.fitnesstracker.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Imports a small file cut into many splits, with rows crossing the nominal split boundaries.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+@TestPropertySource(properties = {"importer.split-size=256B", "importer.min-split-size=256B", "importer.chunk-size=7"})
+class ImportSplitIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldImportEveryRowOnce_whenFileCutIntoManySplits() throws Exception {
+        StringBuilder csv = new StringBuilder("email,birthdate,firstName,lastName\n");
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            String email = "runner" + i + "@domain.com";
+            emails.add(email);
+            csv.append(email).append(",1990-01-01,").append("Runner".repeat(1 + i % 5)).append(",Doe\r\n");
+        }
+
+        JsonNode result = importFile(csv.toString());
+
+        assertThat(result.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(result.get("imported").asLong()).isEqualTo(120);
+        assertThat(result.get("rejected").asLong()).isZero();
+        assertThat(result.get("bytesProcessed").asLong()).isEqualTo(csv.length());
+        assertThat(getAllUsers()).extracting(User::getEmail).containsExactlyInAnyOrderElementsOf(emails);
+    }
+
+    @Test
+    void shouldRejectRow_whenQuotedValueContainsLineBreak() throws Exception {
+        String csv = """
+                email,birthdate,firstName,lastName
+                ethan.taylor@domain.com,1973-05-01,Ethan,Taylor
+                olivia.davis@domain.com,1948-02-03,"Olivia
+                Liv",Davis
+                emma.johnson@domain.com,1996-01-01,Emma,Johnson
+                """;
+
+        JsonNode result = importFile(csv);
+
+        assertThat(result.get("imported").asLong()).isEqualTo(2);
+        assertThat(result.get("rejected").asLong()).isEqualTo(2);
+        assertThat(result.get("errors")).extracting(error -> error.get("offset").asLong(), error -> error.get("message").asText())
+                .containsExactlyInAnyOrder(
+                        tuple((long) csv.indexOf("olivia"),
+                                "Malformed row: Quoted value is not terminated on the line, line breaks within values are not supported"),
+                        tuple((long) csv.indexOf("Liv\""), "Malformed row: expected 4 values, found 2"));
+        assertThat(getAllUsers()).extracting(User::getEmail)
+                .containsExactlyInAnyOrder("ethan.taylor@domain.com", "emma.johnson@domain.com");
+    }
+
+    private JsonNode importFile(String content) throws Exception {
+        MvcResult result = mockMvc.perform(post("/v1/imports/users").param("format", "CSV").content(content))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String events = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String[] lines = events.split("\n");
+        return objectMapper.readTree(lines[lines.length - 1]);
+    }
+
+}
@@ -0,0 +1,127 @@
+package pl.wsb.fitnesstracker.importer.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportFileTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldSplitIntoWholeLines_whenLinesCrossNominalBoundaries() throws IOException {
+        Random random = new Random(42);
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 500; line++) {
+            content.append("line ").append(line).append(' ').append("x".repeat(random.nextInt(100))).append('\n');
+        }
+
+        for (int count : new int[]{1, 2, 3, 7, 16, 100}) {
+            try (FileChannel channel = open(content.toString())) {
+                List<ImportFile.Split> splits = ImportFile.split(channel, 0, count);
+
+                assertThat(splits).hasSize(count);
+                assertContiguousWholeLines(channel, 0, splits);
+                assertThat(lines(channel, splits)).isEqualTo(content.toString());
+            }
+        }
+    }
+
+    @Test
+    void shouldReturnFewerSplits_whenLineSpansSeveralNominalSplits() throws IOException {
+        String content = "header\n" + "a".repeat(1000) + "\nb\nc\n";
+
+        try (FileChannel channel = open(content)) {
+            List<ImportFile.Split> splits = ImportFile.split(channel, 7, 10);
+
+            assertThat(splits).hasSizeLessThan(10);
+            assertContiguousWholeLines(channel, 7, splits);
+            assertThat(splits.get(0).length()).isEqualTo(1001);
+        }
+    }
+
+    @Test
+    void shouldEndLastSplitAtEndOfFile_whenLastLineNotTerminated() throws IOException {
+        String content = "first line\nsecond line\nthird line";
+
+        try (FileChannel channel = open(content)) {
+            List<ImportFile.Split> splits = ImportFile.split(channel, 0, 3);
+
+            assertContiguousWholeLines(channel, 0, splits);
+            assertThat(splits.get(splits.size() - 1).end()).isEqualTo(content.length());
+            assertThat(lines(channel, splits)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void shouldFindNextLine_whenLineLongerThanScanBuffer() throws IOException {
+        String content = "x".repeat(20_000) + "\ny\n";
+
+        try (FileChannel channel = open(content)) {
+            assertThat(ImportFile.nextLine(channel, 0)).isEqualTo(20_001);
+            assertThat(ImportFile.nextLine(channel, 20_000)).isEqualTo(20_001);
+            assertThat(ImportFile.nextLine(channel, 20_001)).isEqualTo(content.length());
+            assertThat(ImportFile.nextLine(channel, content.length())).isEqualTo(content.length());
+        }
+    }
+
+    @Test
+    void shouldSkipByteOrderMark() throws IOException {
+        try (FileChannel channel = open("\uFEFFemail\n")) {
+            assertThat(ImportFile.contentStart(channel)).isEqualTo(3);
+        }
+        try (FileChannel channel = open("email\n")) {
+            assertThat(ImportFile.contentStart(channel)).isZero();
+        }
+    }
+
+    private FileChannel open(String content) throws IOException {
+        Path file = Files.createTempFile(directory, "import", ".csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return FileChannel.open(file);
+    }
+
+    /**
+     * Asserts the splits are non-empty, follow each other from the start to the end of the file and, but for the last
+     * one, end with a line break.
+     */
+    private static void assertContiguousWholeLines(FileChannel channel, long start, List<ImportFile.Split> splits) throws IOException {
+        long position = start;
+        for (ImportFile.Split split : splits) {
+            assertThat(split.start()).isEqualTo(position);
+            assertThat(split.length()).isPositive();
+            if (split.end() < channel.size()) {
+                assertThat(read(channel, split.end() - 1, 1)).isEqualTo("\n");
+            }
+            position = split.end();
+        }
+        assertThat(position).isEqualTo(channel.size());
+    }
+
+    private static String lines(FileChannel channel, List<ImportFile.Split> splits) throws IOException {
+        List<String> parts = new ArrayList<>();
+        for (ImportFile.Split split : splits) {
+            parts.add(read(channel, split.start(), (int) split.length()));
+        }
+        return String.join("", parts);
+    }
+
+    private static String read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.read(buffer, position);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,78 @@
+package pl.wsb.fitnesstracker.loader;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@ActiveProfiles("syntheticData")
+@TestPropertySource(properties = {
+        "loader.synthetic.users=25",
+        "loader.synthetic.trainings-per-user=4",
+        "loader.synthetic.batch-size=10"
+})
+class SyntheticDataGeneratorIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private StatisticsProvider statisticsProvider;
+
+    @Test
+    void shouldGenerateUsersWithTrainingsAndStatistics() {
+        generator.generate();
+
+        List<User> users = getAllUsers();
+        assertThat(users).hasSize(25);
+        assertThat(users).extracting(User::getEmail).doesNotHaveDuplicates();
+        assertThat(getAllTrainings()).hasSize(100)
+                .allSatisfy(training -> {
+                    assertThat(training.getEndTime()).isAfter(training.getStartTime());
+                    assertThat(training.getDistance()).isPositive();
+                });
+        assertThat(users).allSatisfy(user -> assertThat(statisticsProvider.getStatisticsForUser(user.getId()))
+                .hasValueSatisfying(statistics -> assertThat(statistics.getTotalTrainings()).isEqualTo(4)));
+    }
+
+    @Test
+    void shouldGenerateSameData_whenRunAgainWithSameSeed() {
+        generator.generate();
+        List<String> first = describeTrainings();
+
+        setUp();
+        generator.generate();
+
+        assertThat(describeTrainings()).isEqualTo(first);
+    }
+
+    @Test
+    void shouldSkipGeneration_whenSyntheticUsersExist() {
+        generator.generate();
+
+        generator.generate();
+
+        assertThat(getAllUsers()).hasSize(25);
+    }
+
+    private List<String> describeTrainings() {
+        return getAllTrainings().stream()
+                .map(training -> String.join(",", training.getUser().getEmail(), String.valueOf(training.getStartTime().getTime()),
+                        String.valueOf(training.getEndTime().getTime()), training.getActivityType().name(),
+                        String.valueOf(training.getDistance()), String.valueOf(training.getAverageSpeed())))
+                .sorted(Comparator.naturalOrder())
+                .toList();
+    }
+
+}
@@ -0,0 +1,81 @@
+package pl.wsb.fitnesstracker.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Stored p99 latencies of the load test operations, in microseconds, the runs are compared against.
+ * Kept as a properties file ({@code <operation>.p99-micros}) so a re-recorded baseline shows up as a readable diff.
+ * The throughput measured with the latencies ({@code <operation>.requests-per-second}) is recorded for comparison
+ * of the runs, but not checked.
+ */
+final class LatencyBaseline {
+
+    private static final String P99_SUFFIX = ".p99-micros";
+
+    private static final String THROUGHPUT_SUFFIX = ".requests-per-second";
+
+    private final Map<String, Long> p99Micros;
+
+    private final Map<String, Double> requestsPerSecond;
+
+    private LatencyBaseline(Map<String, Long> p99Micros, Map<String, Double> requestsPerSecond) {
+        this.p99Micros = p99Micros;
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    /**
+     * Reads the baseline, empty if the file does not exist yet.
+     */
+    static LatencyBaseline read(Path file) {
+        Map<String, Long> p99Micros = new TreeMap<>();
+        if (Files.exists(file)) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            properties.stringPropertyNames().stream()
+                    .filter(key -> key.endsWith(P99_SUFFIX))
+                    .forEach(key -> p99Micros.put(key.substring(0, key.length() - P99_SUFFIX.length()),
+                            Long.parseLong(properties.getProperty(key).trim())));
+        }
+        return new LatencyBaseline(p99Micros, Map.of());
+    }
+
+    static LatencyBaseline of(Map<String, Long> p99Micros, Map<String, Double> requestsPerSecond) {
+        return new LatencyBaseline(new TreeMap<>(p99Micros), new TreeMap<>(requestsPerSecond));
+    }
+
+    Optional<Long> p99Micros(String operation) {
+        return Optional.ofNullable(p99Micros.get(operation));
+    }
+
+    void write(Path file, String comment) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                writer.write("# " + comment + System.lineSeparator());
+                for (Map.Entry<String, Long> entry : p99Micros.entrySet()) {
+                    writer.write(entry.getKey() + P99_SUFFIX + "=" + entry.getValue() + System.lineSeparator());
+                    Double throughput = requestsPerSecond.get(entry.getKey());
+                    if (throughput != null) {
+                        writer.write(entry.getKey() + THROUGHPUT_SUFFIX + "=" + "%.1f".formatted(throughput) + System.lineSeparator());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package pl.wsb.fitnesstracker.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Requests of the load test mix, each drawn with its weight, overridable with {@code loadtest.mix.<name>}.
+ * The requests target random users of the seeded dataset.
+ */
+enum LoadOperation {
+
+    LIST_USERS("list-users", 25) {
+        @Override
+        HttpRequest request(LoadTarget target, SplittableRandom random) {
+            return get(target, "/v1/users?limit=20&after=" + target.randomUserId(random));
+        }
+    },
+    GET_USER("get-user", 30) {
+        @Override
+        HttpRequest request(LoadTarget target, SplittableRandom random) {
+            return get(target, "/v1/users/" + target.randomUserId(random));
+        }
+    },
+    SEARCH_USERS("search-users", 15) {
+        @Override
+        HttpRequest request(LoadTarget target, SplittableRandom random) {
+            // fragments like "User.123" match the emails of users 123, 1230-1239, 12300-12399...
+            return get(target, "/v1/users/email?email=User." + random.nextInt(target.users()));
+        }
+    },
+    LIST_USER_TRAININGS("list-user-trainings", 20) {
+        @Override
+        HttpRequest request(LoadTarget target, SplittableRandom random) {
+            return get(target, "/v1/trainings/" + target.randomUserId(random));
+        }
+    },
+    CREATE_TRAINING("create-training", 10) {
+        @Override
+        HttpRequest request(LoadTarget target, SplittableRandom random) {
+            long startTime = 1_700_000_000_000L + random.nextLong(10_000_000_000L);
+            double averageSpeed = random.nextDouble(4, 24);
+            String body = String.format(Locale.ROOT, """
+                    {"userId": %d, "startTime": %d, "endTime": %d, "activityType": "RUNNING", "distance": %.2f, "averageSpeed": %.2f}""",
+                    target.randomUserId(random), startTime, startTime + 3_600_000L, averageSpeed, averageSpeed);
+            return HttpRequest.newBuilder(target.uri("/v1/trainings"))
+                    .header("Content-Type", "application/json")
+                    .POST(BodyPublishers.ofString(body))
+                    .build();
+        }
+    };
+
+    private final String name;
+
+    private final int defaultWeight;
+
+    LoadOperation(String name, int defaultWeight) {
+        this.name = name;
+        this.defaultWeight = defaultWeight;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    abstract HttpRequest request(LoadTarget target, SplittableRandom random);
+
+    private static HttpRequest get(LoadTarget target, String path) {
+        return HttpRequest.newBuilder(target.uri(path)).GET().build();
+    }
+
+    /**
+     * Server under load and the IDs of the seeded users.
+     */
+    record LoadTarget(URI baseUri, long[] userIds) {
+
+        int users() {
+            return userIds.length;
+        }
+
+        long randomUserId(SplittableRandom random) {
+            return userIds[random.nextInt(userIds.length)];
+        }
+
+        URI uri(String path) {
+            return baseUri.resolve(path);
+        }
+
+    }
+
+}
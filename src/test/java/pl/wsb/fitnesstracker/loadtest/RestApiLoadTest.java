@@ -0,0 +1,300 @@
+package pl.wsb.fitnesstracker.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkData;
+import pl.wsb.fitnesstracker.LoadTest;
+import pl.wsb.fitnesstracker.loadtest.LoadOperation.LoadTarget;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drives a weighted mix of {@link LoadOperation} requests against the application on the embedded server
+ * (port 8888) with {@code loadtest.concurrency} clients, each sending its next request as soon as the previous
+ * one completes. Latencies are recorded into HdrHistograms per operation, written as {@code .hgrm} percentile
+ * distributions to {@code loadtest.report-dir}, and the p99 of every operation must stay within
+ * {@code loadtest.p99-tolerance} of the stored {@link LatencyBaseline}.
+ * <p>
+ * Run with {@code mvn -P load-test test}, record a new baseline with {@code -Dloadtest.record-baseline=true}
+ * on the machine the runs are compared on. The virtual thread mode is run on a Java 21 JDK with
+ * {@code mvn -P java21,load-test test -Dspring.profiles.active=virtual-threads} and compared against its own baseline,
+ * so the baselines of both modes recorded on the same machine compare their p99 latencies and throughput.
+ * As with any closed-loop load generator, a stalled server also stalls the clients, so the latencies are those seen by the clients under the given concurrency, not at a fixed rate.
+ */
+@LoadTest
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT, properties = {
+        "server.port=8888",
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=false",
+        "logging.level.root=WARN",
+        "logging.level.pl.wsb.fitnesstracker.loadtest=INFO"})
+@Slf4j
+class RestApiLoadTest {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    @Value("${loadtest.users:10000}")
+    private int users;
+
+    @Value("${loadtest.trainings-per-user:20}")
+    private int trainingsPerUser;
+
+    @Value("${loadtest.concurrency:8}")
+    private int concurrency;
+
+    @Value("${loadtest.warmup:10s}")
+    private Duration warmup;
+
+    @Value("${loadtest.duration:30s}")
+    private Duration duration;
+
+    @Value("${loadtest.p99-tolerance:0.5}")
+    private double p99Tolerance;
+
+    /**
+     * Baseline file, by default the one of the thread mode the server runs in.
+     */
+    @Value("${loadtest.baseline:}")
+    private String baselineFile;
+
+    @Value("${loadtest.record-baseline:false}")
+    private boolean recordBaseline;
+
+    @Value("${loadtest.report-dir:target/load-test}")
+    private String reportDir;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LoadTarget target;
+
+    @BeforeEach
+    void seed() {
+        // users through the service, so that the in-memory user indexes serving the searches see them
+        LocalDate firstBirthdate = LocalDate.of(1950, 1, 1);
+        List<User> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < users; i++) {
+            batch.add(new User("First" + i, "Last" + i, firstBirthdate.plusDays(i % 20_000), BenchmarkData.email(i)));
+            if (batch.size() == SEED_BATCH_SIZE || i == users - 1) {
+                userService.createUsers(batch);
+                batch.clear();
+            }
+        }
+        BenchmarkData.seedTrainings(jdbcTemplate, trainingsPerUser);
+        long[] userIds = jdbcTemplate.queryForList("select id from users order by id", Long.class).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        target = new LoadTarget(URI.create("http://localhost:" + port), userIds);
+    }
+
+    @Test
+    void shouldKeepP99WithinBaseline_whenServingConcurrentRequestMix() throws Exception {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : LoadOperation.values()) {
+            weights.put(operation, environment.getProperty("loadtest.mix." + operation.getName(), Integer.class, operation.getDefaultWeight()));
+        }
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        String threads = Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform";
+        log.info("Warming up for {} with {} clients on {} threads, mix {}", warmup, concurrency, threads, weights);
+        run(client, weights, warmup);
+        log.info("Measuring for {}", duration);
+        LoadRun run = run(client, weights, duration);
+        report(run);
+
+        Path baselinePath = Path.of(baselineFile.isBlank()
+                ? "src/test/resources/load-test-baseline%s.properties".formatted(Threading.VIRTUAL.isActive(environment) ? "-virtual-threads" : "")
+                : baselineFile);
+        if (recordBaseline) {
+            double seconds = run.elapsedNanos() / 1e9;
+            Map<LoadOperation, Histogram> measured = run.histograms().entrySet().stream()
+                    .filter(entry -> entry.getValue().getTotalCount() > 0)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            LatencyBaseline.of(
+                            measured.entrySet().stream().collect(Collectors.toMap(entry -> entry.getKey().getName(), entry -> entry.getValue().getValueAtPercentile(99))),
+                            measured.entrySet().stream().collect(Collectors.toMap(entry -> entry.getKey().getName(), entry -> entry.getValue().getTotalCount() / seconds)))
+                    .write(baselinePath, "p99 latencies and throughput of RestApiLoadTest with %d clients on %s threads over %d users with %d trainings each"
+                            .formatted(concurrency, threads, users, trainingsPerUser));
+            log.info("Baseline recorded to {}", baselinePath.toAbsolutePath());
+        }
+
+        LatencyBaseline baseline = LatencyBaseline.read(baselinePath);
+        SoftAssertions softly = new SoftAssertions();
+        for (LoadOperation operation : LoadOperation.values()) {
+            softly.assertThat(run.errors().get(operation))
+                    .as("failed %s requests, first failure: %s", operation.getName(), run.firstFailures().get(operation))
+                    .isZero();
+            Histogram histogram = run.histograms().get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            baseline.p99Micros(operation.getName()).ifPresentOrElse(
+                    p99 -> softly.assertThat(histogram.getValueAtPercentile(99))
+                            .as("%s p99 in us (baseline %d us, tolerance %.0f%%)", operation.getName(), p99, p99Tolerance * 100)
+                            .isLessThanOrEqualTo((long) (p99 * (1 + p99Tolerance))),
+                    () -> log.warn("No baseline of {} in {}, p99 not checked", operation.getName(), baselinePath));
+        }
+        softly.assertAll();
+    }
+
+    private LoadRun run(HttpClient client, Map<LoadOperation, Integer> weights, Duration runDuration) throws Exception {
+        LoadOperation[] operations = LoadOperation.values();
+        int[] cumulativeWeights = new int[operations.length];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.length; i++) {
+            totalWeight += weights.get(operations[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            long start = System.nanoTime();
+            long deadline = start + runDuration.toNanos();
+            SplittableRandom seeds = new SplittableRandom(42);
+            List<Future<LoadRun>> clients = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                SplittableRandom random = seeds.split();
+                int weight = totalWeight;
+                clients.add(executor.submit(() -> runClient(client, operations, cumulativeWeights, weight, random, deadline)));
+            }
+            LoadRun run = LoadRun.empty();
+            for (Future<LoadRun> clientRun : clients) {
+                run = run.merge(clientRun.get());
+            }
+            return run.withElapsedNanos(System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private LoadRun runClient(HttpClient client, LoadOperation[] operations, int[] cumulativeWeights, int totalWeight,
+                              SplittableRandom random, long deadline) throws InterruptedException {
+        LoadRun run = LoadRun.empty();
+        while (System.nanoTime() < deadline) {
+            int draw = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= draw) {
+                index++;
+            }
+            LoadOperation operation = operations[index];
+            long start = System.nanoTime();
+            try {
+                int status = client.send(operation.request(target, random), BodyHandlers.discarding()).statusCode();
+                if (status >= 300) {
+                    run.failed(operation, "HTTP " + status);
+                }
+            } catch (IOException e) {
+                run.failed(operation, e.toString());
+            }
+            run.histograms().get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        }
+        return run;
+    }
+
+    private void report(LoadRun run) throws IOException {
+        double seconds = run.elapsedNanos() / 1e9;
+        long total = run.histograms().values().stream().mapToLong(Histogram::getTotalCount).sum();
+        StringBuilder summary = new StringBuilder("%n%-20s %10s %10s %10s %10s %10s %10s %10s %8s%n".formatted(
+                "operation", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors"));
+        Path reportPath = Path.of(reportDir);
+        Files.createDirectories(reportPath);
+        for (Map.Entry<LoadOperation, Histogram> entry : run.histograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            summary.append("%-20s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f %8d%n".formatted(entry.getKey().getName(),
+                    histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / MICROS_PER_MILLI, run.errors().get(entry.getKey())));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(reportPath.resolve(entry.getKey().getName() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        summary.append("%-20s %10d %10.1f".formatted("total", total, total / seconds));
+        log.info("{} clients for {} s:{}", concurrency, "%.1f".formatted(seconds), summary);
+        log.info("Latency distributions (ms) written to {}", reportPath.toAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Latencies and failures per operation, of a single client or merged over all of them.
+     */
+    private record LoadRun(Map<LoadOperation, Histogram> histograms, Map<LoadOperation, Long> errors,
+                           Map<LoadOperation, String> firstFailures, long elapsedNanos) {
+
+        static LoadRun empty() {
+            Map<LoadOperation, Histogram> histograms = new EnumMap<>(LoadOperation.class);
+            Map<LoadOperation, Long> errors = new EnumMap<>(LoadOperation.class);
+            for (LoadOperation operation : LoadOperation.values()) {
+                histograms.put(operation, new Histogram(SIGNIFICANT_DIGITS));
+                errors.put(operation, 0L);
+            }
+            return new LoadRun(histograms, errors, new EnumMap<>(LoadOperation.class), 0);
+        }
+
+        void failed(LoadOperation operation, String failure) {
+            errors.merge(operation, 1L, Long::sum);
+            firstFailures.putIfAbsent(operation, failure);
+        }
+
+        LoadRun merge(LoadRun other) {
+            other.histograms.forEach((operation, histogram) -> histograms.get(operation).add(histogram));
+            other.errors.forEach((operation, count) -> errors.merge(operation, count, Long::sum));
+            other.firstFailures.forEach(firstFailures::putIfAbsent);
+            return this;
+        }
+
+        LoadRun withElapsedNanos(long elapsedNanos) {
+            return new LoadRun(histograms, errors, firstFailures, elapsedNanos);
+        }
+
+    }
+
+}
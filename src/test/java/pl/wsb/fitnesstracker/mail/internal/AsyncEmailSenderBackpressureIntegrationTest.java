@@ -0,0 +1,86 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailQueueFullException;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The single worker sends the first email and then waits for the rate limiter for minutes with the second one, so the
+ * queue of two emails is full after a few sends.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "mail.delivery=async",
+        "mail.queue.capacity=2",
+        "mail.queue.enqueue-timeout=200ms",
+        "mail.queue.workers=1",
+        "mail.queue.batch-size=1",
+        "mail.queue.rate-per-second=0.01",
+        "mail.queue.burst=1",
+        "mail.queue.shutdown-timeout=100ms"
+})
+class AsyncEmailSenderBackpressureIntegrationTest extends IntegrationTestBase {
+
+    /**
+     * Emails accepted at most: the queued ones and the two taken by the worker.
+     */
+    private static final int MAX_ACCEPTED = 4;
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailSender emailSender;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static EmailDto email(int i) {
+        return new EmailDto("user%d@domain.com".formatted(i), "Subject %d".formatted(i), "Content %d".formatted(i));
+    }
+
+    @Test
+    void shouldRejectEmailAfterEnqueueTimeout_whenQueueIsFull() {
+        int accepted = 0;
+        while (true) {
+            long start = System.nanoTime();
+            try {
+                emailSender.send(email(accepted));
+            } catch (EmailQueueFullException e) {
+                assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+                assertThat(e).hasMessage("Email 'Subject %d' to user%d@domain.com was rejected, the mail queue is full", accepted, accepted);
+                break;
+            }
+            accepted++;
+            assertThat(accepted).isLessThanOrEqualTo(MAX_ACCEPTED);
+        }
+    }
+
+    @Test
+    void shouldRespondServiceUnavailable_whenReportRunFindsQueueFull() throws Exception {
+        for (int i = 0; i <= MAX_ACCEPTED; i++) {
+            existingUser(new User("Emma", "Johnson", LocalDate.of(1990, 1, 1), "emma.johnson%d@domain.com".formatted(i)));
+        }
+
+        mockMvc.perform(post("/v1/reports/monthly/{month}", "2024-05"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+}
@@ -0,0 +1,69 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@IntegrationTest
+@TestPropertySource(properties = {
+        "mail.delivery=async",
+        "mail.queue.batch-size=10",
+        "mail.queue.rate-per-second=20",
+        "mail.queue.burst=5",
+        "mail.queue.initial-backoff=100ms"
+})
+class AsyncEmailSenderIntegrationTest extends IntegrationTestBase {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailSender emailSender;
+
+    private static EmailDto email(int i) {
+        return new EmailDto("user%d@domain.com".formatted(i), "Subject %d".formatted(i), "Content %d".formatted(i));
+    }
+
+    @Test
+    void shouldSendQueuedEmailsAsynchronously_withinRateLimit() throws Exception {
+        assertThat(emailSender).isInstanceOf(AsyncEmailSender.class);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 30; i++) {
+            emailSender.send(email(i));
+        }
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(greenMail.getReceivedMessages()).hasSize(30));
+        // burst of 5, the remaining 25 at 20 per second
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(1100));
+        assertThat(greenMail.getReceivedMessagesForDomain("user7@domain.com")[0].getSubject()).isEqualTo("Subject 7");
+    }
+
+    @Test
+    void shouldRetryWithBackoff_whenSmtpServerIsUnavailable() throws Exception {
+        greenMail.stop();
+
+        for (int i = 0; i < 3; i++) {
+            emailSender.send(email(i));
+        }
+        Thread.sleep(300);
+        greenMail.start();
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(greenMail.getReceivedMessages()).hasSize(3));
+    }
+
+}
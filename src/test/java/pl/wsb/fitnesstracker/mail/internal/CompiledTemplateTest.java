@@ -0,0 +1,117 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import org.junit.jupiter.api.Test;
+import pl.wsb.fitnesstracker.mail.api.TemplateModel;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledTemplateTest {
+
+    @Test
+    void shouldRejectTemplate_whenTagUnclosed() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("greeting", "Hi {{firstName,\nbye", false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template greeting: unclosed tag at 3");
+    }
+
+    @Test
+    void shouldRejectTemplate_whenSectionUnclosed() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("report", "{{#items}}{{#details}}{{name}}{{/details}}", false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template report: unclosed section items");
+    }
+
+    @Test
+    void shouldRejectTemplate_whenSectionClosedByAnotherName() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("report", "{{#items}}{{name}}{{/details}}", false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template report: unexpected /details at 18");
+        assertThatThrownBy(() -> CompiledTemplate.compile("report", "{{name}}{{/items}}", false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template report: unexpected /items at 8");
+    }
+
+    @Test
+    void shouldRejectTemplate_whenTagEmpty() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("greeting", "Hi {{ }}", false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template greeting: empty tag at 3");
+    }
+
+    @Test
+    void shouldEscapeValues_whenRenderingHtml() {
+        TestModel model = new TestModel(Map.of("firstName", "<b>Tom & \"Jerry\"</b> O'Neil"), Map.of());
+
+        assertThat(render("<p>Hi {{firstName}}</p>", true, model))
+                .isEqualTo("<p>Hi &lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt; O&#39;Neil</p>");
+        assertThat(render("Hi {{ firstName }}", false, model))
+                .isEqualTo("Hi <b>Tom & \"Jerry\"</b> O'Neil");
+    }
+
+    @Test
+    void shouldRenderInvertedSectionOnlyWhenEmpty() {
+        String template = "{{^items}}none{{/items}}{{#items}}[{{name}}]{{/items}}";
+
+        assertThat(render(template, false, new TestModel(Map.of(), Map.of("items", List.of()))))
+                .isEqualTo("none");
+        assertThat(render(template, false, new TestModel(Map.of(), Map.of("items", List.of("a", "b")))))
+                .isEqualTo("[a][b]");
+    }
+
+    @Test
+    void shouldRenderNestedSections_resolvingVariablesOfEnteredItem() {
+        String template = "{{#items}}{{name}}:{{^empty}}+{{/empty}}{{#items}}{{name}}{{/items}};{{/items}}";
+        TestModel model = new TestModel(Map.of(), Map.of("items", List.of("a", "b"), "empty", List.of()));
+
+        assertThat(render(template, false, model)).isEqualTo("a:+ab;b:+ab;");
+    }
+
+    private static String render(String source, boolean html, TemplateModel model) {
+        StringBuilder out = new StringBuilder();
+        CompiledTemplate.compile("test", source, html).render(model, out, new StringBuilder());
+        return out.toString();
+    }
+
+    /**
+     * Model of fixed variables and sections of named items, {@code name} resolves to the item entered last.
+     */
+    private record TestModel(Map<String, String> variables, Map<String, List<String>> sections,
+                             Deque<String> entered) implements TemplateModel {
+
+        TestModel(Map<String, String> variables, Map<String, List<String>> sections) {
+            this(variables, sections, new ArrayDeque<>());
+        }
+
+        @Override
+        public void append(String variable, StringBuilder out) {
+            String value = "name".equals(variable) ? entered.peek() : variables.get(variable);
+            if (value == null) {
+                throw new IllegalArgumentException("Unknown variable " + variable);
+            }
+            out.append(value);
+        }
+
+        @Override
+        public int sectionSize(String section) {
+            return sections.getOrDefault(section, List.of()).size();
+        }
+
+        @Override
+        public void enterSection(String section, int index) {
+            entered.push(sections.get(section).get(index));
+        }
+
+        @Override
+        public void exitSection(String section) {
+            entered.pop();
+        }
+
+    }
+
+}
@@ -0,0 +1,141 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * The scheduled dispatch is effectively disabled by the long poll interval, the tests dispatch explicitly.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "mail.delivery=outbox",
+        "mail.outbox.poll-interval=1h",
+        "mail.outbox.batch-size=5",
+        "mail.outbox.rate-per-second=1000",
+        "mail.outbox.initial-backoff=0s"
+})
+class OutboxIntegrationTest extends IntegrationTestBase {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailSender emailSender;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUpOutbox() {
+        outboxEmailRepository.deleteAll();
+    }
+
+    private static EmailDto email(int i) {
+        return new EmailDto("user%d@domain.com".formatted(i), "Subject %d".formatted(i), "Content %d".formatted(i), "key-" + i);
+    }
+
+    @Test
+    void shouldSendCommittedEmailsOnce_whenSentWithSameIdempotencyKey() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailSender.send(email(1));
+            emailSender.send(email(2));
+        });
+        emailSender.send(email(1));
+
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(2);
+        assertThat(outboxDispatcher.dispatch()).isZero();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+        assertThat(outboxEmailRepository.findAll())
+                .extracting(OutboxEmail::getStatus)
+                .containsOnly(OutboxStatus.SENT);
+    }
+
+    @Test
+    void shouldNotSendEmail_whenBusinessTransactionRolledBack() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailSender.send(email(1));
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxDispatcher.dispatch()).isZero();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void shouldSendEveryEmailExactlyOnce_whenDispatchedConcurrently() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            emailSender.send(email(i));
+        }
+
+        ExecutorService dispatchers = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Integer>> runs = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                runs.add(() -> {
+                    int dispatched = 0;
+                    for (int claimed = outboxDispatcher.dispatch(); claimed > 0; claimed = outboxDispatcher.dispatch()) {
+                        dispatched += claimed;
+                    }
+                    return dispatched;
+                });
+            }
+            int dispatched = 0;
+            for (Future<Integer> run : dispatchers.invokeAll(runs)) {
+                dispatched += run.get();
+            }
+            assertThat(dispatched).isEqualTo(40);
+        } finally {
+            dispatchers.shutdownNow();
+        }
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(40);
+    }
+
+    @Test
+    void shouldRetryEmail_whenSmtpServerWasUnavailable() throws Exception {
+        emailSender.send(email(1));
+        greenMail.stop();
+
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(1);
+        assertThat(outboxEmailRepository.findAll())
+                .singleElement()
+                .satisfies(email -> {
+                    assertThat(email.getStatus()).isEqualTo(OutboxStatus.PENDING);
+                    assertThat(email.getAttempts()).isEqualTo(1);
+                    assertThat(email.getLastError()).isNotBlank();
+                });
+
+        greenMail.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> outboxDispatcher.dispatch() == 1);
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+    }
+
+}
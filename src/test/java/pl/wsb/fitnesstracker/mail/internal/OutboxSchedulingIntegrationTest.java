@@ -0,0 +1,69 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.TestPropertySource;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@IntegrationTest
+@TestPropertySource(properties = {
+        "mail.delivery=outbox",
+        "mail.outbox.poll-interval=100ms",
+        "mail.outbox.rate-per-second=1000"
+})
+class OutboxSchedulingIntegrationTest extends IntegrationTestBase {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailSender emailSender;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    private final CountDownLatch jobReleased = new CountDownLatch(1);
+
+    @AfterEach
+    void cleanUpOutbox() {
+        jobReleased.countDown();
+        outboxEmailRepository.deleteAll();
+    }
+
+    @Test
+    void shouldDispatchEmails_whileScheduledJobIsRunning() throws Exception {
+        CountDownLatch jobStarted = new CountDownLatch(1);
+        taskScheduler.schedule(() -> {
+            jobStarted.countDown();
+            try {
+                jobReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, taskScheduler.getClock().instant());
+        assertThat(jobStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        emailSender.send(new EmailDto("user@domain.com", "Subject", "Content", "key-1"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> greenMail.getReceivedMessages().length == 1);
+    }
+
+}
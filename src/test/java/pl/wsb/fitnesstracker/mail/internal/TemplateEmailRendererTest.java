@@ -0,0 +1,109 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import org.junit.jupiter.api.Test;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.TemplateModel;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Renders the {@code monthly-report} template shipped with the application.
+ */
+class TemplateEmailRendererTest {
+
+    private final TemplateEmailRenderer renderer = new TemplateEmailRenderer();
+
+    TemplateEmailRendererTest() throws IOException {
+    }
+
+    @Test
+    void shouldEscapeUserValuesInHtmlBodyOnly() {
+        EmailDto email = renderer.render("monthly-report", "tom@domain.com", new ReportModel("<Tom> & \"Jerry\"", 0), null);
+
+        assertThat(email.htmlContent()).contains("<p>Hi &lt;Tom&gt; &amp; &quot;Jerry&quot;,</p>");
+        assertThat(email.content()).startsWith("Hi <Tom> & \"Jerry\",");
+        assertThat(email.subject()).isEqualTo("Your training report for March 2024");
+    }
+
+    @Test
+    void shouldRenderInvertedSection_whenUserHasNoTrainings() {
+        EmailDto email = renderer.render("monthly-report", "tom@domain.com", new ReportModel("Tom", 0), null);
+
+        assertThat(email.content())
+                .contains("you have not recorded any trainings in March 2024.")
+                .doesNotContain("Total:");
+        assertThat(email.htmlContent()).doesNotContain("<table>");
+    }
+
+    @Test
+    void shouldRenderActivities_whenUserHasTrainings() {
+        EmailDto email = renderer.render("monthly-report", "tom@domain.com", new ReportModel("Tom", 2), "monthly-report/2024-03/1");
+
+        assertThat(email.content())
+                .contains("- Activity 0: 1 trainings,  km, \n- Activity 1: 1 trainings,  km, \n")
+                .contains("Total: 2 trainings")
+                .doesNotContain("you have not recorded");
+        assertThat(email.idempotencyKey()).isEqualTo("monthly-report/2024-03/1");
+    }
+
+    @Test
+    void shouldRejectUnknownTemplate() {
+        assertThatThrownBy(() -> renderer.render("weekly-report", "tom@domain.com", new ReportModel("Tom", 0), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Email template weekly-report does not exist");
+    }
+
+    /**
+     * Report of the given number of activities with one training each, distances and durations left empty.
+     */
+    private static final class ReportModel implements TemplateModel {
+
+        private final String firstName;
+
+        private final int activities;
+
+        private int activity = -1;
+
+        private ReportModel(String firstName, int activities) {
+            this.firstName = firstName;
+            this.activities = activities;
+        }
+
+        @Override
+        public void append(String variable, StringBuilder out) {
+            switch (variable) {
+                case "firstName" -> out.append(firstName);
+                case "month" -> out.append("March 2024");
+                case "activity" -> out.append("Activity ").append(activity);
+                case "trainings" -> out.append(activity >= 0 ? 1 : activities).append(" trainings");
+                case "distance", "duration" -> {
+                }
+                default -> throw new IllegalArgumentException(variable);
+            }
+        }
+
+        @Override
+        public int sectionSize(String section) {
+            return "activities".equals(section) ? activities : Math.min(activities, 1);
+        }
+
+        @Override
+        public void enterSection(String section, int index) {
+            if ("activities".equals(section)) {
+                activity = index;
+            }
+        }
+
+        @Override
+        public void exitSection(String section) {
+            if ("activities".equals(section)) {
+                activity = -1;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureObservability(tracing = false)
+@TestPropertySource(properties = {"management.endpoints.web.exposure.include=prometheus,sqlprofile", "monitoring.sql-profile.slow-threshold=0ms"})
+class MonitoringIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldTimeServiceCallsAndCountStatements_whenServingRequest() throws Exception {
+        User user = existingUser(new User("Emma", "Wilson", LocalDate.of(1990, 5, 1), "emma.wilson@domain.com"));
+        long calls = serviceCalls("UserProvider", "getUser", "none");
+        long requests = statementCounts("/v1/users/{userId}");
+
+        mockMvc.perform(get("/v1/users/{userId}", user.getId()))
+                .andExpect(status().isOk());
+
+        assertThat(serviceCalls("UserProvider", "getUser", "none")).isEqualTo(calls + 1);
+        assertThat(statementCounts("/v1/users/{userId}")).isEqualTo(requests + 1);
+    }
+
+    @Test
+    void shouldTagServiceCallWithException_whenCallFails() throws Exception {
+        long failures = serviceCalls("TrainingService", "deleteTraining", "TrainingNotFoundException");
+
+        mockMvc.perform(delete("/v1/trainings/{trainingId}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+
+        assertThat(serviceCalls("TrainingService", "deleteTraining", "TrainingNotFoundException")).isEqualTo(failures + 1);
+    }
+
+    @Test
+    void shouldExposeServiceAndHibernateMetrics_whenScrapedByPrometheus() throws Exception {
+        mockMvc.perform(get("/v1/users"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("service_calls_seconds_count{component=\"UserProvider\",exception=\"none\",method=\"findAllUsers\"")))
+                .andExpect(content().string(containsString("http_server_requests_statements_count")))
+                .andExpect(content().string(containsString("hibernate_statements_total")));
+    }
+
+    @Test
+    void shouldListRequestWithItsSql_whenRequestWasSlow() throws Exception {
+        User user = existingUser(new User("Liam", "Brown", LocalDate.of(1985, 2, 3), "liam.brown@domain.com"));
+        persistTraining(new Training(user, new Date(1_700_000_000_000L), new Date(1_700_003_600_000L), ActivityType.RUNNING, 10, 10));
+        persistTraining(new Training(user, new Date(1_700_100_000_000L), new Date(1_700_103_600_000L), ActivityType.CYCLING, 30, 20));
+        mockMvc.perform(delete("/actuator/sqlprofile"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId()))
+                .andExpect(status().isOk());
+
+        String trainingsRequest = "$[?(@.uri == '/v1/trainings/{userId}')]";
+        mockMvc.perform(get("/actuator/sqlprofile"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(trainingsRequest + ".path").value("/v1/trainings/" + user.getId()))
+                .andExpect(jsonPath(trainingsRequest + ".status").value(200))
+                .andExpect(jsonPath(trainingsRequest + ".statements").value(1))
+                .andExpect(jsonPath(trainingsRequest + ".hydratedEntities").value(3))
+                .andExpect(jsonPath(trainingsRequest + ".sql[0].sql").value(hasItem(containsString("from trainings"))))
+                .andExpect(jsonPath(trainingsRequest + ".sql[0].count").value(1));
+    }
+
+    private long serviceCalls(String component, String method, String exception) {
+        Timer timer = meterRegistry.find(ServiceMetricsAspect.METRIC_NAME)
+                .tags("component", component, "method", method, "exception", exception)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private long statementCounts(String uri) {
+        DistributionSummary summary = meterRegistry.find(SqlProfileFilter.STATEMENTS_METRIC_NAME)
+                .tags("method", "GET", "uri", uri)
+                .summary();
+        return summary == null ? 0 : summary.count();
+    }
+
+}
@@ -0,0 +1,63 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.wsb.fitnesstracker.BenchmarkApplication;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailRenderer;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Rendering of the {@code monthly-report} template (subject, text and HTML body) with the {@link MonthlyReportModel}
+ * the {@link MonthlyReportJob} sends. Run with {@code -prof gc}, the allocation rate per operation should amount
+ * to the three resulting strings and the {@link EmailDto}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class MailTemplateBenchmark {
+
+    @Param({"0", "5"})
+    private int activities;
+
+    private ConfigurableApplicationContext context;
+
+    private EmailRenderer renderer;
+
+    private MonthlyReportModel model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("mail-template");
+        renderer = context.getBean(EmailRenderer.class);
+        List<ActivityType> activityTypes = Arrays.asList(ActivityType.values());
+        List<MonthlyTrainingAggregate> aggregates = IntStream.range(0, activities)
+                .mapToObj(activity -> new MonthlyTrainingAggregate(1L, activityTypes.get(activity % activityTypes.size()),
+                        activity + 2, activity + 10.5, (activity + 1) * 5400L))
+                .toList();
+        model = new MonthlyReportModel(new User("John", "Doe", LocalDate.of(1990, 1, 1), "john.doe@domain.com"),
+                YearMonth.of(2024, 3), aggregates);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public EmailDto render() {
+        return renderer.render("monthly-report", "john.doe@domain.com", model, "monthly-report/2024-03/1");
+    }
+
+}
@@ -0,0 +1,251 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not transactional, the chunks are processed on the worker pool in their own transactions.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {"notification.monthly-report.chunk-size=2", "notification.monthly-report.parallelism=2"})
+class MonthlyReportJobIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MonthlyReportJob monthlyReportJob;
+
+    @Autowired
+    private MonthlyReportRepository monthlyReportRepository;
+
+    @Autowired
+    private RecordingEmailSender emailSender;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void cleanUpReports() {
+        monthlyReportRepository.deleteAll();
+        emailSender.clear();
+    }
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID() + "@domain.com");
+    }
+
+    private static Training generateTraining(User user, String startTime, String endTime, ActivityType activityType, double distance) throws ParseException {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        return new Training(user, sdf.parse(startTime), sdf.parse(endTime), activityType, distance, 10);
+    }
+
+    @Test
+    void shouldSendMonthlyReportToAllUsers() throws Exception {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        persistTraining(generateTraining(user1, "2024-03-01 08:00:00", "2024-03-01 09:00:00", ActivityType.RUNNING, 10));
+        persistTraining(generateTraining(user1, "2024-03-31 18:00:00", "2024-03-31 18:30:00", ActivityType.RUNNING, 5.5));
+        persistTraining(generateTraining(user1, "2024-04-01 08:00:00", "2024-04-01 09:00:00", ActivityType.RUNNING, 10));
+        persistTraining(generateTraining(user3, "2024-03-15 10:00:00", "2024-03-15 12:15:00", ActivityType.CYCLING, 42));
+
+        ReportCheckpoint checkpoint = monthlyReportJob.run(YearMonth.of(2024, 3));
+
+        assertThat(checkpoint.isCompleted()).isTrue();
+        assertThat(checkpoint.getProcessedUsers()).isEqualTo(3);
+        assertThat(checkpoint.getLastUserId()).isEqualTo(user3.getId());
+        Map<String, EmailDto> emails = emailSender.sentByAddress();
+        assertThat(emails).containsOnlyKeys(user1.getEmail(), user2.getEmail(), user3.getEmail());
+        assertThat(emails.get(user1.getEmail()).subject()).isEqualTo("Your training report for March 2024");
+        assertThat(emails.get(user1.getEmail()).content())
+                .contains("- Running: 2 trainings, 15.5 km, 1 h 30 min")
+                .contains("Total: 2 trainings, 15.5 km, 1 h 30 min");
+        assertThat(emails.get(user1.getEmail()).htmlContent())
+                .contains("<tr><td>Running</td><td>2 trainings</td><td>15.5 km</td><td>1 h 30 min</td></tr>");
+        assertThat(emails.get(user2.getEmail()).content()).contains("you have not recorded any trainings in March 2024.");
+        assertThat(emails.get(user3.getEmail()).content()).contains("- Cycling: 1 training, 42.0 km, 2 h 15 min");
+
+        monthlyReportJob.run(YearMonth.of(2024, 3));
+
+        assertThat(emailSender.sentCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldResumeAfterCheckpoint_whenReportWasInterrupted() {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        ReportCheckpoint interrupted = new ReportCheckpoint("monthly-2024-02");
+        interrupted.setLastUserId(user1.getId());
+        interrupted.setProcessedUsers(1);
+        monthlyReportRepository.save(interrupted);
+
+        ReportCheckpoint checkpoint = monthlyReportJob.run(YearMonth.of(2024, 2));
+
+        assertThat(checkpoint.isCompleted()).isTrue();
+        assertThat(checkpoint.getProcessedUsers()).isEqualTo(3);
+        assertThat(emailSender.sentByAddress()).containsOnlyKeys(user2.getEmail(), user3.getEmail());
+    }
+
+    @Test
+    void shouldResumeBeforeFailedChunk_whenSendingReportFailed() {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        emailSender.failFor(user2.getEmail());
+
+        assertThatThrownBy(() -> monthlyReportJob.run(YearMonth.of(2024, 3)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Report monthly-2024-03 failed")
+                .hasRootCauseMessage("Sending monthly report to 1 of 2 users from User %d failed".formatted(user1.getId()));
+        assertThat(monthlyReportRepository.findById("monthly-2024-03")).isEmpty();
+
+        emailSender.failFor(null);
+        ReportCheckpoint checkpoint = monthlyReportJob.run(YearMonth.of(2024, 3));
+
+        assertThat(checkpoint.isCompleted()).isTrue();
+        assertThat(checkpoint.getProcessedUsers()).isEqualTo(3);
+        // the reports sent before the failure are sent again, deduplicated by their idempotency key with the outbox
+        assertThat(emailSender.sentAddresses())
+                .containsOnly(user1.getEmail(), user2.getEmail(), user3.getEmail())
+                .containsOnlyOnce(user2.getEmail());
+    }
+
+    @Test
+    void shouldRejectRun_whenReportAlreadyRunning() throws Exception {
+        User user = existingUser(generateClient());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = emailSender.blockUntil(release);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ReportCheckpoint> running = executor.submit(() -> monthlyReportJob.run(YearMonth.of(2024, 3)));
+            assertThat(entered.await(10, TimeUnit.SECONDS)).isTrue();
+
+            mockMvc.perform(post("/v1/reports/monthly/{month}", "2024-04"))
+                    .andExpect(status().isConflict());
+
+            release.countDown();
+            assertThat(running.get(10, TimeUnit.SECONDS).isCompleted()).isTrue();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        mockMvc.perform(post("/v1/reports/monthly/{month}", "2024-03"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reportKey").value("monthly-2024-03"))
+                .andExpect(jsonPath("$.lastUserId").value(user.getId().intValue()))
+                .andExpect(jsonPath("$.processedUsers").value(1))
+                .andExpect(jsonPath("$.completed").value(true));
+    }
+
+    @TestConfiguration
+    static class RecordingEmailSenderConfig {
+
+        @Bean
+        @Primary
+        RecordingEmailSender recordingEmailSender() {
+            return new RecordingEmailSender();
+        }
+
+    }
+
+    static class RecordingEmailSender implements EmailSender {
+
+        private final Queue<EmailDto> sent = new ConcurrentLinkedQueue<>();
+
+        private volatile String failingAddress;
+
+        private volatile CountDownLatch entered;
+
+        private volatile CountDownLatch release;
+
+        @Override
+        public void send(EmailDto email) {
+            if (email.toAddress().equals(failingAddress)) {
+                throw new IllegalStateException("Sending to " + failingAddress + " failed");
+            }
+            if (release != null) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(email);
+        }
+
+        @Override
+        public boolean isDeliveryGuaranteed() {
+            return true;
+        }
+
+        // accessed through methods, the bean is proxied by the service metrics aspect
+        void clear() {
+            sent.clear();
+            failingAddress = null;
+            release = null;
+        }
+
+        void failFor(String address) {
+            failingAddress = address;
+        }
+
+        /**
+         * @return latch released once a send is blocked until the given latch is released
+         */
+        CountDownLatch blockUntil(CountDownLatch release) {
+            entered = new CountDownLatch(1);
+            this.release = release;
+            return entered;
+        }
+
+        int sentCount() {
+            return sent.size();
+        }
+
+        List<String> sentAddresses() {
+            return sent.stream().map(EmailDto::toAddress).toList();
+        }
+
+        Map<String, EmailDto> sentByAddress() {
+            return sent.stream().collect(Collectors.toMap(EmailDto::toAddress, email -> email));
+        }
+
+    }
+
+}
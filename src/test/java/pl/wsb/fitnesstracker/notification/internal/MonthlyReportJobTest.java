@@ -0,0 +1,38 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import org.junit.jupiter.api.Test;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MonthlyReportJobTest {
+
+    private final EmailSender emailSender = mock(EmailSender.class);
+
+    @Test
+    void shouldRefuseSender_whenDeliveryNotGuaranteedAndAtMostOnceDeliveryNotConfigured() {
+        when(emailSender.isDeliveryGuaranteed()).thenReturn(false);
+
+        assertThatThrownBy(() -> job(false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("notification.monthly-report.at-most-once-delivery");
+        assertThatCode(() -> job(true)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldAcceptSender_whenDeliveryGuaranteed() {
+        when(emailSender.isDeliveryGuaranteed()).thenReturn(true);
+
+        assertThatCode(() -> job(false)).doesNotThrowAnyException();
+    }
+
+    private MonthlyReportJob job(boolean atMostOnceDelivery) {
+        return new MonthlyReportJob(mock(UserProvider.class), mock(MonthlyReportRepository.class), mock(MonthlyReportFormatter.class),
+                emailSender, mock(MonthlyReportMetrics.class), new MonthlyReportProperties("-", 500, 4, atMostOnceDelivery));
+    }
+
+}
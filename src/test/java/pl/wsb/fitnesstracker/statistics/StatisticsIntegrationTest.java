@@ -0,0 +1,262 @@
+package pl.wsb.fitnesstracker.statistics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingService;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not transactional, the statistics are written by the API calls and the reconciliation reads them from other threads.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class StatisticsIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TrainingService trainingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    /**
+     * One hour of running at 8.5 km/h, estimated at 9.8 MET * 70 kg * 1 h = 686 kcal.
+     */
+    private static String trainingJson(Long userId, double distance) {
+        return """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": %s,
+                    "averageSpeed": 8.5
+                }
+                """.formatted(userId, distance);
+    }
+
+    @Test
+    void shouldApplyTrainingWritesToStatistics() throws Exception {
+        User user = existingUser(generateClient());
+
+        String created = mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(trainingJson(user.getId(), 10.5)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long trainingId = objectMapper.readTree(created).get("id").asLong();
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(trainingJson(user.getId(), 4.5)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTrainings").value(2))
+                .andExpect(jsonPath("$.totalDistance").value(closeTo(15.0, 1e-9)))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(2 * 686));
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId).contentType(MediaType.APPLICATION_JSON).content(trainingJson(user.getId(), 20.0)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(2))
+                .andExpect(jsonPath("$.totalDistance").value(closeTo(24.5, 1e-9)));
+
+        mockMvc.perform(delete("/v1/trainings/{trainingId}", trainingId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(1))
+                .andExpect(jsonPath("$.totalDistance").value(closeTo(4.5, 1e-9)))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(686));
+    }
+
+    @Test
+    void shouldApplyBatchIngestionToStatistics() throws Exception {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[%s,%s,%s]".formatted(trainingJson(user1.getId(), 1), trainingJson(user1.getId(), 2), trainingJson(user2.getId(), 3))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(3));
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user1.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(2))
+                .andExpect(jsonPath("$.totalDistance").value(closeTo(3.0, 1e-9)));
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user2.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(1))
+                .andExpect(jsonPath("$.totalDistance").value(closeTo(3.0, 1e-9)));
+    }
+
+    @Test
+    void shouldReportAndRepairDrift_whenTrainingsWereWrittenAroundTheStatistics() throws Exception {
+        User user = existingUser(generateClient());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(trainingJson(user.getId(), 5)))
+                .andExpect(status().isCreated());
+        persistTraining(generateTraining(user, 7));
+
+        mockMvc.perform(post("/v1/statistics/reconciliation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usersChecked").value(1))
+                .andExpect(jsonPath("$.drifts.length()").value(1))
+                .andExpect(jsonPath("$.drifts[0].userId").value(user.getId()))
+                .andExpect(jsonPath("$.drifts[0].stored.trainings").value(1))
+                .andExpect(jsonPath("$.drifts[0].expected.trainings").value(2))
+                .andExpect(jsonPath("$.drifts[0].expected.calories").value(686 + 840));
+
+        mockMvc.perform(post("/v1/statistics/reconciliation").param("repair", "true"))
+                .andExpect(jsonPath("$.drifts.length()").value(1));
+
+        mockMvc.perform(post("/v1/statistics/reconciliation"))
+                .andExpect(jsonPath("$.drifts.length()").value(0));
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(2))
+                .andExpect(jsonPath("$.totalDistance").value(closeTo(12.0, 1e-9)))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(686 + 840));
+    }
+
+    @Test
+    void shouldKeepTrainingWrittenDuringRepair_whenRepairingDrift() throws Exception {
+        User user = existingUser(generateClient());
+        trainingService.createTraining(user.getId(), generateTraining(null, 1));
+        persistTraining(generateTraining(user, 2));
+        Training written = generateTraining(null, 4);
+
+        CompletableFuture<Void> repair = new TransactionTemplate(transactionManager).execute(status -> {
+            // the training write holds the lock of the statistics row until it commits, after the repair found the drift
+            trainingService.createTraining(user.getId(), written);
+            CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+                try {
+                    mockMvc.perform(post("/v1/statistics/reconciliation").param("repair", "true"))
+                            .andExpect(jsonPath("$.drifts.length()").value(1));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return running;
+        });
+        repair.get(1, TimeUnit.MINUTES);
+
+        mockMvc.perform(post("/v1/statistics/reconciliation"))
+                .andExpect(jsonPath("$.drifts.length()").value(0));
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(3))
+                .andExpect(jsonPath("$.totalDistance").value(closeTo(7.0, 1e-9)));
+    }
+
+    @Test
+    void shouldCountEveryTraining_whenFirstTrainingsOfUserCreatedConcurrently() throws Exception {
+        for (int round = 0; round < 5; round++) {
+            User user = existingUser(generateClient());
+
+            runConcurrently(8, thread -> trainingService.createTraining(user.getId(), generateTraining(null, 1)));
+
+            mockMvc.perform(get("/v1/statistics/user/{userId}", user.getId()))
+                    .andExpect(jsonPath("$.totalTrainings").value(8))
+                    .andExpect(jsonPath("$.totalDistance").value(closeTo(8.0, 1e-9)));
+        }
+    }
+
+    @Test
+    void shouldMoveTrainings_whenMovedBetweenTwoUsersInOppositeDirectionsConcurrently() throws Exception {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        Training training1 = trainingService.createTraining(user1.getId(), generateTraining(null, 1));
+        Training training2 = trainingService.createTraining(user2.getId(), generateTraining(null, 2));
+
+        runConcurrently(2, thread -> {
+            Training training = thread == 0 ? training1 : training2;
+            User from = thread == 0 ? user1 : user2;
+            User to = thread == 0 ? user2 : user1;
+            for (int move = 0; move < 50; move++) {
+                trainingService.updateTraining(training.getId(), (move % 2 == 0 ? to : from).getId(), training);
+            }
+        });
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user1.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(1))
+                .andExpect(jsonPath("$.totalDistance").value(closeTo(1.0, 1e-9)));
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user2.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(1))
+                .andExpect(jsonPath("$.totalDistance").value(closeTo(2.0, 1e-9)));
+    }
+
+    /**
+     * Runs the task on the given number of threads, started together, and waits for all of them to complete.
+     */
+    private static void runConcurrently(int threads, ConcurrentTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int index = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ConcurrentTask {
+
+        void run(int thread) throws Exception;
+
+    }
+
+    /**
+     * 1.5 hours of cycling at 20 km/h, estimated at 8.0 MET * 70 kg * 1.5 h = 840 kcal.
+     */
+    private static Training generateTraining(User user, double distance) throws ParseException {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        return new Training(user, sdf.parse("2024-01-19 08:00:00"), sdf.parse("2024-01-19 09:30:00"), ActivityType.CYCLING, distance, 20);
+    }
+
+}
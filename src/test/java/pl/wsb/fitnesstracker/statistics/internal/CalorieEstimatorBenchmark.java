@@ -0,0 +1,61 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.openjdk.jmh.annotations.*;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded throughput of the {@link CalorieEstimator} over a column of random trainings, as in the bulk
+ * recomputation of the statistics. One operation is one training, so the score is trainings per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class CalorieEstimatorBenchmark {
+
+    private static final int TRAININGS = 1_000_000;
+
+    private CalorieEstimator calorieEstimator;
+
+    private ActivityType[] activityTypes;
+
+    private double[] averageSpeeds;
+
+    private double[] distances;
+
+    private long[] durations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calorieEstimator = new CalorieEstimator(new CalorieProperties(70));
+        SplittableRandom random = new SplittableRandom(42);
+        activityTypes = new ActivityType[TRAININGS];
+        averageSpeeds = new double[TRAININGS];
+        distances = new double[TRAININGS];
+        durations = new long[TRAININGS];
+        for (int i = 0; i < TRAININGS; i++) {
+            activityTypes[i] = ActivityType.values()[random.nextInt(ActivityType.values().length)];
+            // every tenth training without a recorded speed, falling back to distance over duration
+            averageSpeeds[i] = i % 10 == 0 ? 0 : random.nextDouble(1, 40);
+            distances[i] = random.nextDouble(0, 40);
+            durations[i] = random.nextLong(600_000, 10_800_000);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRAININGS)
+    public long estimate() {
+        long calories = 0;
+        for (int i = 0; i < TRAININGS; i++) {
+            calories += calorieEstimator.estimate(activityTypes[i], averageSpeeds[i], distances[i], durations[i]);
+        }
+        return calories;
+    }
+
+}
@@ -0,0 +1,69 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkApplication;
+import pl.wsb.fitnesstracker.BenchmarkData;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the {@link StatisticsReconciliationJob} recomputing the statistics of all users from their trainings
+ * (no drift, so nothing is written), next to the lookup of the stored statistics of a single user served
+ * by {@code GET /v1/statistics/user/{userId}}. The statistics are created by a repairing run during the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StatisticsAggregationBenchmark {
+
+    @Param({"10000"})
+    private int users;
+
+    @Param({"10", "100"})
+    private int trainingsPerUser;
+
+    private ConfigurableApplicationContext context;
+
+    private StatisticsReconciliationJob reconciliationJob;
+
+    private StatisticsRepository statisticsRepository;
+
+    private Long[] userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("statistics-aggregation-%d-%d".formatted(users, trainingsPerUser));
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedUsers(jdbcTemplate, users);
+        BenchmarkData.seedTrainings(jdbcTemplate, trainingsPerUser);
+        userIds = jdbcTemplate.queryForList("select id from users", Long.class).toArray(Long[]::new);
+        reconciliationJob = context.getBean(StatisticsReconciliationJob.class);
+        statisticsRepository = context.getBean(StatisticsRepository.class);
+        reconciliationJob.reconcile(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public StatisticsReconciliationReport recomputeAll() {
+        return reconciliationJob.reconcile(false);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Optional<Statistics> byUser() {
+        return statisticsRepository.findByUserId(userIds[ThreadLocalRandom.current().nextInt(userIds.length)]);
+    }
+
+}
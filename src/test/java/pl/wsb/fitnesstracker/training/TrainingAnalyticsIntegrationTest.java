@@ -0,0 +1,97 @@
+package pl.wsb.fitnesstracker.training;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Aggregates served by the in-memory column store, which only sees committed trainings, so the test is not transactional.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingAnalyticsIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JpaRepository<Training, Long> trainingRepository;
+
+    @Test
+    void shouldAggregateTrainings_whenTrainingsWrittenUpdatedAndDeleted() throws Exception {
+        User john = existingUser(generateClient());
+        User jane = existingUser(generateClient());
+        persistTraining(training(john, "2024-03-05T08:00", ActivityType.RUNNING, 10, 10));
+        persistTraining(training(john, "2024-03-20T08:00", ActivityType.RUNNING, 5, 12));
+        Training cycling = persistTraining(training(jane, "2024-04-02T08:00", ActivityType.CYCLING, 30, 20));
+        Training outOfRange = persistTraining(training(jane, "2023-12-31T08:00", ActivityType.CYCLING, 100, 25));
+
+        mockMvc.perform(get("/v1/trainings/analytics/activities").param("from", "2024-01-01").param("to", "2025-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].activityType").value("RUNNING"))
+                .andExpect(jsonPath("$[0].trainings").value(2))
+                .andExpect(jsonPath("$[0].distance").value(closeTo(15.0, 1e-9)))
+                .andExpect(jsonPath("$[1].activityType").value("CYCLING"))
+                .andExpect(jsonPath("$[1].distance").value(closeTo(30.0, 1e-9)));
+
+        mockMvc.perform(get("/v1/trainings/analytics/months").param("from", "2024-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].month").value("2024-03"))
+                .andExpect(jsonPath("$[0].averageSpeed").value(closeTo(11.0, 1e-9)))
+                .andExpect(jsonPath("$[1].month").value("2024-04"))
+                .andExpect(jsonPath("$[1].averageSpeed").value(closeTo(20.0, 1e-9)));
+
+        mockMvc.perform(get("/v1/trainings/analytics/top-users").param("from", "2024-01-01").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].userId").value(jane.getId()))
+                .andExpect(jsonPath("$[0].distance").value(closeTo(30.0, 1e-9)));
+
+        cycling.setDistance(3);
+        trainingRepository.save(cycling);
+        trainingRepository.delete(outOfRange);
+
+        mockMvc.perform(get("/v1/trainings/analytics/top-users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].userId").value(john.getId()))
+                .andExpect(jsonPath("$[0].trainings").value(2))
+                .andExpect(jsonPath("$[1].userId").value(jane.getId()))
+                .andExpect(jsonPath("$[1].distance").value(closeTo(3.0, 1e-9)));
+    }
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    private static Training training(User user, String start, ActivityType activityType, double distance, double averageSpeed) {
+        LocalDateTime startTime = LocalDateTime.parse(start);
+        return new Training(user, toDate(startTime), toDate(startTime.plusHours(1)), activityType, distance, averageSpeed);
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+}
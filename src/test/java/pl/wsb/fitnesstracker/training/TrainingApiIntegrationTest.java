@@ -17,6 +17,8 @@ import java.text.SimpleDateFormat;
 
 import static java.time.LocalDate.now;
 import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.startsWith;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -194,6 +196,80 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
 
     }
 
+    @Test
+    void shouldPersistValidTrainingsAndReportInvalid_whenCreatingTrainingsInBatch() throws Exception {
+
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                [
+                    {"userId": %1$s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5},
+                    {"userId": %1$s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T09:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5},
+                    {"userId": -1, "startTime": "2024-04-02T10:00:00", "endTime": "2024-04-02T11:00:00", "activityType": "CYCLING", "distance": 20.0, "averageSpeed": 20.0},
+                    {"userId": %1$s, "startTime": "2024-04-03T10:00:00", "endTime": "2024-04-03T11:00:00", "activityType": "WALKING", "distance": 5.0, "averageSpeed": 5.0}
+                ]
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.failed").value(0))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[0].trainingId").isNumber())
+                .andExpect(jsonPath("$.items[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.items[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$.items[3].index").value(3))
+                .andExpect(jsonPath("$.items[3].status").value("CREATED"));
+
+        assertThat(getAllTrainings()).hasSize(2);
+    }
+
+    @Test
+    void shouldPersistTrainings_whenCreatingTrainingsInBatchFromNdjson() throws Exception {
+
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                {"userId": %1$s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5}
+                {"userId": %1$s, "startTime": "2024-04-02T10:00:00", "endTime": "2024-04-02T11:00:00", "activityType": "SWIMMING", "distance": 1.5, "averageSpeed": 1.5}
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_NDJSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.items[1].status").value("CREATED"));
+
+        assertThat(getAllTrainings()).hasSize(2);
+    }
+
+    @Test
+    void shouldRejectMalformedLineAndPersistOthers_whenCreatingTrainingsInBatchFromNdjson() throws Exception {
+
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                {"userId": %1$s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5}
+                {"userId": %1$s, "startTime": "2024-04-02T10:00:00", "endTime": "2024-04-02T11:00:00", "activityType": "FLYING", "distance": 1.5, "averageSpeed": 1.5}
+                {"userId": %1$s, "startTime": "2024-04-03T10:00:00",
+
+                {"userId": %1$s, "startTime": "2024-04-04T10:00:00", "endTime": "2024-04-04T11:00:00", "activityType": "SWIMMING", "distance": 1.5, "averageSpeed": 1.5}
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_NDJSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.items[1].error").value(startsWith("Malformed training: ")))
+                .andExpect(jsonPath("$.items[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$.items[3].index").value(3))
+                .andExpect(jsonPath("$.items[3].status").value("CREATED"));
+
+        assertThat(getAllTrainings()).hasSize(2);
+    }
+
     @Test
     void shouldUpdateTraining_whenUpdatingTraining() throws Exception {
 
@@ -221,6 +297,78 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.averageSpeed").value(0.0));
     }
 
+    @Test
+    void shouldRejectTraining_whenUserIdMissing() throws Exception {
 
-}
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithActivityType(user1, ActivityType.RUNNING));
+        String requestBody = """
+                {
+                "startTime": "2024-04-01T10:00:00",
+                "endTime": "2024-04-01T11:00:00",
+                "activityType": "RUNNING",
+                "distance": 10.5,
+                "averageSpeed": 10.5
+                }
+                """;
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/v1/trainings/{trainingId}", training1.getId()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+
+        assertThat(getAllTrainings()).hasSize(1);
+    }
+
+    @Test
+    void shouldRejectTraining_whenDistanceNegative() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithActivityType(user1, ActivityType.RUNNING));
+        String requestBody = """
+                {
+                "userId": "%s",
+                "startTime": "2024-04-01T10:00:00",
+                "endTime": "2024-04-01T11:00:00",
+                "activityType": "RUNNING",
+                "distance": -10.5,
+                "averageSpeed": 10.5
+                }
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/v1/trainings/{trainingId}", training1.getId()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
 
+        assertThat(getAllTrainings()).extracting(Training::getDistance).containsExactly(0.0);
+    }
+
+    @Test
+    void shouldRejectTraining_whenEndTimeBeforeStartTime() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithActivityType(user1, ActivityType.RUNNING));
+        String requestBody = """
+                {
+                "userId": "%s",
+                "startTime": "2024-04-01T10:00:00",
+                "endTime": "2024-04-01T09:00:00",
+                "activityType": "RUNNING",
+                "distance": 10.5,
+                "averageSpeed": 10.5
+                }
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/v1/trainings/{trainingId}", training1.getId()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+
+        assertThat(getAllTrainings()).extracting(Training::getEndTime).containsExactly(training1.getEndTime());
+    }
+
+}
@@ -0,0 +1,108 @@
+package pl.wsb.fitnesstracker.training;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exports are streamed from a database cursor on the async request thread, so the test data has to be committed.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingExportIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldExportTrainingsOfUserAsCsv() throws Exception {
+        User user = existingUser(generateClient());
+        User otherUser = existingUser(generateClient());
+        Training second = persistTraining(training(user, "2024-03-05T09:00:00Z", ActivityType.CYCLING, 20.5, 18));
+        Training first = persistTraining(training(user, "2024-03-01T08:00:00Z", ActivityType.RUNNING, 10, 9.5));
+        persistTraining(training(otherUser, "2024-03-02T08:00:00Z", ActivityType.WALKING, 3, 4));
+
+        MvcResult result = export(get("/v1/trainings/export/user/{userId}", user.getId()));
+
+        assertThat(result.getResponse().getContentType()).startsWith("text/csv");
+        assertThat(result.getResponse().getHeader("Content-Disposition")).contains("trainings-user-" + user.getId() + ".csv");
+        assertThat(result.getResponse().getContentAsString()).isEqualTo("""
+                id,userId,startTime,endTime,activityType,distance,averageSpeed
+                %d,%d,2024-03-01T08:00:00Z,2024-03-01T09:00:00Z,RUNNING,10.0,9.5
+                %d,%d,2024-03-05T09:00:00Z,2024-03-05T10:00:00Z,CYCLING,20.5,18.0
+                """.formatted(first.getId(), user.getId(), second.getId(), user.getId()));
+    }
+
+    @Test
+    void shouldExportAllTrainingsAsGzippedNdjson() throws Exception {
+        User user = existingUser(generateClient());
+        User otherUser = existingUser(generateClient());
+        Training first = persistTraining(training(user, "2024-03-01T08:00:00Z", ActivityType.RUNNING, 10, 9.5));
+        Training second = persistTraining(training(otherUser, "2024-03-02T08:00:00Z", ActivityType.WALKING, 3, 4));
+
+        MvcResult result = export(get("/v1/trainings/export").param("format", "NDJSON").param("gzip", "true"));
+
+        assertThat(result.getResponse().getContentType()).isEqualTo("application/gzip");
+        assertThat(result.getResponse().getHeader("Content-Disposition")).contains("trainings.ndjson.gz");
+        assertThat(gunzip(result.getResponse().getContentAsByteArray())).isEqualTo("""
+                {"id":%d,"userId":%d,"startTime":"2024-03-01T08:00:00Z","endTime":"2024-03-01T09:00:00Z","activityType":"RUNNING","distance":10.0,"averageSpeed":9.5}
+                {"id":%d,"userId":%d,"startTime":"2024-03-02T08:00:00Z","endTime":"2024-03-02T09:00:00Z","activityType":"WALKING","distance":3.0,"averageSpeed":4.0}
+                """.formatted(first.getId(), user.getId(), second.getId(), otherUser.getId()));
+    }
+
+    @Test
+    void shouldReturnNotFound_whenExportingTrainingsOfMissingUser() throws Exception {
+        mockMvc.perform(get("/v1/trainings/export/user/{userId}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    private MvcResult export(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Content-Disposition"))
+                .andReturn();
+    }
+
+    private static String gunzip(byte[] content) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    private static Training training(User user, String start, ActivityType activityType, double distance, double averageSpeed) {
+        Instant startTime = Instant.parse(start);
+        return new Training(user, Date.from(startTime), Date.from(startTime.plusSeconds(3600)), activityType, distance, averageSpeed);
+    }
+
+}
@@ -0,0 +1,94 @@
+package pl.wsb.fitnesstracker.training;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.SqlStatementCounter;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Date;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the training read endpoints against N+1 selects: each of them has to read trainings and their users
+ * with a single SQL statement, whatever the number of distinct users.
+ */
+@IntegrationTest
+@Transactional
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingQueryCountIntegrationTest extends IntegrationTestBase {
+
+    private static final int USERS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    private User firstUser;
+
+    @BeforeEach
+    void persistTrainingsOfDistinctUsers() {
+        for (int i = 0; i < USERS; i++) {
+            User user = existingUser(new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString()));
+            if (firstUser == null) {
+                firstUser = user;
+            }
+            persistTraining(new Training(user, new Date(1_000L), new Date(2_000L), ActivityType.RUNNING, 10, 8));
+            persistTraining(new Training(user, new Date(3_000L), new Date(4_000L), ActivityType.CYCLING, 20, 16));
+        }
+        sqlStatementCounter.reset();
+    }
+
+    @Test
+    void shouldReadAllTrainingsWithSingleStatement() throws Exception {
+        mockMvc.perform(get("/v1/trainings").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2 * USERS)));
+
+        sqlStatementCounter.assertStatementCount(1);
+    }
+
+    @Test
+    void shouldReadTrainingsOfUserWithSingleStatement() throws Exception {
+        mockMvc.perform(get("/v1/trainings/{userId}", firstUser.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        sqlStatementCounter.assertStatementCount(1);
+    }
+
+    @Test
+    void shouldReadFinishedTrainingsWithSingleStatement() throws Exception {
+        mockMvc.perform(get("/v1/trainings/finished/{afterTime}", "1970-01-01").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2 * USERS)));
+
+        sqlStatementCounter.assertStatementCount(1);
+    }
+
+    @Test
+    void shouldReadTrainingsByActivityTypeWithSingleStatement() throws Exception {
+        mockMvc.perform(get("/v1/trainings/activityType").param("activityType", "CYCLING").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(USERS)));
+
+        sqlStatementCounter.assertStatementCount(1);
+    }
+
+}
@@ -0,0 +1,108 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkApplication;
+import pl.wsb.fitnesstracker.BenchmarkData;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the aggregate queries of the {@link TrainingColumnStore} against the equivalent {@code group by} SQL
+ * executed by H2 over the same seeded trainings, filtered to the second year of the seeded range.
+ * The upper bound moves by a millisecond on every invocation, otherwise H2 serves the repeated SQL from its
+ * result cache of unchanged tables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TrainingAnalyticsBenchmark {
+
+    private static final int TOP_USERS = 10;
+
+    @Param({"10000"})
+    private int users;
+
+    @Param({"100"})
+    private int trainingsPerUser;
+
+    private ConfigurableApplicationContext context;
+
+    private TrainingColumnStore columnStore;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Timestamp from;
+
+    private Timestamp to;
+
+    private long invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("training-analytics-%d-%d".formatted(users, trainingsPerUser));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedUsers(jdbcTemplate, users);
+        BenchmarkData.seedTrainings(jdbcTemplate, trainingsPerUser);
+        columnStore = context.getBean(TrainingColumnStore.class);
+        columnStore.load();
+        from = Timestamp.valueOf(BenchmarkData.FIRST_TRAINING_DAY.plusYears(1).atStartOfDay());
+        to = Timestamp.valueOf(BenchmarkData.FIRST_TRAINING_DAY.plusYears(2).atStartOfDay());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ActivityDistanceDto> distanceByActivityColumnStore() {
+        return columnStore.distanceByActivity(from.getTime(), to().getTime());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> distanceByActivitySql() {
+        return jdbcTemplate.queryForList("""
+                select activity_type, count(*), sum(distance) from trainings
+                where start_time >= ? and start_time < ?
+                group by activity_type order by activity_type""", from, to());
+    }
+
+    @Benchmark
+    public List<MonthlySpeedDto> averageSpeedByMonthColumnStore() {
+        return columnStore.averageSpeedByMonth(from.getTime(), to().getTime());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> averageSpeedByMonthSql() {
+        return jdbcTemplate.queryForList("""
+                select year(start_time), month(start_time), count(*), avg(average_speed) from trainings
+                where start_time >= ? and start_time < ?
+                group by year(start_time), month(start_time) order by 1, 2""", from, to());
+    }
+
+    @Benchmark
+    public List<UserDistanceDto> topUsersColumnStore() {
+        return columnStore.topUsersByDistance(from.getTime(), to().getTime(), TOP_USERS);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> topUsersSql() {
+        return jdbcTemplate.queryForList("""
+                select user_id, count(*), sum(distance) as total from trainings
+                where start_time >= ? and start_time < ?
+                group by user_id order by total desc, user_id limit ?""", from, to(), TOP_USERS);
+    }
+
+    private Timestamp to() {
+        return new Timestamp(to.getTime() - invocation++ % 1000);
+    }
+
+}
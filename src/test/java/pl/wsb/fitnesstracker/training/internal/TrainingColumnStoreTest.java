@@ -0,0 +1,153 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The store is tested without the application context, its trainings are streamed from a mocked repository.
+ */
+class TrainingColumnStoreTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private static final long FROM = 0;
+
+    private static final long TO = 1000 * DAY;
+
+    /**
+     * Start time of the trainings outside of the queried range.
+     */
+    private static final long OUT_OF_RANGE = 2000 * DAY;
+
+    private final TrainingRepository trainingRepository = mock(TrainingRepository.class);
+
+    private final TrainingColumnStore store = new TrainingColumnStore(trainingRepository, mock(PlatformTransactionManager.class));
+
+    @Test
+    void shouldRejectQueries_andReplayConcurrentChanges_whileLoading() {
+        List<TrainingRow> stored = List.of(
+                row(1, 1, DAY, ActivityType.RUNNING, 10),
+                row(2, 1, DAY, ActivityType.RUNNING, 20),
+                row(3, 2, DAY, ActivityType.CYCLING, 30));
+        when(trainingRepository.streamRows()).thenReturn(stored.stream().peek(row -> {
+            if (row.id() == 1) {
+                assertThatThrownBy(() -> store.distanceByActivity(FROM, TO)).isInstanceOf(TrainingStoreLoadingException.class);
+                // committed while the rows are streamed: deleted before its row arrives, updated before and after
+                store.remove(3L);
+                store.put(row(2, 1, DAY, ActivityType.RUNNING, 5));
+            }
+        }));
+
+        store.load();
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.distanceByActivity(FROM, TO))
+                .containsExactly(new ActivityDistanceDto(ActivityType.RUNNING, 2, 15));
+    }
+
+    @Test
+    void shouldKeepAggregatesAndRowMapping_whenDeletedRowsCompacted() {
+        load(LongStream.rangeClosed(1, 4000).mapToObj(id -> row(id, id % 10, DAY, ActivityType.RUNNING, 1)));
+
+        for (long id = 1; id <= 4000; id++) {
+            if (id % 4 != 0) {
+                store.remove(id);
+            }
+        }
+        assertThat(store.size()).isEqualTo(1000);
+        assertThat(store.distanceByActivity(FROM, TO))
+                .containsExactly(new ActivityDistanceDto(ActivityType.RUNNING, 1000, 1000));
+
+        // the surviving rows moved, updates and deletes have to find them at their new position
+        for (long id = 4; id <= 2000; id += 4) {
+            store.put(row(id, id % 10, DAY, ActivityType.CYCLING, 2));
+        }
+        store.remove(4000L);
+        assertThat(store.distanceByActivity(FROM, TO)).containsExactly(
+                new ActivityDistanceDto(ActivityType.RUNNING, 499, 499),
+                new ActivityDistanceDto(ActivityType.CYCLING, 500, 1000));
+        assertThat(store.topUsersByDistance(FROM, TO, 1))
+                .singleElement()
+                .extracting(UserDistanceDto::trainings)
+                .isEqualTo(200L);
+    }
+
+    @Test
+    void shouldServeConsistentAggregates_whileTrainingsWrittenConcurrently() throws Exception {
+        int trainings = 5000;
+        load(LongStream.rangeClosed(1, trainings).mapToObj(id -> row(id, id % 100, DAY, ActivityType.RUNNING, 1)));
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<List<ActivityDistanceDto>> results = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            // moves the in range trainings between activities, their total stays the same
+            tasks.add(executor.submit(() -> {
+                for (int round = 0; running.get(); round++) {
+                    ActivityType activityType = round % 2 == 0 ? ActivityType.CYCLING : ActivityType.RUNNING;
+                    for (long id = 1; id <= trainings; id += 7) {
+                        store.put(row(id, id % 100, DAY, activityType, 1));
+                    }
+                }
+            }));
+            // churns trainings out of the queried range, growing and compacting the columns
+            tasks.add(executor.submit(() -> {
+                for (long id = trainings + 1; running.get(); id++) {
+                    store.put(row(id, id % 1000, OUT_OF_RANGE, ActivityType.WALKING, 100));
+                    if (id % 3 != 0) {
+                        store.remove(id);
+                    }
+                }
+            }));
+            for (int reader = 0; reader < 2; reader++) {
+                tasks.add(executor.submit(() -> {
+                    for (int query = 0; query < 200; query++) {
+                        results.add(store.distanceByActivity(FROM, TO));
+                    }
+                }));
+            }
+            tasks.get(2).get(1, TimeUnit.MINUTES);
+            tasks.get(3).get(1, TimeUnit.MINUTES);
+            running.set(false);
+            tasks.get(0).get(1, TimeUnit.MINUTES);
+            tasks.get(1).get(1, TimeUnit.MINUTES);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+
+        assertThat(results)
+                .hasSize(400)
+                .allSatisfy(result -> {
+                    assertThat(result.stream().mapToLong(ActivityDistanceDto::trainings).sum()).isEqualTo(trainings);
+                    assertThat(result.stream().mapToDouble(ActivityDistanceDto::distance).sum()).isEqualTo(trainings);
+                });
+    }
+
+    private void load(Stream<TrainingRow> rows) {
+        when(trainingRepository.streamRows()).thenReturn(rows);
+        store.load();
+    }
+
+    private static TrainingRow row(long id, long userId, long startMillis, ActivityType activityType, double distance) {
+        return new TrainingRow(id, userId, new Date(startMillis), new Date(startMillis + 60 * 60 * 1000L), activityType, distance, 10);
+    }
+
+}
@@ -0,0 +1,83 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkApplication;
+import pl.wsb.fitnesstracker.BenchmarkData;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (p50/p99 in the {@link Mode#SampleTime} report) of the {@link TrainingRepository} filters
+ * over a large seeded dataset. The {@code indexed} parameter set to {@code false} drops the composite indexes
+ * on {@code trainings} before the run, giving the baseline to compare against. Note that H2 keeps its own index
+ * backing the {@code user_id} foreign key constraint, so the baseline of {@link #byUser()} is not a full scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TrainingFilterBenchmark {
+
+    @Param({"10000"})
+    private int users;
+
+    @Param({"100"})
+    private int trainingsPerUser;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private ConfigurableApplicationContext context;
+
+    private TrainingRepository trainingRepository;
+
+    private java.util.Date recentEndTime;
+
+    private Long[] userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("training-filter-%d-%d-%s".formatted(users, trainingsPerUser, indexed));
+        trainingRepository = context.getBean(TrainingRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedUsers(jdbcTemplate, users);
+        BenchmarkData.seedTrainings(jdbcTemplate, trainingsPerUser);
+        userIds = jdbcTemplate.queryForList("select id from users", Long.class).toArray(Long[]::new);
+        if (!indexed) {
+            jdbcTemplate.execute("drop index ix_trainings_user_start_time");
+            jdbcTemplate.execute("drop index ix_trainings_end_time");
+            jdbcTemplate.execute("drop index ix_trainings_activity_type_start_time");
+        }
+        recentEndTime = Date.valueOf(BenchmarkData.FIRST_TRAINING_DAY.plusDays(BenchmarkData.TRAINING_DAYS - 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Training> byUser() {
+        return trainingRepository.findByUserIdOrderByStartTime(userIds[ThreadLocalRandom.current().nextInt(userIds.length)]);
+    }
+
+    @Benchmark
+    public List<Training> finishedAfter() {
+        return trainingRepository.findByEndTimeAfterOrderByEndTime(recentEndTime);
+    }
+
+    @Benchmark
+    public List<Training> byActivityType() {
+        ActivityType[] activityTypes = ActivityType.values();
+        return trainingRepository.findByActivityTypeOrderByStartTime(activityTypes[ThreadLocalRandom.current().nextInt(activityTypes.length)]);
+    }
+
+}
@@ -0,0 +1,85 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkApplication;
+import pl.wsb.fitnesstracker.BenchmarkData;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of ingesting trainings one by one through {@link TrainingServiceImpl#createTraining(Long, Training)}
+ * (a transaction and a round trip per training) against the bulk {@link TrainingBatchService}.
+ * Scores are operations per second, one operation ingesting {@code trainings} trainings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class TrainingIngestionBenchmark {
+
+    private static final int USERS = 100;
+
+    @Param({"1000"})
+    private int trainings;
+
+    private ConfigurableApplicationContext context;
+
+    private TrainingServiceImpl trainingService;
+
+    private TrainingBatchService trainingBatchService;
+
+    private TrainingMapper trainingMapper;
+
+    private List<TrainingRequestDto> trainingDtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("training-ingestion-" + trainings);
+        trainingService = context.getBean(TrainingServiceImpl.class);
+        trainingBatchService = context.getBean(TrainingBatchService.class);
+        trainingMapper = context.getBean(TrainingMapper.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedUsers(jdbcTemplate, USERS);
+        List<Long> userIds = jdbcTemplate.queryForList("select id from users", Long.class);
+
+        SplittableRandom random = new SplittableRandom(42);
+        trainingDtos = new ArrayList<>(trainings);
+        for (int i = 0; i < trainings; i++) {
+            long start = 1_700_000_000_000L + random.nextLong(10_000_000_000L);
+            trainingDtos.add(new TrainingRequestDto(userIds.get(random.nextInt(userIds.size())),
+                    new Date(start),
+                    new Date(start + 3_600_000L),
+                    ActivityType.values()[random.nextInt(ActivityType.values().length)],
+                    random.nextDouble() * 20,
+                    random.nextDouble() * 20));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int singleInserts() {
+        for (TrainingRequestDto trainingDto : trainingDtos) {
+            trainingService.createTraining(trainingDto.userId(), trainingMapper.toEntity(trainingDto));
+        }
+        return trainingDtos.size();
+    }
+
+    @Benchmark
+    public TrainingBatchResultDto batchInsert() {
+        return trainingBatchService.createTrainings(trainingDtos.stream().map(TrainingBatchItem::of).iterator());
+    }
+
+}
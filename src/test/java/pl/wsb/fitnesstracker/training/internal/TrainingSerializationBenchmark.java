@@ -0,0 +1,91 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkApplication;
+import pl.wsb.fitnesstracker.BenchmarkData;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the steps between the loaded {@link Training} entities (with their users) and the response body
+ * of {@code GET /v1/trainings}: mapping through {@link TrainingMapper} in both directions and serializing
+ * the mapped list with the application {@link ObjectMapper}. The entities are loaded once, so the database
+ * is out of the picture.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainingSerializationBenchmark {
+
+    private static final int USERS = 100;
+
+    @Param({"1", "100"})
+    private int trainingsPerUser;
+
+    private ConfigurableApplicationContext context;
+
+    private TrainingMapper trainingMapper;
+
+    private ObjectMapper objectMapper;
+
+    private List<Training> entities;
+
+    private List<TrainingDto> dtos;
+
+    private List<TrainingRequestDto> requestDtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("training-serialization-" + trainingsPerUser);
+        trainingMapper = context.getBean(TrainingMapper.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedUsers(jdbcTemplate, USERS);
+        BenchmarkData.seedTrainings(jdbcTemplate, trainingsPerUser);
+        entities = context.getBean(TrainingServiceImpl.class).findAllTrainings();
+        dtos = entities.stream().map(trainingMapper::toDto).toList();
+        requestDtos = entities.stream()
+                .map(training -> new TrainingRequestDto(training.getUser().getId(),
+                        training.getStartTime(),
+                        training.getEndTime(),
+                        training.getActivityType(),
+                        training.getDistance(),
+                        training.getAverageSpeed()))
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TrainingDto> entitiesToDto() {
+        return entities.stream().map(trainingMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<Training> requestDtosToEntity() {
+        return requestDtos.stream().map(trainingMapper::toEntity).toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities.stream().map(trainingMapper::toDto).toList());
+    }
+
+}
@@ -0,0 +1,88 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The writes are committed, not rolled back with a test transaction, so the index sees them as the application does.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "user.birthdate-search=memory")
+class InMemoryBirthdateIndexIntegrationTest extends IntegrationTestBase {
+
+    private static final LocalDate CUTOFF = LocalDate.of(2024, 8, 10);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserBirthdateSearch birthdateSearch;
+
+    @Test
+    void shouldReturnUsersBornBefore_whenSearchingInMemory() throws Exception {
+        User older = existingUser(new User("Emma", "Wilson", LocalDate.of(2000, 8, 11), "emma.wilson@domain.com"));
+        User oldest = existingUser(new User("Liam", "Brown", LocalDate.of(1980, 1, 1), "liam.brown@domain.com"));
+        existingUser(new User("Noah", "Davis", CUTOFF, "noah.davis@domain.com"));
+
+        assertThat(birthdateSearch).isInstanceOf(InMemoryBirthdateIndex.class);
+        olderThanCutoff()
+                .andExpect(jsonPath("$[*].Id").value(contains(older.getId().intValue(), oldest.getId().intValue())))
+                .andExpect(jsonPath("$[1].firstName").value("Liam"));
+    }
+
+    @Test
+    void shouldMoveUser_whenBirthdateUpdated() throws Exception {
+        User user = existingUser(new User("Emma", "Wilson", LocalDate.of(2000, 8, 11), "emma.wilson@domain.com"));
+        olderThanCutoff().andExpect(jsonPath("$[*].Id").value(contains(user.getId().intValue())));
+
+        update(user, CUTOFF.plusDays(1));
+        olderThanCutoff().andExpect(jsonPath("$").value(empty()));
+
+        update(user, CUTOFF.minusDays(1));
+        olderThanCutoff().andExpect(jsonPath("$[*].Id").value(contains(user.getId().intValue())));
+    }
+
+    @Test
+    void shouldNotReturnUser_whenDeleted() throws Exception {
+        User deleted = existingUser(new User("Emma", "Wilson", LocalDate.of(2000, 8, 11), "emma.wilson@domain.com"));
+        User kept = existingUser(new User("Liam", "Brown", LocalDate.of(2000, 8, 11), "liam.brown@domain.com"));
+
+        mockMvc.perform(delete("/v1/users/{userId}", deleted.getId()))
+                .andExpect(status().isNoContent());
+
+        olderThanCutoff().andExpect(jsonPath("$[*].Id").value(contains(kept.getId().intValue())));
+    }
+
+    private ResultActions olderThanCutoff() throws Exception {
+        return mockMvc.perform(get("/v1/users/older/{time}", CUTOFF))
+                .andExpect(status().isOk());
+    }
+
+    private void update(User user, LocalDate birthdate) throws Exception {
+        mockMvc.perform(put("/v1/users/{userId}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"firstName": "%s", "lastName": "%s", "birthdate": "%s", "email": "%s"}
+                                """.formatted(user.getFirstName(), user.getLastName(), birthdate, user.getEmail())))
+                .andExpect(status().isOk());
+    }
+
+}
@@ -0,0 +1,126 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The index is tested without the application context, the matching users are "loaded" from a mocked repository
+ * that returns just their IDs.
+ */
+class InMemoryBirthdateIndexTest {
+
+    private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final InMemoryBirthdateIndex index = new InMemoryBirthdateIndex(userRepository);
+
+    InMemoryBirthdateIndexTest() {
+        when(userRepository.findAllByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new UserDto(id, null, null, null, null)).toList();
+        });
+    }
+
+    @Test
+    void shouldMatchModel_whenUsersLoadedAndChangedInBatchesAcrossSegments() {
+        Random random = new Random(42);
+        Map<Long, LocalDate> model = new HashMap<>();
+        List<IndexedUser> initial = new ArrayList<>();
+        for (long id = 1; id <= 10 * InMemoryBirthdateIndex.SEGMENT_SIZE; id++) {
+            IndexedUser user = user(id, random.nextInt(1000));
+            initial.add(user);
+            model.put(id, user.birthdate());
+        }
+        when(userRepository.findAllIndexed()).thenReturn(initial);
+        index.load();
+
+        for (int batch = 0; batch < 200; batch++) {
+            List<IndexedUser> users = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            // large batches split the segments, removals empty them
+            int size = batch % 10 == 0 ? 2 * InMemoryBirthdateIndex.SEGMENT_SIZE : random.nextInt(20);
+            for (int change = 0; change < size; change++) {
+                long id = 1 + random.nextInt(20 * InMemoryBirthdateIndex.SEGMENT_SIZE);
+                if (users.stream().anyMatch(user -> user.id() == id) || removed.contains(id)) {
+                    continue;
+                }
+                if (random.nextInt(3) == 0) {
+                    removed.add(id);
+                    model.remove(id);
+                } else {
+                    IndexedUser user = user(id, random.nextInt(1000));
+                    users.add(user);
+                    model.put(id, user.birthdate());
+                }
+            }
+            index.putAll(users, removed);
+
+            LocalDate cutoff = EPOCH.plusDays(random.nextInt(1100));
+            assertThat(bornBefore(cutoff)).containsExactlyElementsOf(model.entrySet().stream()
+                    .filter(entry -> entry.getValue().isBefore(cutoff))
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    @Test
+    void shouldKeepUserVisible_whileBirthdateUpdated() throws Exception {
+        when(userRepository.findAllIndexed()).thenReturn(List.of(user(1, 100), user(2, 200), user(3, 300)));
+        index.load();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int round = 0; running.get(); round++) {
+                index.put(user(2, round % 2 == 0 ? 50 : 250));
+            }
+        });
+        try {
+            for (int query = 0; query < 10_000; query++) {
+                assertThat(bornBefore(EPOCH.plusDays(400))).containsExactly(1L, 2L, 3L);
+            }
+        } finally {
+            running.set(false);
+            writer.get(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    void shouldReturnNoUsers_whenAllRemoved() {
+        when(userRepository.findAllIndexed()).thenReturn(List.of(user(1, 100), user(2, 200)));
+        index.load();
+
+        index.remove(1L);
+        index.remove(2L);
+        index.remove(3L);
+
+        assertThat(bornBefore(EPOCH.plusDays(1000))).isEmpty();
+        index.put(user(3, 300));
+        assertThat(bornBefore(EPOCH.plusDays(1000))).containsExactly(3L);
+    }
+
+    private List<Long> bornBefore(LocalDate cutoff) {
+        return index.findBornBefore(cutoff).stream().map(UserDto::Id).toList();
+    }
+
+    private static IndexedUser user(long id, int epochDay) {
+        return new IndexedUser(id, id + "@domain.com", EPOCH.plusDays(epochDay));
+    }
+
+}
@@ -1,16 +1,23 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.annotation.Nullable;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 import pl.wsb.fitnesstracker.IntegrationTest;
 import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
 import pl.wsb.fitnesstracker.user.api.User;
 
 import java.time.LocalDate;
+import java.util.Date;
 import java.util.List;
 
 import static java.time.format.DateTimeFormatter.ISO_DATE;
@@ -19,7 +26,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @IntegrationTest
@@ -30,6 +39,31 @@ class UserApiIntegrationTest extends IntegrationTestBase {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<String> streamUsers(@Nullable Long after) throws Exception {
+        MockHttpServletRequestBuilder streamRequest = get("/v1/users").accept(MediaType.APPLICATION_NDJSON);
+        if (after != null) {
+            streamRequest.param("after", after.toString());
+        }
+        MvcResult result = mockMvc.perform(streamRequest)
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+        String content = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return content.lines().toList();
+    }
+
+    private static String ndjson(User user) {
+        return "{\"Id\":%d,\"firstName\":\"%s\",\"lastName\":\"%s\",\"birthdate\":\"%s\",\"email\":\"%s\"}".formatted(
+                user.getId(), user.getFirstName(), user.getLastName(), ISO_DATE.format(user.getBirthdate()), user.getEmail());
+    }
+
     public static User generateUser() {
         return new User(randomUUID().toString(), randomUUID().toString(), LocalDate.now(), randomUUID().toString());
     }
@@ -58,6 +92,48 @@ class UserApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[2]").doesNotExist());
     }
 
+    @Test
+    void shouldReturnNextPageOfUsers_whenGettingUsersWithKeyset() throws Exception {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+        User user3 = existingUser(generateUser());
+
+        mockMvc.perform(get("/v1/users").param("limit", "2").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].firstName").value(user1.getFirstName()))
+                .andExpect(jsonPath("$[1].firstName").value(user2.getFirstName()));
+
+        mockMvc.perform(get("/v1/users").param("after", user2.getId().toString()).param("limit", "2").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].firstName").value(user3.getFirstName()))
+                .andExpect(jsonPath("$[0].email").value(user3.getEmail()));
+    }
+
+    @Test
+    void shouldStreamUsersAsNdjson_afterGivenId() throws Exception {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+        User user3 = existingUser(generateUser());
+        // the stream is read on the async request thread, in its own transaction
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertThat(streamUsers(null)).containsExactly(ndjson(user1), ndjson(user2), ndjson(user3));
+        assertThat(streamUsers(user1.getId())).containsExactly(ndjson(user2), ndjson(user3));
+        assertThat(streamUsers(user3.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldRejectCursor_whenGettingAllUsersWithoutLimit() throws Exception {
+        mockMvc.perform(get("/v1/users").param("after", "1").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturnAllSimpleUsers_whenGettingAllUsers() throws Exception {
         User user1 = existingUser(generateUser());
@@ -94,6 +170,9 @@ class UserApiIntegrationTest extends IntegrationTestBase {
     @Test
     void shouldReturnDetailsAboutUser_whenGettingUserByEmail() throws Exception {
         User user1 = existingUser(generateUser());
+        // the email index only sees committed users
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
 
         mockMvc.perform(get("/v1/users/email").param("email", user1.getEmail()).contentType(MediaType.APPLICATION_JSON))
                 .andDo(log())
@@ -135,6 +214,17 @@ class UserApiIntegrationTest extends IntegrationTestBase {
 
     }
 
+    @Test
+    void shouldRespondConflict_whenDeletingUserWithTrainings() throws Exception {
+        User user1 = existingUser(generateUser());
+        persistTraining(new Training(user1, new Date(), new Date(), ActivityType.RUNNING, 10.5, 8.2));
+
+        mockMvc.perform(delete("/v1/users/{userId}", user1.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void shouldPersistUser_whenCreatingUser() throws Exception {
 
@@ -211,5 +301,48 @@ class UserApiIntegrationTest extends IntegrationTestBase {
         assertThat(user.getEmail()).isEqualTo(USER_EMAIL);
     }
 
+    @Test
+    void shouldFindUser_whenLookingUpEmailInDifferentCase() {
+        User user1 = existingUser(new User("Mike", "Scott", LocalDate.of(1990, 5, 1), "mike.scott@domain.com"));
+
+        assertThat(userRepository.findByEmail(" Mike.SCOTT@Domain.com ")).map(User::getId).contains(user1.getId());
+        assertThat(userRepository.findByEmail("mike.scott@domain.org")).isEmpty();
+    }
+
+    @Test
+    void shouldRejectUser_whenCreatingUserWithEmailDifferingOnlyInCase() throws Exception {
+        existingUser(new User("Mike", "Scott", LocalDate.of(1990, 5, 1), "mike.scott@domain.com"));
+
+        mockMvc.perform(post("/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"firstName": "Michael", "lastName": "Scott", "birthdate": "1985-03-15", "email": "Mike.Scott@Domain.com"}
+                                """))
+                .andDo(log())
+                .andExpect(status().isConflict());
+
+        assertThat(getAllUsers()).hasSize(1);
+    }
+
+    @Test
+    void shouldRejectUpdate_whenEmailTakenByAnotherUser() throws Exception {
+        existingUser(new User("Mike", "Scott", LocalDate.of(1990, 5, 1), "mike.scott@domain.com"));
+        User user2 = existingUser(new User("Dwight", "Schrute", LocalDate.of(1988, 1, 20), "dwight.schrute@domain.com"));
+
+        mockMvc.perform(put("/v1/users/{userId}", user2.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"firstName": "Dwight", "lastName": "Schrute", "birthdate": "1988-01-20", "email": "MIKE.SCOTT@domain.com"}
+                                """))
+                .andDo(log())
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/v1/users/{userId}", user2.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"firstName": "Dwight", "lastName": "Schrute", "birthdate": "1988-01-20", "email": "Dwight.Schrute@domain.com"}
+                                """))
+                .andDo(log())
+                .andExpect(status().isOk());
+    }
 
 }
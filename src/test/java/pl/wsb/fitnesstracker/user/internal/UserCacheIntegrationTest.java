@@ -0,0 +1,80 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.SqlStatementCounter;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserDto;
+
+import java.time.LocalDate;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@Transactional
+class UserCacheIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache_byIdAndNormalizedEmail() {
+        User user = existingUser(newUser("John." + randomUUID() + "@Domain.com"));
+        sqlStatementCounter.reset();
+        double hits = cacheGets(UserCache.NAME, "hit");
+        double emailHits = cacheGets(UserCache.EMAIL_NAME, "hit");
+        double emailMisses = cacheGets(UserCache.EMAIL_NAME, "miss");
+
+        assertThat(userService.getUser(user.getId())).map(UserDto::firstName).contains("John");
+        assertThat(userService.getUser(user.getId())).map(UserDto::firstName).contains("John");
+        sqlStatementCounter.assertStatementCount(1);
+
+        assertThat(userService.getUserByEmail(" " + user.getEmail().toUpperCase() + " ")).map(UserDto::id).contains(user.getId());
+        assertThat(userService.getUserByEmail(user.getEmail())).map(UserDto::id).contains(user.getId());
+        // the email is resolved to the ID, the user itself is already cached by it
+        sqlStatementCounter.assertStatementCount(2);
+        assertThat(cacheGets(UserCache.NAME, "hit") - hits).isEqualTo(3);
+        assertThat(cacheGets(UserCache.EMAIL_NAME, "miss") - emailMisses).isEqualTo(1);
+        assertThat(cacheGets(UserCache.EMAIL_NAME, "hit") - emailHits).isEqualTo(1);
+    }
+
+    @Test
+    void shouldInvalidateCachedUser_whenUserUpdatedOrDeleted() {
+        User user = existingUser(newUser("john." + randomUUID() + "@domain.com"));
+        String oldEmail = user.getEmail();
+        String newEmail = "jane." + randomUUID() + "@domain.com";
+        assertThat(userService.getUser(user.getId())).isPresent();
+        assertThat(userService.getUserByEmail(oldEmail)).isPresent();
+
+        userService.updateUser(user.getId(), new User("Jane", "Doe", LocalDate.of(1990, 1, 1), newEmail));
+
+        assertThat(userService.getUser(user.getId())).map(UserDto::firstName).contains("Jane");
+        assertThat(userService.getUserByEmail(oldEmail)).isEmpty();
+        assertThat(userService.getUserByEmail(newEmail)).map(UserDto::id).contains(user.getId());
+
+        userService.deleteUser(user.getId());
+
+        assertThat(userService.getUser(user.getId())).isEmpty();
+        assertThat(userService.getUserByEmail(newEmail)).isEmpty();
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+
+    private static User newUser(String email) {
+        return new User("John", "Doe", LocalDate.of(1990, 1, 1), email);
+    }
+
+}
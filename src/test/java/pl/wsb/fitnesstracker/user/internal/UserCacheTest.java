@@ -0,0 +1,90 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserDto;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+
+    private final UserCache userCache = new UserCache(new UserCacheProperties(100, Duration.ofMinutes(10)), new SimpleMeterRegistry());
+
+    private final AtomicInteger resolvedEmails = new AtomicInteger();
+
+    private final AtomicInteger loadedUsers = new AtomicInteger();
+
+    @Test
+    void shouldLoadUserOnce_whenSameEmailLookedUpConcurrently() throws Exception {
+        User user = user(1L, "john.doe@domain.com");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<UserDto>>> lookups = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                lookups.add(executor.submit(() -> {
+                    start.await();
+                    return userCache.getByEmail("John.Doe@Domain.com", email -> {
+                        resolvedEmails.incrementAndGet();
+                        sleep();
+                        return Optional.of(user.getId());
+                    }, id -> {
+                        loadedUsers.incrementAndGet();
+                        sleep();
+                        return Optional.of(user);
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Optional<UserDto>> lookup : lookups) {
+                assertThat(lookup.get(1, TimeUnit.MINUTES)).map(UserDto::id).contains(1L);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(resolvedEmails).hasValue(1);
+        assertThat(loadedUsers).hasValue(1);
+    }
+
+    @Test
+    void shouldResolveEmailAgain_whenCachedUserNoLongerHasIt() {
+        userCache.getByEmail("john.doe@domain.com", email -> Optional.of(1L), id -> Optional.of(user(1L, "john.doe@domain.com")));
+        // the email moved to another user, the first one changed it bypassing the cache
+        userCache.put(new IndexedUser(1L, "john.smith@domain.com", LocalDate.of(1990, 1, 1)));
+
+        Optional<UserDto> found = userCache.getByEmail("john.doe@domain.com", email -> Optional.of(2L),
+                id -> Optional.of(id == 1L ? user(1L, "john.smith@domain.com") : user(2L, "john.doe@domain.com")));
+
+        assertThat(found).map(UserDto::id).contains(2L);
+    }
+
+    private static User user(Long id, String email) {
+        User user = new User("John", "Doe", LocalDate.of(1990, 1, 1), email);
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkApplication;
+import pl.wsb.fitnesstracker.BenchmarkData;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the index backed {@link UserRepository#findByEmail(String)} with the former
+ * {@code findAll()} + stream scan for growing user tables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class UserEmailLookupBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+
+    private UserRepository userRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("email-lookup-" + users);
+        userRepository = context.getBean(UserRepository.class);
+        BenchmarkData.seedUsers(context.getBean(JdbcTemplate.class), users);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> indexedLookup() {
+        return userRepository.findByEmail(randomEmail());
+    }
+
+    @Benchmark
+    public Optional<User> streamScan() {
+        String email = randomEmail();
+        return userRepository.findAll().stream()
+                .filter(user -> Objects.equals(user.getEmail(), email))
+                .findFirst();
+    }
+
+    private String randomEmail() {
+        return BenchmarkData.email(ThreadLocalRandom.current().nextInt(users));
+    }
+
+}
@@ -0,0 +1,61 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The index is tested without the application context, the indexed users are "read" from a mocked repository.
+ */
+class UserEmailSearchIndexTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final UserEmailSearchIndex index = new UserEmailSearchIndex(userRepository);
+
+    @Test
+    void shouldApplyRemovalAfterLoad_whenUserRemovedWhileLoading() throws Exception {
+        CompletableFuture<Void> removal = new CompletableFuture<>();
+        when(userRepository.findAllIndexed()).thenAnswer(invocation -> {
+            // the removal is committed after the users were read, the synchronizer applies it while loading
+            removal.completeAsync(() -> {
+                index.remove(1L);
+                return null;
+            });
+            assertThatThrownBy(() -> removal.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            return List.of(user(1, "emma.johnson@domain.com"), user(2, "emma.brown@domain.com"));
+        });
+
+        index.load();
+        removal.get(1, TimeUnit.MINUTES);
+
+        assertThat(index.search("emma", null, 10)).extracting(UserEmailDto::email).containsExactly("emma.brown@domain.com");
+    }
+
+    @Test
+    void shouldReplacePreviousState_whenLoadedAgain() {
+        when(userRepository.findAllIndexed())
+                .thenReturn(List.of(user(1, "emma.johnson@domain.com"), user(2, "emma.brown@domain.com")))
+                .thenReturn(List.of(user(2, "olivia.brown@domain.com")));
+
+        index.load();
+        index.load();
+
+        assertThat(index.search("emma", null, 10)).isEmpty();
+        assertThat(index.search("brown", null, 10)).extracting(UserEmailDto::id).containsExactly(2L);
+    }
+
+    private static IndexedUser user(long id, String email) {
+        return new IndexedUser(id, email, LocalDate.of(1990, 1, 1));
+    }
+
+}
@@ -0,0 +1,126 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The writes are committed, not rolled back with a test transaction, as the index only reflects committed users.
+ */
+@IntegrationTest
+class UserEmailSearchIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void shouldReturnUsersContainingFragment_whenSearchingByEmail() throws Exception {
+        User emma = existingUser(user("emma.wilson@domain.com"));
+        existingUser(user("liam.brown@domain.com"));
+        User wilma = existingUser(user("wilma.davis@other.com"));
+
+        search("wil").andExpect(jsonPath("$[*].id").value(contains(emma.getId().intValue(), wilma.getId().intValue())));
+        search("a.w").andExpect(jsonPath("$[*].email").value(contains("emma.wilson@domain.com")));
+        // shorter than a trigram
+        search("@o").andExpect(jsonPath("$[*].email").value(contains("wilma.davis@other.com")));
+        search("wilson@other").andExpect(jsonPath("$").value(empty()));
+    }
+
+    @Test
+    void shouldIgnoreCase_whenSearchingByEmail() throws Exception {
+        User user = existingUser(user("Emma.Wilson@Domain.com"));
+
+        search("WILSON@domain")
+                .andExpect(jsonPath("$[*].id").value(contains(user.getId().intValue())))
+                .andExpect(jsonPath("$[0].email").value("Emma.Wilson@Domain.com"));
+    }
+
+    @Test
+    void shouldReturnPagesAfterCursor_whenSearchingWithLimit() throws Exception {
+        User first = existingUser(user("first.runner@domain.com"));
+        existingUser(user("walker@domain.com"));
+        User second = existingUser(user("second.runner@domain.com"));
+        User third = existingUser(user("third.runner@domain.com"));
+
+        mockMvc.perform(get("/v1/users/email").param("email", "runner").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(first.getId().intValue(), second.getId().intValue())));
+        mockMvc.perform(get("/v1/users/email").param("email", "runner").param("limit", "2").param("after", second.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(third.getId().intValue())));
+    }
+
+    @Test
+    void shouldFindNewEmailOnly_whenEmailUpdated() throws Exception {
+        User user = existingUser(user("emma.wilson@domain.com"));
+
+        mockMvc.perform(put("/v1/users/{userId}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"firstName": "Emma", "lastName": "Brown", "birthdate": "1990-05-01", "email": "emma.brown@domain.com"}
+                                """))
+                .andExpect(status().isOk());
+
+        search("wilson").andExpect(jsonPath("$").value(empty()));
+        search("brown").andExpect(jsonPath("$[*].id").value(contains(user.getId().intValue())));
+    }
+
+    @Test
+    void shouldNotFindUser_whenDeleted() throws Exception {
+        User user = existingUser(user("emma.wilson@domain.com"));
+
+        mockMvc.perform(delete("/v1/users/{userId}", user.getId()))
+                .andExpect(status().isNoContent());
+
+        search("wilson").andExpect(jsonPath("$").value(empty()));
+    }
+
+    @Test
+    void shouldKeepCommittedState_whenWritesRolledBack() throws Exception {
+        User updated = existingUser(user("emma.wilson@domain.com"));
+        User deleted = existingUser(user("liam.wilson@domain.com"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.save(user("noah.wilson@domain.com"));
+            userRepository.findById(updated.getId()).orElseThrow().setEmail("emma.brown@domain.com");
+            userRepository.deleteById(deleted.getId());
+            userRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        search("wilson").andExpect(jsonPath("$[*].id").value(contains(updated.getId().intValue(), deleted.getId().intValue())));
+        search("brown").andExpect(jsonPath("$").value(empty()));
+    }
+
+    private ResultActions search(String fragment) throws Exception {
+        return mockMvc.perform(get("/v1/users/email").param("email", fragment))
+                .andExpect(status().isOk());
+    }
+
+    private static User user(String email) {
+        return new User("Emma", "Wilson", LocalDate.of(1990, 5, 1), email);
+    }
+
+}
@@ -0,0 +1,60 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkApplication;
+import pl.wsb.fitnesstracker.BenchmarkData;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link UserSummaryDto} projection behind {@code GET /v1/users/simple} with loading all
+ * {@code User} entities and mapping them through {@link UserMapper}.
+ * Run with {@code -prof gc} to see the allocation rate per operation next to the latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserListingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+
+    private UserServiceImpl userService;
+
+    private UserMapper userMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("user-listing-" + users);
+        userService = context.getBean(UserServiceImpl.class);
+        userMapper = context.getBean(UserMapper.class);
+        BenchmarkData.seedUsers(context.getBean(JdbcTemplate.class), users);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserSummaryDto> summaryProjection() {
+        return userService.findAllUserSummaries();
+    }
+
+    @Benchmark
+    public List<UserDto> entitiesMappedToDto() {
+        return userService.findAllUsers()
+                .stream()
+                .map(userMapper::toDto)
+                .toList();
+    }
+
+}
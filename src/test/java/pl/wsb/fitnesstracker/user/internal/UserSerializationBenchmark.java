@@ -0,0 +1,76 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkApplication;
+import pl.wsb.fitnesstracker.BenchmarkData;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the steps between the loaded {@code User} entities and the response body of {@code GET /v1/users}:
+ * mapping through {@link UserMapper} in both directions and serializing the mapped list with the application
+ * {@link ObjectMapper}. The entities are loaded once, so the database is out of the picture.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+
+    private UserMapper userMapper;
+
+    private ObjectMapper objectMapper;
+
+    private List<User> entities;
+
+    private List<UserDto> dtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("user-serialization-" + users);
+        userMapper = context.getBean(UserMapper.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        BenchmarkData.seedUsers(context.getBean(JdbcTemplate.class), users);
+        entities = context.getBean(UserServiceImpl.class).findAllUsers();
+        dtos = entities.stream().map(userMapper::toDto).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserDto> entitiesToDto() {
+        return entities.stream().map(userMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<User> dtosToEntity() {
+        return dtos.stream().map(userMapper::toEntity).toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities.stream().map(userMapper::toDto).toList());
+    }
+
+}